@@ -122,6 +122,15 @@ public class TripRequestMapper {
       PreferencesMapper.mapPreferences(environment, callWith, preferences)
     );
 
+    // Skip the walk steps and the elevation profiles if the client does not ask for them
+    var selectionSet = environment.getSelectionSet();
+    if (selectionSet != null) {
+      request.setIncludeWalkSteps(selectionSet.contains("tripPatterns/legs/steps"));
+      request.setIncludeElevationProfile(
+        selectionSet.contains("tripPatterns/legs/elevationProfile")
+      );
+    }
+
     return request;
   }
 }
@@ -261,6 +261,15 @@ public class RouteRequestMapper {
       "locale",
       (String v) -> request.setLocale(GraphQLUtils.getLocale(environment, v))
     );
+
+    // Skip the walk steps and the elevation profiles if the client does not ask for them
+    var selectionSet = environment.getSelectionSet();
+    if (selectionSet != null) {
+      request.setIncludeWalkSteps(selectionSet.contains("itineraries/legs/steps"));
+      request.setIncludeElevationProfile(
+        selectionSet.containsAnyOf("itineraries/elevationGained", "itineraries/elevationLost")
+      );
+    }
     return request;
   }
 
@@ -64,7 +64,8 @@ public class AStar<
     SearchTerminationStrategy<State> terminationStrategy,
     DominanceFunction<State> dominanceFunction,
     @Nonnull Duration timeout,
-    Collection<State> initialStates
+    Collection<State> initialStates,
+    AStarWorkspace<State, Edge, Vertex> workspace
   ) {
     this.heuristic = heuristic;
     this.skipEdgeStrategy = skipEdgeStrategy;
@@ -75,10 +76,14 @@ public class AStar<
     this.terminationStrategy = terminationStrategy;
     this.timeout = Objects.requireNonNull(timeout);
 
-    this.spt = new ShortestPathTree<>(dominanceFunction);
-
-    // Initialized with a reasonable size, see #4445
-    this.pq = new BinHeap<>(1000);
+    if (workspace == null) {
+      this.spt = new ShortestPathTree<>(dominanceFunction);
+      // Initialized with a reasonable size, see #4445
+      this.pq = new BinHeap<>(1000);
+    } else {
+      this.spt = new ShortestPathTree<>(dominanceFunction, workspace.stateSets());
+      this.pq = workspace.queue();
+    }
     this.nVisited = 0;
     this.targetAcceptedStates = new ArrayList<>();
 
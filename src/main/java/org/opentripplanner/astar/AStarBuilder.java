@@ -36,6 +36,7 @@ public abstract class AStarBuilder<
   private DominanceFunction<State> dominanceFunction;
   private Edge originBackEdge;
   private Collection<State> initialStates;
+  private AStarWorkspace<State, Edge, Vertex> workspace;
 
   protected AStarBuilder() {}
 
@@ -111,6 +112,15 @@ public abstract class AStarBuilder<
     return builder;
   }
 
+  /**
+   * Reuse the priority queue and the state map of the workspace, instead of allocating new ones.
+   * The returned tree is only valid until the workspace is used by the next search.
+   */
+  public Builder setWorkspace(AStarWorkspace<State, Edge, Vertex> workspace) {
+    this.workspace = workspace;
+    return builder;
+  }
+
   public ShortestPathTree<State, Edge, Vertex> getShortestPathTree() {
     return build().getShortestPathTree();
   }
@@ -150,7 +160,8 @@ public abstract class AStarBuilder<
       terminationStrategy,
       Optional.ofNullable(dominanceFunction).orElseGet(this::createDefaultDominanceFunction),
       streetRoutingTimeout(),
-      initialStates
+      initialStates,
+      workspace
     );
   }
 
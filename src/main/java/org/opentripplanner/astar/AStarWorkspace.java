@@ -0,0 +1,43 @@
+package org.opentripplanner.astar;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.opentripplanner.astar.model.BinHeap;
+import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarState;
+import org.opentripplanner.astar.spi.AStarVertex;
+
+/**
+ * The priority queue and the state map of an A* search, reused by many searches done one after
+ * the other. The queue and the map grow to the size of the largest search and are cleared when a
+ * new search starts, instead of being allocated and grown again for each search.
+ * <p>
+ * The {@link ShortestPathTree} of a search using a workspace is only valid until the next search
+ * using the same workspace is started.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE, each thread must use its own workspace.
+ */
+public class AStarWorkspace<
+  State extends AStarState<State, Edge, Vertex>,
+  Edge extends AStarEdge<State, Edge, Vertex>,
+  Vertex extends AStarVertex<State, Edge, Vertex>
+> {
+
+  // Initialized with a reasonable size, see #4445
+  private final BinHeap<State> queue = new BinHeap<>(1000);
+  private final Map<Vertex, List<State>> stateSets = new IdentityHashMap<>(10_000);
+
+  /** Return the empty priority queue. */
+  BinHeap<State> queue() {
+    queue.reset();
+    return queue;
+  }
+
+  /** Return the empty state map. */
+  Map<Vertex, List<State>> stateSets() {
+    stateSets.clear();
+    return stateSets;
+  }
+}
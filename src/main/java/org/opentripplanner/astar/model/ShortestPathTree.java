@@ -50,9 +50,20 @@ public class ShortestPathTree<
   private boolean aborted = false;
 
   public ShortestPathTree(DominanceFunction<State> dominanceFunction) {
-    this.dominanceFunction = dominanceFunction;
     // Initialized with a reasonable size, see #4445
-    stateSets = new IdentityHashMap<>(10_000);
+    this(dominanceFunction, new IdentityHashMap<>(10_000));
+  }
+
+  /**
+   * Create a tree storing its states in the given map. The map must be empty and compare the
+   * vertices by identity.
+   */
+  public ShortestPathTree(
+    DominanceFunction<State> dominanceFunction,
+    Map<Vertex, List<State>> stateSets
+  ) {
+    this.dominanceFunction = dominanceFunction;
+    this.stateSets = stateSets;
   }
 
   /** @return a list of GraphPaths, sometimes empty but never null. */
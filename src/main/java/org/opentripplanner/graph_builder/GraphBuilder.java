@@ -7,8 +7,11 @@ import static org.opentripplanner.datastore.api.FileType.OSM;
 import jakarta.inject.Inject;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
+import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OtpAppException;
 import org.opentripplanner.framework.lang.OtpNumberFormat;
@@ -17,6 +20,8 @@ import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
 import org.opentripplanner.graph_builder.module.configure.DaggerGraphBuilderFactory;
+import org.opentripplanner.graph_builder.profile.BuildProfile;
+import org.opentripplanner.graph_builder.profile.BuildProfileReport;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.service.worldenvelope.WorldEnvelopeRepository;
 import org.opentripplanner.standalone.config.BuildConfig;
@@ -36,6 +41,8 @@ public class GraphBuilder implements Runnable {
   private final Graph graph;
   private final TransitModel transitModel;
   private final DataImportIssueStore issueStore;
+  private final CompositeDataSource buildReportDir;
+  private final BuildProfile buildProfile = new BuildProfile();
 
   private boolean hasTransitData = false;
 
@@ -43,11 +50,13 @@ public class GraphBuilder implements Runnable {
   public GraphBuilder(
     @Nonnull Graph baseGraph,
     @Nonnull TransitModel transitModel,
-    @Nonnull DataImportIssueStore issueStore
+    @Nonnull DataImportIssueStore issueStore,
+    @Nonnull GraphBuilderDataSources dataSources
   ) {
     this.graph = baseGraph;
     this.transitModel = transitModel;
     this.issueStore = issueStore;
+    this.buildReportDir = dataSources.getBuildReportDir();
   }
 
   /**
@@ -172,9 +181,11 @@ public class GraphBuilder implements Runnable {
     }
 
     for (GraphBuilderModule load : graphBuilderModules) {
-      load.buildGraph();
+      buildProfile.profile(load.getClass().getSimpleName(), load::buildGraph, this::countOutput);
     }
 
+    new BuildProfileReport(buildReportDir, buildProfile).write();
+
     new DataImportIssueSummary(issueStore.listIssues()).logSummary();
 
     validate();
@@ -200,6 +211,28 @@ public class GraphBuilder implements Runnable {
     return new DataImportIssueSummary(issueStore.listIssues());
   }
 
+  /**
+   * The time and memory used by each module. Modules run by another graph builder earlier in the
+   * same build can be added to this, before this graph builder is run.
+   */
+  public BuildProfile buildProfile() {
+    return buildProfile;
+  }
+
+  /**
+   * The size of the graph and transit model, recorded in the build profile after each module.
+   */
+  private Map<String, Long> countOutput() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    counts.put("vertices", (long) graph.countVertices());
+    counts.put("edges", (long) graph.countEdges());
+    counts.put("stops", (long) transitModel.getStopModel().listStopLocations().size());
+    counts.put("tripPatterns", (long) transitModel.getAllTripPatterns().size());
+    counts.put("pathTransfers", (long) transitModel.getAllPathTransfers().size());
+    counts.put("issues", (long) issueStore.listIssues().size());
+    return counts;
+  }
+
   /**
    * Validates the build. Currently, only checks if the graph has transit data if any transit data
    * sets were included in the build. If all transit data gets filtered out due to transit period
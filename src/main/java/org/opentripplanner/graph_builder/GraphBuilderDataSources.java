@@ -90,6 +90,30 @@ public class GraphBuilderDataSources {
     validateCliMatchesInputData(cli);
   }
 
+  private GraphBuilderDataSources(GraphBuilderDataSources other, Set<FileType> types) {
+    this.store = other.store;
+    this.buildConfig = other.buildConfig;
+    this.cacheDirectory = other.cacheDirectory;
+    this.outputGraph = other.outputGraph;
+    this.baseDirectory = other.baseDirectory;
+    this.includeTypes.retainAll(types);
+
+    for (FileType type : other.inputData.keySet()) {
+      var target = types.contains(type) ? inputData : skipData;
+      target.putAll(type, other.inputData.get(type));
+    }
+    skipData.putAll(other.skipData);
+  }
+
+  /**
+   * Return a copy of these data sources where only the files of the given types are included in
+   * the build. This is used to split a full build into a street and a transit stage, see
+   * {@link StreetGraphCache}.
+   */
+  public GraphBuilderDataSources withOnly(Set<FileType> types) {
+    return new GraphBuilderDataSources(this, types);
+  }
+
   public DataSource getOutputGraph() {
     return outputGraph;
   }
@@ -0,0 +1,200 @@
+package org.opentripplanner.graph_builder;
+
+import static org.opentripplanner.datastore.api.FileType.DEM;
+import static org.opentripplanner.datastore.api.FileType.OSM;
+import static org.opentripplanner.model.projectinfo.OtpProjectInfo.projectInfo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.FileDataSource;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.standalone.config.BuildConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache for the street stage of a full graph build. The street stage (OSM import and elevation)
+ * only depends on the OSM and DEM files and the street related part of the build config, but it
+ * is usually the most expensive part of the build. If none of these inputs change, the street
+ * graph from the previous build is loaded instead of building it again - the same as running a
+ * build with {@code --buildStreet} followed by {@code --loadStreet}, but without the need to
+ * keep track of when the street graph must be rebuilt.
+ * <p>
+ * The street graph is stored in the cache directory with a SHA-256 hash of the inputs in the file
+ * name. The hash includes the content of each input file, the build config without the
+ * parameters which are only used by the transit stage, and the OTP version. Only the street graph
+ * of the last build is kept.
+ */
+public class StreetGraphCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetGraphCache.class);
+
+  private static final String FILE_PREFIX = "streetGraph-";
+  private static final String FILE_SUFFIX = ".obj";
+
+  /**
+   * Build config parameters which are not used to build the street graph. Linking, island pruning
+   * and everything else which depends on the transit data is done after the street graph is
+   * loaded from the cache, so these parameters can change without invalidating the cache.
+   */
+  private static final List<String> TRANSIT_STAGE_PARAMETERS = List.of(
+    "buildReportDir",
+    "cacheStreetGraph",
+    "configVersion",
+    "dataImportReport",
+    "embedRouterConfig",
+    "fares",
+    "graph",
+    "gsCredentials",
+    "gtfsDefaults",
+    "islandPruning",
+    "matchBusRoutesToStreets",
+    "maxDataImportIssuesPerFile",
+    "maxStopToShapeSnapDistance",
+    "maxTransferDuration",
+    "multiThreadStreetLinking",
+    "netexDefaults",
+    "streetGraph",
+    "subwayAccessTime",
+    "transferRequests",
+    "transitFeeds",
+    "transitModelTimeZone",
+    "transitServiceEnd",
+    "transitServiceStart"
+  );
+
+  private final File directory;
+  private final String key;
+
+  StreetGraphCache(File directory, String key) {
+    this.directory = directory;
+    this.key = key;
+  }
+
+  /**
+   * Create the cache for the given build, or return {@code null} if the cache is not enabled or
+   * there is no OSM data to build a street graph from.
+   */
+  @Nullable
+  public static StreetGraphCache of(BuildConfig config, GraphBuilderDataSources dataSources) {
+    if (!config.cacheStreetGraph || !dataSources.has(OSM)) {
+      return null;
+    }
+    var directory = new File(dataSources.getCacheDirectory(), "streetGraph");
+    var cache = new StreetGraphCache(directory, createKey(config, dataSources));
+    LOG.info("Street graph cache key is {}", cache.key);
+    return cache;
+  }
+
+  public boolean exists() {
+    return file().exists();
+  }
+
+  /**
+   * Load the cached street graph, returns {@code null} if the graph can not be read. A cached
+   * street graph which can not be read, because the file is broken or written by an incompatible
+   * version of OTP, is deleted, so the street graph is built and cached again.
+   */
+  @Nullable
+  public SerializedGraphObject load() {
+    LOG.info("Street graph inputs are unchanged, loading cached street graph.");
+    File file = file();
+    SerializedGraphObject streetGraph;
+    try {
+      streetGraph = SerializedGraphObject.load(file);
+    } catch (RuntimeException e) {
+      LOG.warn("Unable to load cached street graph: {}", e.getMessage(), e);
+      streetGraph = null;
+    }
+    if (streetGraph == null) {
+      LOG.warn("Deleting cached street graph, the street graph is built again: {}", file);
+      if (!file.delete()) {
+        LOG.warn("Unable to delete cached street graph: {}", file);
+      }
+    }
+    return streetGraph;
+  }
+
+  /**
+   * Save the street graph and delete the street graphs of earlier builds. The graph is written to
+   * a temporary file first, so an aborted build does not leave a broken graph in the cache.
+   */
+  public void save(SerializedGraphObject streetGraph) {
+    File file = file();
+    File tmpFile = new File(directory, file.getName() + ".tmp");
+    try {
+      Files.createDirectories(directory.toPath());
+      streetGraph.save(new FileDataSource(tmpFile, FileType.GRAPH));
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to save street graph to cache: " + file, e);
+    }
+    File[] oldFiles = directory.listFiles((dir, name) ->
+      name.startsWith(FILE_PREFIX) && !name.equals(file.getName())
+    );
+    if (oldFiles != null) {
+      for (File oldFile : oldFiles) {
+        if (!oldFile.delete()) {
+          LOG.warn("Unable to delete old cached street graph: {}", oldFile);
+        }
+      }
+    }
+  }
+
+  private File file() {
+    return new File(directory, FILE_PREFIX + key + FILE_SUFFIX);
+  }
+
+  private static String createKey(BuildConfig config, GraphBuilderDataSources dataSources) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(projectInfo().getVersionString(), StandardCharsets.UTF_8);
+    hasher.putString(streetStageConfig(config), StandardCharsets.UTF_8);
+    for (FileType type : List.of(OSM, DEM)) {
+      for (DataSource source : dataSources.get(type)) {
+        hasher.putString(type.name(), StandardCharsets.UTF_8);
+        hasher.putString(source.name(), StandardCharsets.UTF_8);
+        hashContent(source, hasher);
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private static String streetStageConfig(BuildConfig config) {
+    String json = config.toJson();
+    if (json.isEmpty()) {
+      return json;
+    }
+    try {
+      var node = (ObjectNode) new ObjectMapper().readTree(json);
+      node.remove(TRANSIT_STAGE_PARAMETERS);
+      return node.toString();
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void hashContent(DataSource source, Hasher hasher) {
+    byte[] buffer = new byte[1 << 16];
+    try (InputStream in = source.asInputStream()) {
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        hasher.putBytes(buffer, 0, n);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to read " + source.path() + ": " + e.getMessage(), e);
+    }
+  }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssue;
+import org.opentripplanner.graph_builder.profile.BuildProfileReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,7 +53,12 @@ class HTMLWriter {
 
       printCategoryLinks(out);
 
-      if (issues != null) {
+      if (issues == null) {
+        out.printf(
+          "<p><a class=\"pure-button\" href=\"./%s\">Build profile</a></p>%n",
+          BuildProfileReport.HTML_FILE
+        );
+      } else {
         if (addGeoJSONLink) {
           out.printf(
             "<a class=\"pure-button\" href=\"./%s.geojson\">Open issues in a GeoJSON file</a>",
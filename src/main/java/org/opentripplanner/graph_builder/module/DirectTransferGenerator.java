@@ -1,12 +1,16 @@
 package org.opentripplanner.graph_builder.module;
 
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.AStarWorkspace;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.logging.ProgressTracker;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
@@ -24,6 +28,7 @@ import org.opentripplanner.transit.model.site.RegularStop;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.transit.service.TransitService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,15 +72,10 @@ public class DirectTransferGenerator implements GraphBuilderModule {
       transitModel.index();
     }
 
+    var transitService = new DefaultTransitService(transitModel);
+
     /* The linker will use streets if they are available, or straight-line distance otherwise. */
-    NearbyStopFinder nearbyStopFinder = new NearbyStopFinder(
-      new DefaultTransitService(transitModel),
-      radiusByDuration,
-      0,
-      null,
-      graph.hasStreets
-    );
-    if (nearbyStopFinder.useStreets) {
+    if (graph.hasStreets) {
       LOG.info("Creating direct transfer edges between stops using the street network from OSM...");
     } else {
       LOG.info(
@@ -91,93 +91,48 @@ public class DirectTransferGenerator implements GraphBuilderModule {
       stops.size()
     );
 
-    AtomicInteger nTransfersTotal = new AtomicInteger();
-    AtomicInteger nLinkedStops = new AtomicInteger();
-
-    // This is a synchronizedMultimap so that a parallel stream may be used to insert elements.
-    var transfersByStop = Multimaps.<StopLocation, PathTransfer>synchronizedMultimap(
-      HashMultimap.create()
-    );
-
-    stops
-      .stream()
-      .parallel()
-      .forEach(ts0 -> {
-        /* Make transfers to each nearby stop that has lowest weight on some trip pattern.
-         * Use map based on the list of edges, so that only distinct transfers are stored. */
-        Map<TransferKey, PathTransfer> distinctTransfers = new HashMap<>();
-        RegularStop stop = ts0.getStop();
-
-        if (stop.transfersNotAllowed()) {
-          return;
-        }
-
-        LOG.debug("Linking stop '{}' {}", stop, ts0);
-
-        for (RouteRequest transferProfile : transferRequests) {
-          for (NearbyStop sd : findNearbyStops(
-            nearbyStopFinder,
-            ts0,
-            transferProfile,
-            transferProfile.journey().transfer(),
-            false
-          )) {
-            // Skip the origin stop, loop transfers are not needed.
-            if (sd.stop == stop) {
-              continue;
-            }
-            if (sd.stop.transfersNotAllowed()) {
-              continue;
-            }
-            distinctTransfers.put(
-              new TransferKey(stop, sd.stop, sd.edges),
-              new PathTransfer(stop, sd.stop, sd.distance, sd.edges)
-            );
-          }
-          if (OTPFeature.FlexRouting.isOn()) {
-            // This code is for finding transfers from AreaStops to Stops, transfers
-            // from Stops to AreaStops and between Stops are already covered above.
-            for (NearbyStop sd : findNearbyStops(
-              nearbyStopFinder,
-              ts0,
-              transferProfile,
-              transferProfile.journey().transfer(),
-              true
-            )) {
-              // Skip the origin stop, loop transfers are not needed.
-              if (sd.stop == stop) {
-                continue;
-              }
-              if (sd.stop instanceof RegularStop) {
-                continue;
-              }
-              distinctTransfers.put(
-                new TransferKey(sd.stop, stop, sd.edges),
-                new PathTransfer(sd.stop, stop, sd.distance, sd.edges)
-              );
-            }
-          }
-        }
-
-        LOG.debug(
-          "Linked stop {} with {} transfers to stops with different patterns.",
-          stop,
-          distinctTransfers.size()
-        );
-        if (distinctTransfers.isEmpty()) {
-          issueStore.add(new StopNotLinkedForTransfers(ts0));
-        } else {
-          distinctTransfers
-            .values()
-            .forEach(transfer -> transfersByStop.put(transfer.from, transfer));
-          nLinkedStops.incrementAndGet();
-          nTransfersTotal.addAndGet(distinctTransfers.size());
+    // A finder reuses its search workspace for every street search, so it can only be used by one
+    // thread at the time. Each stop borrows a finder from the pool and returns it when done. This
+    // way the priority queue and the state map are reused across the stops searched by a thread,
+    // instead of being allocated and grown again for every search.
+    Queue<NearbyStopFinder> nearbyStopFinders = new ConcurrentLinkedQueue<>();
+
+    // Each stop is searched independently and the result is collected in the order of the stops,
+    // so no locking is needed. The transfers and issues are added in the same order on every build.
+    List<StopTransfers> transfersForStops = stops
+      .parallelStream()
+      .map(ts0 -> {
+        var nearbyStopFinder = Optional
+          .ofNullable(nearbyStopFinders.poll())
+          .orElseGet(() -> createNearbyStopFinder(transitService));
+        try {
+          var result = new StopTransfers(ts0, findTransfers(nearbyStopFinder, ts0));
+          //Keep lambda! A method-ref would causes incorrect class and line number to be logged
+          //noinspection Convert2MethodRef
+          progress.step(m -> LOG.info(m));
+          return result;
+        } finally {
+          nearbyStopFinders.add(nearbyStopFinder);
         }
-
-        //Keep lambda! A method-ref would causes incorrect class and line number to be logged
-        //noinspection Convert2MethodRef
-        progress.step(m -> LOG.info(m));
-      });
+      })
+      .toList();
+
+    int nTransfersTotal = 0;
+    int nLinkedStops = 0;
+    var transfersByStop = HashMultimap.<StopLocation, PathTransfer>create();
+
+    for (StopTransfers it : transfersForStops) {
+      if (it.transfers() == null) {
+        continue;
+      }
+      if (it.transfers().isEmpty()) {
+        issueStore.add(new StopNotLinkedForTransfers(it.vertex()));
+      } else {
+        it.transfers().forEach(transfer -> transfersByStop.put(transfer.from, transfer));
+        nLinkedStops++;
+        nTransfersTotal += it.transfers().size();
+      }
+    }
 
     transitModel.addAllTransfersByStops(transfersByStop);
 
@@ -189,6 +144,92 @@ public class DirectTransferGenerator implements GraphBuilderModule {
     );
   }
 
+  private NearbyStopFinder createNearbyStopFinder(TransitService transitService) {
+    return new NearbyStopFinder(
+      transitService,
+      radiusByDuration,
+      0,
+      null,
+      graph.hasStreets,
+      new AStarWorkspace<>()
+    );
+  }
+
+  /**
+   * Find the transfers from the given stop, and the transfers from nearby area stops to it when
+   * flex routing is on.
+   *
+   * @return the distinct transfers, or {@code null} if transfers are not allowed at the stop.
+   */
+  @Nullable
+  private Collection<PathTransfer> findTransfers(
+    NearbyStopFinder nearbyStopFinder,
+    TransitStopVertex ts0
+  ) {
+    /* Make transfers to each nearby stop that has lowest weight on some trip pattern.
+     * Use map based on the list of edges, so that only distinct transfers are stored. */
+    Map<TransferKey, PathTransfer> distinctTransfers = new HashMap<>();
+    RegularStop stop = ts0.getStop();
+
+    if (stop.transfersNotAllowed()) {
+      return null;
+    }
+
+    LOG.debug("Linking stop '{}' {}", stop, ts0);
+
+    for (RouteRequest transferProfile : transferRequests) {
+      for (NearbyStop sd : findNearbyStops(
+        nearbyStopFinder,
+        ts0,
+        transferProfile,
+        transferProfile.journey().transfer(),
+        false
+      )) {
+        // Skip the origin stop, loop transfers are not needed.
+        if (sd.stop == stop) {
+          continue;
+        }
+        if (sd.stop.transfersNotAllowed()) {
+          continue;
+        }
+        distinctTransfers.put(
+          new TransferKey(stop, sd.stop, sd.edges),
+          new PathTransfer(stop, sd.stop, sd.distance, sd.edges)
+        );
+      }
+      if (OTPFeature.FlexRouting.isOn()) {
+        // This code is for finding transfers from AreaStops to Stops, transfers
+        // from Stops to AreaStops and between Stops are already covered above.
+        for (NearbyStop sd : findNearbyStops(
+          nearbyStopFinder,
+          ts0,
+          transferProfile,
+          transferProfile.journey().transfer(),
+          true
+        )) {
+          // Skip the origin stop, loop transfers are not needed.
+          if (sd.stop == stop) {
+            continue;
+          }
+          if (sd.stop instanceof RegularStop) {
+            continue;
+          }
+          distinctTransfers.put(
+            new TransferKey(sd.stop, stop, sd.edges),
+            new PathTransfer(sd.stop, stop, sd.distance, sd.edges)
+          );
+        }
+      }
+    }
+
+    LOG.debug(
+      "Linked stop {} with {} transfers to stops with different patterns.",
+      stop,
+      distinctTransfers.size()
+    );
+    return distinctTransfers.values();
+  }
+
   private static Iterable<NearbyStop> findNearbyStops(
     NearbyStopFinder nearbyStopFinder,
     Vertex vertex,
@@ -207,4 +248,6 @@ public class DirectTransferGenerator implements GraphBuilderModule {
   }
 
   private record TransferKey(StopLocation source, StopLocation target, List<Edge> edges) {}
+
+  private record StopTransfers(TransitStopVertex vertex, Collection<PathTransfer> transfers) {}
 }
@@ -10,7 +10,9 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.astar.AStarWorkspace;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.SkipEdgeStrategy;
 import org.opentripplanner.astar.strategy.ComposingSkipEdgeStrategy;
@@ -55,6 +57,9 @@ import org.opentripplanner.transit.service.TransitService;
  * Ideally they could also be used in long distance mode and profile routing for the street segments.
  * For each stop, it finds the closest stops on all other patterns. This reduces the number of transfer edges
  * significantly compared to simple radius-constrained all-to-all stop linkage.
+ * <p>
+ * A finder created with an {@link AStarWorkspace} reuses it for all its street searches, and must
+ * only be used by one thread at the time.
  */
 public class NearbyStopFinder {
 
@@ -66,6 +71,9 @@ public class NearbyStopFinder {
   private final int maxStopCount;
   private final DataOverlayContext dataOverlayContext;
 
+  @Nullable
+  private final AStarWorkspace<State, Edge, Vertex> workspace;
+
   private DirectGraphFinder directGraphFinder;
 
   /**
@@ -80,12 +88,29 @@ public class NearbyStopFinder {
     int maxStopCount,
     DataOverlayContext dataOverlayContext,
     boolean useStreets
+  ) {
+    this(transitService, durationLimit, maxStopCount, dataOverlayContext, useStreets, null);
+  }
+
+  /**
+   * Construct a NearbyStopFinder reusing the given workspace for the street searches. This avoids
+   * allocating and growing a new priority queue and state map for each search, when many searches
+   * are done one after the other. The finder must not be used by more than one thread at the time.
+   */
+  public NearbyStopFinder(
+    TransitService transitService,
+    Duration durationLimit,
+    int maxStopCount,
+    DataOverlayContext dataOverlayContext,
+    boolean useStreets,
+    @Nullable AStarWorkspace<State, Edge, Vertex> workspace
   ) {
     this.transitService = transitService;
     this.dataOverlayContext = dataOverlayContext;
     this.useStreets = useStreets;
     this.durationLimit = durationLimit;
     this.maxStopCount = maxStopCount;
+    this.workspace = workspace;
 
     if (!useStreets) {
       // We need to accommodate straight line distance (in meters) but when streets are present we
@@ -217,6 +242,7 @@ public class NearbyStopFinder {
       .setFrom(reverseDirection ? null : originVertices)
       .setTo(reverseDirection ? originVertices : null)
       .setDataOverlayContext(dataOverlayContext)
+      .setWorkspace(workspace)
       .getShortestPathTree();
 
     // Only used if OTPFeature.FlexRouting.isOn()
@@ -11,6 +11,7 @@ import org.opentripplanner.graph_builder.issues.ParkAndRideEntranceRemoved;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.linking.LinkingDirection;
+import org.opentripplanner.routing.linking.VertexLinker.PermanentLink;
 import org.opentripplanner.routing.vehicle_parking.VehicleParking;
 import org.opentripplanner.routing.vehicle_parking.VehicleParkingHelper;
 import org.opentripplanner.street.model.edge.StreetTransitEntranceLink;
@@ -43,22 +44,25 @@ public class StreetLinkerModule implements GraphBuilderModule {
   private final TransitModel transitModel;
   private final DataImportIssueStore issueStore;
   private final Boolean addExtraEdgesToAreas;
+  private final boolean multiThreaded;
 
   public StreetLinkerModule(
     Graph graph,
     TransitModel transitModel,
     DataImportIssueStore issueStore,
-    boolean addExtraEdgesToAreas
+    boolean addExtraEdgesToAreas,
+    boolean multiThreaded
   ) {
     this.graph = graph;
     this.transitModel = transitModel;
     this.issueStore = issueStore;
     this.addExtraEdgesToAreas = addExtraEdgesToAreas;
+    this.multiThreaded = multiThreaded;
   }
 
   /** For test only */
   public static void linkStreetsForTestOnly(Graph graph, TransitModel model) {
-    new StreetLinkerModule(graph, model, DataImportIssueStore.NOOP, false).buildGraph();
+    new StreetLinkerModule(graph, model, DataImportIssueStore.NOOP, false, false).buildGraph();
   }
 
   @Override
@@ -102,6 +106,8 @@ public class StreetLinkerModule implements GraphBuilderModule {
       );
     }
 
+    List<PermanentLink> links = new ArrayList<>();
+
     for (TransitStopVertex tStop : vertices) {
       // Stops with pathways do not need to be connected to the street network, since there are explicit entraces defined for that
       if (tStop.hasPathways()) {
@@ -121,9 +127,8 @@ public class StreetLinkerModule implements GraphBuilderModule {
         }
       }
 
-      graph
-        .getLinker()
-        .linkVertexPermanently(
+      links.add(
+        new PermanentLink(
           tStop,
           modes,
           LinkingDirection.BOTH_WAYS,
@@ -138,21 +143,27 @@ public class StreetLinkerModule implements GraphBuilderModule {
                 (TransitStopVertex) vertex
               )
             )
-        );
-      //noinspection Convert2MethodRef
-      progress.step(m -> LOG.info(m));
+        )
+      );
     }
+    graph
+      .getLinker()
+      .linkVerticesPermanently(
+        links,
+        multiThreaded,
+        //noinspection Convert2MethodRef
+        () -> progress.step(m -> LOG.info(m))
+      );
     LOG.info(progress.completeMessage());
   }
 
-  private static void linkVehicleParkingWithLinker(
-    Graph graph,
+  private static void addVehicleParkingLinks(
+    List<PermanentLink> links,
     VehicleParkingEntranceVertex vehicleParkingVertex
   ) {
     if (vehicleParkingVertex.isWalkAccessible()) {
-      graph
-        .getLinker()
-        .linkVertexPermanently(
+      links.add(
+        new PermanentLink(
           vehicleParkingVertex,
           new TraverseModeSet(TraverseMode.WALK),
           LinkingDirection.BOTH_WAYS,
@@ -167,13 +178,13 @@ public class StreetLinkerModule implements GraphBuilderModule {
                 (VehicleParkingEntranceVertex) vertex
               )
             )
-        );
+        )
+      );
     }
 
     if (vehicleParkingVertex.isCarAccessible()) {
-      graph
-        .getLinker()
-        .linkVertexPermanently(
+      links.add(
+        new PermanentLink(
           vehicleParkingVertex,
           new TraverseModeSet(TraverseMode.CAR),
           LinkingDirection.BOTH_WAYS,
@@ -188,16 +199,17 @@ public class StreetLinkerModule implements GraphBuilderModule {
                 (VehicleParkingEntranceVertex) vertex
               )
             )
-        );
+        )
+      );
     }
   }
 
   private void linkTransitEntrances(Graph graph) {
     LOG.info("Linking transit entrances to graph...");
+    List<PermanentLink> links = new ArrayList<>();
     for (TransitEntranceVertex tEntrance : graph.getVerticesOfType(TransitEntranceVertex.class)) {
-      graph
-        .getLinker()
-        .linkVertexPermanently(
+      links.add(
+        new PermanentLink(
           tEntrance,
           new TraverseModeSet(TraverseMode.WALK),
           LinkingDirection.BOTH_WAYS,
@@ -212,8 +224,10 @@ public class StreetLinkerModule implements GraphBuilderModule {
                 (TransitEntranceVertex) vertex
               )
             )
-        );
+        )
+      );
     }
+    graph.getLinker().linkVerticesPermanently(links, multiThreaded, () -> {});
   }
 
   private void linkVehicleParks(Graph graph, DataImportIssueStore issueStore) {
@@ -223,6 +237,7 @@ public class StreetLinkerModule implements GraphBuilderModule {
     }
     LOG.info("Linking vehicle parks to graph...");
     List<VehicleParking> vehicleParkingToRemove = new ArrayList<>();
+    List<PermanentLink> links = new ArrayList<>();
     for (VehicleParkingEntranceVertex vehicleParkingEntranceVertex : graph.getVerticesOfType(
       VehicleParkingEntranceVertex.class
     )) {
@@ -231,7 +246,7 @@ public class StreetLinkerModule implements GraphBuilderModule {
       }
 
       if (vehicleParkingEntranceVertex.getParkingEntrance().getVertex() == null) {
-        linkVehicleParkingWithLinker(graph, vehicleParkingEntranceVertex);
+        addVehicleParkingLinks(links, vehicleParkingEntranceVertex);
         continue;
       }
 
@@ -251,6 +266,8 @@ public class StreetLinkerModule implements GraphBuilderModule {
         vehicleParkingToRemove.add(vehicleParking);
       }
     }
+    graph.getLinker().linkVerticesPermanently(links, multiThreaded, () -> {});
+
     if (!vehicleParkingToRemove.isEmpty()) {
       var vehicleParkingService = graph.getVehicleParkingService();
       vehicleParkingService.updateVehicleParking(List.of(), vehicleParkingToRemove);
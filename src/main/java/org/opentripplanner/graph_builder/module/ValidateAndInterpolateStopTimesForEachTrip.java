@@ -57,40 +57,57 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
   }
 
   public void run() {
-    final int tripSize = stopTimesByTrip.size();
-    var progress = ProgressTracker.track("Validate StopTimes", 100_000, tripSize);
+    final List<Trip> trips = new ArrayList<>(stopTimesByTrip.size());
+    stopTimesByTrip.keys().forEach(trips::add);
+    var progress = ProgressTracker.track("Validate StopTimes", 100_000, trips.size());
     LOG.info(progress.startMessage());
 
-    for (Trip trip : stopTimesByTrip.keys()) {
-      // Fetch the stop times for this trip. Copy the list since it's immutable.
-      List<StopTime> stopTimes = new ArrayList<>(stopTimesByTrip.get(trip));
+    // The trips are validated in parallel. The issue store is not thread-safe, so the issues are
+    // collected for each trip and added to the store afterwards, in the same order as the trips.
+    List<ValidatedStopTimes> results = trips
+      .parallelStream()
+      .map(trip -> {
+        var result = validateAndInterpolate(trip);
+        //noinspection Convert2MethodRef
+        progress.step(m -> LOG.info(m));
+        return result;
+      })
+      .toList();
 
-      // if we don't have flex routing enabled then remove all the flex locations and location
-      // groups
-      if (OTPFeature.FlexRouting.isOff()) {
-        stopTimes.removeIf(st -> !(st.getStop() instanceof RegularStop));
-      }
+    for (int i = 0; i < trips.size(); ++i) {
+      ValidatedStopTimes result = results.get(i);
+      result.issues().forEach(issueStore::add);
+      stopTimesByTrip.replace(trips.get(i), result.stopTimes());
+    }
 
-      // Stop times frequently contain duplicate, missing, or incorrect entries. Repair them.
-      TIntList removedStopSequences = removeRepeatedStops(stopTimes);
-      if (!removedStopSequences.isEmpty()) {
-        issueStore.add(new RepeatedStops(trip, removedStopSequences));
-      }
-      if (!filterStopTimes(stopTimes)) {
-        stopTimesByTrip.replace(trip, List.of());
-      } else if (interpolate) {
-        interpolateStopTimes(stopTimes);
-        stopTimesByTrip.replace(trip, stopTimes);
-      } else {
-        stopTimes.removeIf(st -> !st.isArrivalTimeSet() || !st.isDepartureTimeSet());
-        stopTimesByTrip.replace(trip, stopTimes);
-      }
+    LOG.info(progress.completeMessage());
+  }
 
-      //noinspection Convert2MethodRef
-      progress.step(m -> LOG.info(m));
+  private ValidatedStopTimes validateAndInterpolate(Trip trip) {
+    List<DataImportIssue> issues = new ArrayList<>();
+
+    // Fetch the stop times for this trip. Copy the list since it's immutable.
+    List<StopTime> stopTimes = new ArrayList<>(stopTimesByTrip.get(trip));
+
+    // if we don't have flex routing enabled then remove all the flex locations and location
+    // groups
+    if (OTPFeature.FlexRouting.isOff()) {
+      stopTimes.removeIf(st -> !(st.getStop() instanceof RegularStop));
     }
 
-    LOG.info(progress.completeMessage());
+    // Stop times frequently contain duplicate, missing, or incorrect entries. Repair them.
+    TIntList removedStopSequences = removeRepeatedStops(stopTimes);
+    if (!removedStopSequences.isEmpty()) {
+      issues.add(new RepeatedStops(trip, removedStopSequences));
+    }
+    if (!filterStopTimes(stopTimes, issues)) {
+      return new ValidatedStopTimes(List.of(), issues);
+    } else if (interpolate) {
+      interpolateStopTimes(stopTimes);
+    } else {
+      stopTimes.removeIf(st -> !st.isArrivalTimeSet() || !st.isDepartureTimeSet());
+    }
+    return new ValidatedStopTimes(stopTimes, issues);
   }
 
   /**
@@ -140,9 +157,10 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
    * are reported to reveal the problems to the user.
    *
    * @param stopTimes the stop times to be filtered (from a single trip)
+   * @param issues    the list to add the issues found to
    * @return whether the stop time is usable
    */
-  private boolean filterStopTimes(List<StopTime> stopTimes) {
+  private boolean filterStopTimes(List<StopTime> stopTimes, List<DataImportIssue> issues) {
     if (stopTimes.size() < 2 && !FlexTrip.containsFlexStops(stopTimes)) {
       return false;
     }
@@ -180,13 +198,13 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
       }
       int dwellTime = st0.getDepartureTime() - st0.getArrivalTime();
       if (dwellTime < 0) {
-        issueStore.add(new NegativeDwellTime(st0));
+        issues.add(new NegativeDwellTime(st0));
         return false;
       }
 
       int runningTime = st1.getArrivalTime() - st0.getDepartureTime();
       if (runningTime < 0) {
-        issueStore.add(new NegativeHopTime(st0, st1));
+        issues.add(new NegativeHopTime(st0, st1));
         return false;
       }
 
@@ -197,7 +215,7 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
       double hopSpeed = hopDistance / runningTime;
 
       if (hopDistance == 0) {
-        issueStore.add(
+        issues.add(
           new HopZeroDistance(
             runningTime,
             st1.getTrip(),
@@ -211,7 +229,7 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
       if (runningTime == 0) {
         // identical stop times at different stops
         if (hopDistance > MIN_ZERO_TIME_HOP_DISTANCE_METERS) {
-          issueStore.add(
+          issues.add(
             new HopZeroTime(
               (float) hopDistance,
               st1.getTrip(),
@@ -222,7 +240,7 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
           );
         }
       } else if (hopSpeed > getMaxSpeedForMode(st0.getTrip().getMode())) {
-        issueStore.add(
+        issues.add(
           new HopSpeedFast(
             (float) hopSpeed,
             (float) hopDistance,
@@ -234,7 +252,7 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
         );
       } else if (hopSpeed < 0.3) {
         // 0.3 m/sec ~= 1 km/h
-        issueStore.add(
+        issues.add(
           new HopSpeedSlow(
             (float) hopSpeed,
             (float) hopDistance,
@@ -336,4 +354,6 @@ public class ValidateAndInterpolateStopTimesForEachTrip {
       }
     }
   }
+
+  private record ValidatedStopTimes(List<StopTime> stopTimes, List<DataImportIssue> issues) {}
 }
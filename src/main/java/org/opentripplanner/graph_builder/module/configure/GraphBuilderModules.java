@@ -132,7 +132,13 @@ public class GraphBuilderModules {
     TransitModel transitModel,
     DataImportIssueStore issueStore
   ) {
-    return new StreetLinkerModule(graph, transitModel, issueStore, config.areaVisibility);
+    return new StreetLinkerModule(
+      graph,
+      transitModel,
+      issueStore,
+      config.areaVisibility,
+      config.multiThreadStreetLinking
+    );
   }
 
   @Provides
@@ -147,7 +153,13 @@ public class GraphBuilderModules {
       graph,
       transitModel,
       issueStore,
-      new StreetLinkerModule(graph, transitModel, issueStore, config.areaVisibility)
+      new StreetLinkerModule(
+        graph,
+        transitModel,
+        issueStore,
+        config.areaVisibility,
+        config.multiThreadStreetLinking
+      )
     );
     pruneIslands.setPruningThresholdIslandWithoutStops(
       config.islandPruning.pruningThresholdIslandWithoutStops
@@ -298,7 +310,7 @@ public class GraphBuilderModules {
     OsmModule osmModule,
     File cacheDirectory
   ) {
-    var cachedElevationsFile = new File(cacheDirectory, "cached_elevations.obj");
+    var cachedElevationsFile = new File(cacheDirectory, "cached_elevations.bin");
 
     return new ElevationModule(
       it,
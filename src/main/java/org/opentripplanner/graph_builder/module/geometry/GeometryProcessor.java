@@ -2,8 +2,10 @@ package org.opentripplanner.graph_builder.module.geometry;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +21,7 @@ import org.locationtech.jts.linearref.LocationIndexedLine;
 import org.opentripplanner.ext.flex.trip.FlexTrip;
 import org.opentripplanner.framework.geometry.GeometryUtils;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssue;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.BogusShapeDistanceTraveled;
 import org.opentripplanner.graph_builder.issues.BogusShapeGeometry;
@@ -52,6 +55,10 @@ public class GeometryProcessor {
   private final Map<FeedScopedId, LineString> geometriesByShapeId = new ConcurrentHashMap<>();
   // this is a thread-safe implementation
   private final Map<FeedScopedId, double[]> distancesByShapeId = new ConcurrentHashMap<>();
+  // this is a thread-safe implementation
+  private final Map<FeedScopedId, ShapeSegmentIndex> segmentIndexByShapeId = new ConcurrentHashMap<>();
+  // this is a thread-safe implementation
+  private final Map<HopGeometriesKey, HopGeometries> hopGeometriesByKey = new ConcurrentHashMap<>();
   private final double maxStopToShapeSnapDistance;
   private final DataImportIssueStore issueStore;
 
@@ -72,21 +79,68 @@ public class GeometryProcessor {
    * Generate the geometry for the trip. Assumes that there are already vertices in the graph for
    * the stops.
    * <p>
-   * THREAD SAFETY The geometries for the trip patterns are computed in parallel. The collections
-   * needed for this are concurrent implementations and therefore threadsafe but the issue store,
-   * the graph, the OtpTransitService and others are not.
+   * THREAD SAFETY The geometries for the trip patterns are computed in parallel, see
+   * {@link #prepareHopGeometries(Collection)}. The collections needed for this are concurrent
+   * implementations and therefore threadsafe but the issue store, the graph, the
+   * OtpTransitService and others are not. This method adds issues to the issue store, and must
+   * not be called from several threads.
    */
   public List<LineString> createHopGeometries(Trip trip) {
-    if (
-      trip.getShapeId() == null ||
-      trip.getShapeId().getId() == null ||
-      trip.getShapeId().getId().isEmpty()
-    ) {
+    if (!hasShape(trip)) {
       return null;
     }
+    List<StopTime> stopTimes = transitService.getStopTimesSortedByTrip().get(trip);
+    HopGeometriesKey key = HopGeometriesKey.of(trip.getShapeId(), stopTimes);
+    HopGeometries hopGeometries = hopGeometriesByKey.computeIfAbsent(
+      key,
+      k -> createGeometry(trip.getShapeId(), stopTimes)
+    );
+    // Report the issues once, for the trip the geometries are computed for, and not again for
+    // each pattern sharing the geometries
+    if (!hopGeometries.issues().isEmpty()) {
+      hopGeometries.issues().forEach(issueStore::add);
+      hopGeometriesByKey.put(key, hopGeometries.withoutIssues());
+    }
+    return Arrays.asList(hopGeometries.geometries());
+  }
+
+  /**
+   * Compute the hop geometries for the given trips in parallel. Many trip patterns share the same
+   * shape and stop sequence, so the geometries are computed once for each shape and stop sequence,
+   * and are returned by {@link #createHopGeometries(Trip)} later.
+   * <p>
+   * The issues found are kept with the geometries, and are added to the issue store when the
+   * geometries are used the first time. The geometries are computed with the first trip of each
+   * shape and stop sequence, so the issues are reported for the same trip as before.
+   */
+  public void prepareHopGeometries(Collection<Trip> trips) {
+    Map<HopGeometriesKey, Trip> tripsByKey = new LinkedHashMap<>();
+    for (Trip trip : trips) {
+      if (hasShape(trip)) {
+        List<StopTime> stopTimes = transitService.getStopTimesSortedByTrip().get(trip);
+        HopGeometriesKey key = HopGeometriesKey.of(trip.getShapeId(), stopTimes);
+        if (!hopGeometriesByKey.containsKey(key)) {
+          tripsByKey.putIfAbsent(key, trip);
+        }
+      }
+    }
+    LOG.info("Creating hop geometries for {} shape and stop sequences.", tripsByKey.size());
+
+    tripsByKey
+      .entrySet()
+      .parallelStream()
+      .forEach(it -> {
+        Trip trip = it.getValue();
+        List<StopTime> stopTimes = transitService.getStopTimesSortedByTrip().get(trip);
+        hopGeometriesByKey.put(it.getKey(), createGeometry(trip.getShapeId(), stopTimes));
+      });
+  }
 
-    return Arrays.asList(
-      createGeometry(trip.getShapeId(), transitService.getStopTimesSortedByTrip().get(trip))
+  private static boolean hasShape(Trip trip) {
+    return (
+      trip.getShapeId() != null &&
+      trip.getShapeId().getId() != null &&
+      !trip.getShapeId().getId().isEmpty()
     );
   }
 
@@ -108,10 +162,19 @@ public class GeometryProcessor {
    * one of the trips with exactly the same sequence of stops could follow a different route on the
    * streets, but that's very uncommon.
    */
-  private LineString[] createGeometry(FeedScopedId shapeId, List<StopTime> stopTimes) {
+  private HopGeometries createGeometry(FeedScopedId shapeId, List<StopTime> stopTimes) {
+    List<DataImportIssue> issues = new ArrayList<>();
+    return new HopGeometries(createGeometry(shapeId, stopTimes, issues), List.copyOf(issues));
+  }
+
+  private LineString[] createGeometry(
+    FeedScopedId shapeId,
+    List<StopTime> stopTimes,
+    List<DataImportIssue> issues
+  ) {
     if (hasShapeDist(shapeId, stopTimes)) {
       // this trip has shape_dist in stop_times
-      LineString[] geometries = getHopGeometriesViaShapeDistTravelled(stopTimes, shapeId);
+      LineString[] geometries = getHopGeometriesViaShapeDistTravelled(stopTimes, shapeId, issues);
       if (geometries != null) {
         return geometries;
       }
@@ -122,16 +185,19 @@ public class GeometryProcessor {
     if (shapeLineString == null) {
       // this trip has a shape_id, but no such shape exists, and no shape_dist in stop_times
       // create straight line segments between stops for each hop
-      issueStore.add(new MissingShapeGeometry(stopTimes.get(0).getTrip().getId(), shapeId));
+      issues.add(new MissingShapeGeometry(stopTimes.get(0).getTrip().getId(), shapeId));
       return createStraightLineHopGeometries(stopTimes);
     }
 
-    List<LinearLocation> locations = getLinearLocations(stopTimes, shapeLineString);
+    List<LinearLocation> locations = getLinearLocations(
+      stopTimes,
+      getSegmentIndexForShapeId(shapeId, shapeLineString)
+    );
     if (locations == null) {
       // this only happens on shape which have points very far from
       // their stop sequence. So we'll fall back to trivial stop-to-stop
       // linking, even though theoretically we could do better.
-      issueStore.add(new ShapeGeometryTooFar(stopTimes.get(0).getTrip().getId(), shapeId));
+      issues.add(new ShapeGeometryTooFar(stopTimes.get(0).getTrip().getId(), shapeId));
       return createStraightLineHopGeometries(stopTimes);
     }
 
@@ -203,13 +269,12 @@ public class GeometryProcessor {
     return geoms;
   }
 
-  private List<LinearLocation> getLinearLocations(List<StopTime> stopTimes, LineString shape) {
+  private List<LinearLocation> getLinearLocations(
+    List<StopTime> stopTimes,
+    ShapeSegmentIndex segmentIndex
+  ) {
     var isFlexTrip = FlexTrip.containsFlexStops(stopTimes);
     // This trip does not have shape_dist in stop_times, but does have an associated shape.
-    ArrayList<IndexedLineSegment> segments = new ArrayList<>();
-    for (int i = 0; i < shape.getNumPoints() - 1; ++i) {
-      segments.add(new IndexedLineSegment(i, shape.getCoordinateN(i), shape.getCoordinateN(i + 1)));
-    }
     // Find possible segment matches for each stop.
     List<List<IndexedLineSegment>> possibleSegmentsForStop = new ArrayList<>();
     int minSegmentIndex = 0;
@@ -217,30 +282,22 @@ public class GeometryProcessor {
       StopLocation stop = stopTimes.get(i).getStop();
       Coordinate coord = stop.getCoordinate().asJtsCoordinate();
       List<IndexedLineSegment> stopSegments = new ArrayList<>();
-      double bestDistance = Double.MAX_VALUE;
-      IndexedLineSegment bestSegment = null;
       int maxSegmentIndex = -1;
-      int index = -1;
       int minSegmentIndexForThisStop = -1;
-      for (IndexedLineSegment segment : segments) {
-        index++;
-        if (segment.index < minSegmentIndex) {
-          continue;
-        }
-        double distance = segment.distance(coord);
-        if (distance < maxStopToShapeSnapDistance || isFlexTrip) {
+      List<IndexedLineSegment> candidates = isFlexTrip
+        ? segmentIndex.segments(minSegmentIndex)
+        : segmentIndex.findCandidates(coord, maxStopToShapeSnapDistance, minSegmentIndex);
+      for (IndexedLineSegment segment : candidates) {
+        if (isFlexTrip || segment.distance(coord) < maxStopToShapeSnapDistance) {
           stopSegments.add(segment);
-          maxSegmentIndex = index;
-          if (minSegmentIndexForThisStop == -1) minSegmentIndexForThisStop = index;
-        } else if (distance < bestDistance) {
-          bestDistance = distance;
-          bestSegment = segment;
-          if (maxSegmentIndex != -1) {
-            maxSegmentIndex = index;
-          }
+          maxSegmentIndex = segment.index;
+          if (minSegmentIndexForThisStop == -1) minSegmentIndexForThisStop = segment.index;
         }
       }
-      if (stopSegments.size() == 0 && bestSegment != null) {
+      IndexedLineSegment bestSegment = stopSegments.isEmpty()
+        ? findNearestSegment(segmentIndex.segments(minSegmentIndex), coord)
+        : null;
+      if (bestSegment != null) {
         //no segments within 150m
         //fall back to nearest segment
         stopSegments.add(bestSegment);
@@ -267,6 +324,22 @@ public class GeometryProcessor {
     return getStopLocations(possibleSegmentsForStop, stopTimes, 0, -1);
   }
 
+  private static IndexedLineSegment findNearestSegment(
+    List<IndexedLineSegment> segments,
+    Coordinate coord
+  ) {
+    double bestDistance = Double.MAX_VALUE;
+    IndexedLineSegment bestSegment = null;
+    for (IndexedLineSegment segment : segments) {
+      double distance = segment.distance(coord);
+      if (distance < bestDistance) {
+        bestDistance = distance;
+        bestSegment = segment;
+      }
+    }
+    return bestSegment;
+  }
+
   private LineString[] createStraightLineHopGeometries(List<StopTime> stopTimes) {
     LineString[] geoms = new LineString[stopTimes.size() - 1];
     StopTime st0;
@@ -281,14 +354,15 @@ public class GeometryProcessor {
 
   private LineString[] getHopGeometriesViaShapeDistTravelled(
     List<StopTime> stopTimes,
-    FeedScopedId shapeId
+    FeedScopedId shapeId,
+    List<DataImportIssue> issues
   ) {
     LineString[] geoms = new LineString[stopTimes.size() - 1];
     StopTime st0;
     for (int i = 0; i < stopTimes.size() - 1; ++i) {
       st0 = stopTimes.get(i);
       StopTime st1 = stopTimes.get(i + 1);
-      geoms[i] = getHopGeometryViaShapeDistTraveled(shapeId, st0, st1);
+      geoms[i] = getHopGeometryViaShapeDistTraveled(shapeId, st0, st1, issues);
       if (geoms[i] == null) {
         return null;
       }
@@ -338,7 +412,8 @@ public class GeometryProcessor {
   private LineString getHopGeometryViaShapeDistTraveled(
     FeedScopedId shapeId,
     StopTime st0,
-    StopTime st1
+    StopTime st1,
+    List<DataImportIssue> issues
   ) {
     double startDistance = st0.getShapeDistTraveled();
     double endDistance = st1.getShapeDistTraveled();
@@ -352,7 +427,7 @@ public class GeometryProcessor {
     double[] distances = getDistanceForShapeId(shapeId);
 
     if (distances == null) {
-      issueStore.add(new BogusShapeGeometry(shapeId));
+      issues.add(new BogusShapeGeometry(shapeId));
       return null;
     } else {
       LinearLocation startIndex = getSegmentFraction(distances, startDistance);
@@ -360,7 +435,7 @@ public class GeometryProcessor {
 
       if (equals(startIndex, endIndex)) {
         //bogus shape_dist_traveled
-        issueStore.add(new BogusShapeDistanceTraveled(st1));
+        issues.add(new BogusShapeDistanceTraveled(st1));
         // return null to indicate failure. Another approach which does not need shape_dist_traveled will be used.
         return null;
       }
@@ -376,7 +451,8 @@ public class GeometryProcessor {
           startDistance,
           endDistance,
           st0,
-          st1
+          st1,
+          issues
         );
 
       return geometry;
@@ -433,7 +509,8 @@ public class GeometryProcessor {
     double startDistance,
     double endDistance,
     StopTime st0,
-    StopTime st1
+    StopTime st1,
+    List<DataImportIssue> issues
   ) {
     ShapeSegmentKey key = new ShapeSegmentKey(shapeId, startDistance, endDistance);
 
@@ -449,7 +526,7 @@ public class GeometryProcessor {
       geometry = geometryFactory.createLineString(sequence);
 
       if (!isValid(geometry, st0.getStop(), st1.getStop())) {
-        issueStore.add(new BogusShapeGeometryCaught(shapeId, st0, st1));
+        issues.add(new BogusShapeGeometryCaught(shapeId, st0, st1));
         return null;
       }
       geometriesByShapeSegmentKey.put(key, geometry);
@@ -513,17 +590,22 @@ public class GeometryProcessor {
 
     CoordinateSequence sequence = new PackedCoordinateSequence.Double(coordinates, 2);
     geometry = geometryFactory.createLineString(sequence);
-    geometriesByShapeId.put(shapeId, geometry);
 
     // If we don't have distances here, we can't calculate them ourselves because we can't
-    // assume the units will match
+    // assume the units will match. The distances are added before the geometry, so other
+    // threads finding the geometry also find the distances.
     if (hasAllDistances) {
       distancesByShapeId.put(shapeId, distances);
     }
+    geometriesByShapeId.put(shapeId, geometry);
 
     return geometry;
   }
 
+  private ShapeSegmentIndex getSegmentIndexForShapeId(FeedScopedId shapeId, LineString shape) {
+    return segmentIndexByShapeId.computeIfAbsent(shapeId, id -> new ShapeSegmentIndex(shape));
+  }
+
   private double[] getDistanceForShapeId(FeedScopedId shapeId) {
     getLineStringForShapeId(shapeId);
     return distancesByShapeId.get(shapeId);
@@ -548,4 +630,28 @@ public class GeometryProcessor {
     double indexPart = (distance - distances[index - 1]) / (distances[index] - prevDistance);
     return new LinearLocation(index - 1, indexPart);
   }
+
+  /**
+   * The hop geometries of a trip depend on the shape, and on the location and shape distance of
+   * each stop.
+   */
+  private record HopGeometriesKey(
+    FeedScopedId shapeId,
+    List<StopLocation> stops,
+    List<Double> shapeDistances
+  ) {
+    static HopGeometriesKey of(FeedScopedId shapeId, List<StopTime> stopTimes) {
+      return new HopGeometriesKey(
+        shapeId,
+        stopTimes.stream().map(StopTime::getStop).toList(),
+        stopTimes.stream().map(StopTime::getShapeDistTraveled).toList()
+      );
+    }
+  }
+
+  private record HopGeometries(LineString[] geometries, List<DataImportIssue> issues) {
+    HopGeometries withoutIssues() {
+      return new HopGeometries(geometries, List.of());
+    }
+  }
 }
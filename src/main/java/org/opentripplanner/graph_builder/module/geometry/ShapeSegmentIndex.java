@@ -0,0 +1,87 @@
+package org.opentripplanner.graph_builder.module.geometry;
+
+import static org.opentripplanner.framework.geometry.SphericalDistanceLibrary.RADIUS_OF_EARTH_IN_M;
+import static org.opentripplanner.framework.geometry.SphericalDistanceLibrary.metersToDegrees;
+import static org.opentripplanner.framework.geometry.SphericalDistanceLibrary.metersToLonDegrees;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+
+/**
+ * The segments of a shape, with a spatial index used to find the segments near a stop without
+ * calculating the distance from the stop to every segment of the shape. Dense shapes have
+ * thousands of segments, and the index is shared by all trip patterns using the shape.
+ * <p>
+ * THREAD SAFETY This class is read-only after it is created, and can be used from several threads.
+ */
+class ShapeSegmentIndex {
+
+  /**
+   * The distance used to query the index is a little longer than requested, to make sure no
+   * segments are missed because of the approximations in the distance calculations.
+   */
+  private static final double DISTANCE_SLACK = 1.01;
+
+  private final List<IndexedLineSegment> segments;
+  private final HashGridSpatialIndex<IndexedLineSegment> index = new HashGridSpatialIndex<>();
+
+  ShapeSegmentIndex(LineString shape) {
+    int nSegments = shape.getNumPoints() - 1;
+    this.segments = new ArrayList<>(nSegments);
+    for (int i = 0; i < nSegments; ++i) {
+      Coordinate start = shape.getCoordinateN(i);
+      Coordinate end = shape.getCoordinateN(i + 1);
+      IndexedLineSegment segment = new IndexedLineSegment(i, start, end);
+      segments.add(segment);
+      index.insert(envelope(start, end), segment);
+    }
+  }
+
+  /**
+   * All segments with an index equal to or greater than the given index, ordered by index.
+   */
+  List<IndexedLineSegment> segments(int minIndex) {
+    return segments.subList(Math.max(minIndex, 0), segments.size());
+  }
+
+  /**
+   * Find the segments with an index equal to or greater than the given index which may be within
+   * the given distance of the coordinate, ordered by index. Segments further away may be returned
+   * too, so the caller must check the distance.
+   */
+  List<IndexedLineSegment> findCandidates(Coordinate coord, double distanceMeters, int minIndex) {
+    double distance = DISTANCE_SLACK * distanceMeters;
+    Envelope envelope = new Envelope(coord);
+    envelope.expandBy(metersToLonDegrees(distance, coord.y), metersToDegrees(distance));
+
+    List<IndexedLineSegment> result = new ArrayList<>();
+    for (IndexedLineSegment segment : index.query(envelope)) {
+      if (segment.index >= minIndex) {
+        result.add(segment);
+      }
+    }
+    result.sort(Comparator.comparingInt(segment -> segment.index));
+    return result;
+  }
+
+  /**
+   * The distance to a segment is measured to the great circle between the end points, which
+   * bulges slightly towards the pole compared to the straight line in the envelope. Expand the
+   * envelope by a generous bound of this, it is negligible except for very long segments.
+   */
+  private static Envelope envelope(Coordinate start, Coordinate end) {
+    Envelope envelope = new Envelope(start, end);
+    double length = SphericalDistanceLibrary.fastDistance(start, end);
+    double maxLat = Math.max(Math.abs(start.y), Math.abs(end.y));
+    double bulge =
+      length * length / RADIUS_OF_EARTH_IN_M * (1 + Math.abs(Math.tan(Math.toRadians(maxLat))));
+    envelope.expandBy(metersToLonDegrees(bulge, maxLat), metersToDegrees(bulge));
+    return envelope;
+  }
+}
@@ -1,7 +1,6 @@
 package org.opentripplanner.graph_builder.module.islandpruning;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -12,6 +11,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.GraphConnectivity;
 import org.opentripplanner.graph_builder.issues.IsolatedStop;
@@ -186,7 +186,7 @@ public class PruneIslands implements GraphBuilderModule {
     collectNeighbourVertices(neighborsForVertex, traverseMode, false);
 
     /* associate each connected vertex with a subgraph */
-    count = collectSubGraphs(neighborsForVertex, subgraphs, null, null);
+    count = collectConnectedSubGraphs(neighborsForVertex, subgraphs, null);
     LOG.info("Islands when {} noThruTraffic is considered: {}", traverseMode, count);
 
     /* Expand vertex neighbourhood with relevant noThruTrafficEdges
@@ -195,7 +195,7 @@ public class PruneIslands implements GraphBuilderModule {
     collectNeighbourVertices(neighborsForVertex, traverseMode, true);
 
     /* Next: generate subgraphs without considering access limitations */
-    count = collectSubGraphs(neighborsForVertex, extgraphs, null, islands);
+    count = collectConnectedSubGraphs(neighborsForVertex, extgraphs, islands);
     LOG.info("Islands when {} noThruTraffic is ignored: {}", traverseMode, count);
 
     /* collect unreachable edges to a map */
@@ -332,45 +332,125 @@ public class PruneIslands implements GraphBuilderModule {
 
     StreetSearchRequest request = StreetSearchRequest.of().withMode(streetMode).build();
 
-    for (Vertex gv : graph.getVertices()) {
-      if (!(gv instanceof StreetVertex)) {
+    List<Vertex> streetVertices = graph
+      .getVertices()
+      .stream()
+      .filter(StreetVertex.class::isInstance)
+      .toList();
+
+    // Traversing the edges only reads the graph, so it is done in parallel. The neighbours are
+    // added to the map afterwards, in the same order as the vertices.
+    List<List<Vertex>> reachableForVertex = streetVertices
+      .parallelStream()
+      .map(gv -> findReachableVertices(gv, request, traverseMode, shouldMatchNoThruType))
+      .toList();
+
+    for (int i = 0; i < streetVertices.size(); ++i) {
+      Vertex gv = streetVertices.get(i);
+      for (Vertex out : reachableForVertex.get(i)) {
+        var vertexList = neighborsForVertex.computeIfAbsent(gv, k -> new ArrayList<>());
+        vertexList.add(out);
+
+        // note: this assumes that edges are bi-directional. Maybe explicit state traversal is needed for CAR mode.
+        vertexList = neighborsForVertex.computeIfAbsent(out, k -> new ArrayList<>());
+        vertexList.add(gv);
+      }
+    }
+  }
+
+  private static List<Vertex> findReachableVertices(
+    Vertex gv,
+    StreetSearchRequest request,
+    TraverseMode traverseMode,
+    boolean shouldMatchNoThruType
+  ) {
+    List<Vertex> reachable = new ArrayList<>();
+    State s0 = new State(gv, request);
+    for (Edge e : gv.getOutgoing()) {
+      if (
+        !(
+          e instanceof StreetEdge ||
+          e instanceof ElevatorEdge ||
+          e instanceof FreeEdge ||
+          e instanceof StreetTransitEntityLink
+        )
+      ) {
         continue;
       }
-      State s0 = new State(gv, request);
-      for (Edge e : gv.getOutgoing()) {
-        if (
-          !(
-            e instanceof StreetEdge ||
-            e instanceof ElevatorEdge ||
-            e instanceof FreeEdge ||
-            e instanceof StreetTransitEntityLink
-          )
-        ) {
-          continue;
-        }
-        if (
-          e instanceof StreetEdge &&
-          shouldMatchNoThruType != ((StreetEdge) e).isNoThruTraffic(traverseMode)
-        ) {
-          continue;
+      if (
+        e instanceof StreetEdge &&
+        shouldMatchNoThruType != ((StreetEdge) e).isNoThruTraffic(traverseMode)
+      ) {
+        continue;
+      }
+      State[] states = e.traverse(s0);
+      if (State.isEmpty(states)) {
+        continue;
+      }
+      for (State state : states) {
+        reachable.add(state.getVertex());
+      }
+    }
+    return reachable;
+  }
+
+  /**
+   * Associate each street vertex with the subgraph of all vertices connected to it. This gives
+   * the same result as {@link #collectSubGraphs(Map, Map, Map, ArrayList)} without an isolation
+   * map from a previous round, but the connected components are found with a parallel union-find
+   * pass over the neighbours instead of a graph traversal from each vertex.
+   */
+  private int collectConnectedSubGraphs(
+    Map<Vertex, ArrayList<Vertex>> neighborsForVertex,
+    Map<Vertex, Subgraph> newgraphs, // put new subgraphs here
+    ArrayList<Subgraph> islands // final list of islands or null
+  ) {
+    List<Vertex> vertices = new ArrayList<>(neighborsForVertex.keySet());
+    Map<Vertex, Integer> indexForVertex = new HashMap<>();
+    for (int i = 0; i < vertices.size(); ++i) {
+      indexForVertex.put(vertices.get(i), i);
+    }
+
+    UnionFind components = new UnionFind(vertices.size());
+    IntStream
+      .range(0, vertices.size())
+      .parallel()
+      .forEach(i -> {
+        for (Vertex neighbor : neighborsForVertex.get(vertices.get(i))) {
+          components.union(i, indexForVertex.get(neighbor));
         }
-        State[] states = e.traverse(s0);
-        if (State.isEmpty(states)) {
-          continue;
+      });
+
+    // Create the subgraphs in the same order as they are found by collectSubGraphs. Components
+    // without street vertices are not subgraphs.
+    Map<Integer, Subgraph> subgraphForRoot = new HashMap<>();
+    for (Vertex gv : graph.getVertices()) {
+      Integer index = indexForVertex.get(gv);
+      if (!(gv instanceof StreetVertex) || index == null) {
+        continue;
+      }
+      int root = components.find(index);
+      if (!subgraphForRoot.containsKey(root)) {
+        Subgraph subgraph = new Subgraph();
+        subgraphForRoot.put(root, subgraph);
+        if (islands != null) {
+          islands.add(subgraph);
         }
-        Arrays
-          .stream(states)
-          .map(State::getVertex)
-          .forEach(out -> {
-            var vertexList = neighborsForVertex.computeIfAbsent(gv, k -> new ArrayList<>());
-            vertexList.add(out);
-
-            // note: this assumes that edges are bi-directional. Maybe explicit state traversal is needed for CAR mode.
-            vertexList = neighborsForVertex.computeIfAbsent(out, k -> new ArrayList<>());
-            vertexList.add(gv);
-          });
       }
     }
+
+    for (int i = 0; i < vertices.size(); ++i) {
+      Subgraph subgraph = subgraphForRoot.get(components.find(i));
+      if (subgraph != null) {
+        subgraph.addVertex(vertices.get(i));
+      }
+    }
+    for (Subgraph subgraph : subgraphForRoot.values()) {
+      for (Iterator<Vertex> vIter = subgraph.streetIterator(); vIter.hasNext();) {
+        newgraphs.put(vIter.next(), subgraph);
+      }
+    }
+    return subgraphForRoot.size();
   }
 
   private int collectSubGraphs(
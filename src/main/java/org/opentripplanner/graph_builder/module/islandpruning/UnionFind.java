@@ -0,0 +1,65 @@
+package org.opentripplanner.graph_builder.module.islandpruning;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free union-find (disjoint set) structure over the elements {@code 0..size-1}, used to
+ * find connected components. Elements can be joined from many threads at the same time.
+ * <p>
+ * A root is always linked to a root with a lower index, using compare-and-set, so no cycles can
+ * be created and concurrent unions of the same roots do not get lost. The paths are halved when
+ * a root is looked up.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+class UnionFind {
+
+  private final AtomicIntegerArray parent;
+
+  UnionFind(int size) {
+    this.parent = new AtomicIntegerArray(size);
+    for (int i = 0; i < size; ++i) {
+      parent.set(i, i);
+    }
+  }
+
+  /**
+   * Return the root element of the set containing the given element. Two elements are in the same
+   * set if and only if they have the same root, when no unions are running concurrently.
+   */
+  int find(int element) {
+    while (true) {
+      int p = parent.get(element);
+      if (p == element) {
+        return element;
+      }
+      int grandparent = parent.get(p);
+      if (p != grandparent) {
+        parent.compareAndSet(element, p, grandparent);
+      }
+      element = grandparent;
+    }
+  }
+
+  /**
+   * Join the sets containing the two elements.
+   */
+  void union(int a, int b) {
+    while (true) {
+      a = find(a);
+      b = find(b);
+      if (a == b) {
+        return;
+      }
+      if (a < b) {
+        int tmp = a;
+        a = b;
+        b = tmp;
+      }
+      // a is the root with the higher index, link it to b if it is still a root
+      if (parent.compareAndSet(a, a, b)) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package org.opentripplanner.graph_builder.module.ned;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.opentripplanner.framework.geometry.EncodedPolyline;
+
+/**
+ * The elevation profiles calculated in a previous graph build, identified by the geometry of the
+ * street edges.
+ * <p>
+ * The profiles are keyed by a 64-bit hash of the encoded polyline of the edge geometry, and are
+ * stored as arrays of (distance, elevation) pairs. This takes a fraction of the memory and disk
+ * space needed to keep the polyline strings and coordinate sequence objects, and the file is read
+ * and written with plain data streams instead of Java serialization.
+ * <p>
+ * The file starts with a magic number and a format version, followed by the number of profiles.
+ * Each profile is written as the key, the number of samples and the samples.
+ */
+class CachedElevations {
+
+  private static final int MAGIC = 0x4f545045; // "OTPE"
+  private static final int VERSION = 1;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final Map<Long, double[]> profiles;
+
+  CachedElevations() {
+    this(new HashMap<>());
+  }
+
+  private CachedElevations(Map<Long, double[]> profiles) {
+    this.profiles = profiles;
+  }
+
+  static CachedElevations read(File file) throws IOException {
+    try (
+      var in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))
+    ) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Unknown cached elevations file format: " + file);
+      }
+      int size = in.readInt();
+      Map<Long, double[]> profiles = new HashMap<>(2 * size);
+      for (int i = 0; i < size; ++i) {
+        long key = in.readLong();
+        double[] profile = new double[2 * in.readInt()];
+        for (int j = 0; j < profile.length; ++j) {
+          profile[j] = in.readDouble();
+        }
+        profiles.put(key, profile);
+      }
+      return new CachedElevations(profiles);
+    }
+  }
+
+  void write(File file) throws IOException {
+    try (
+      var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))
+    ) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(profiles.size());
+      for (var it : profiles.entrySet()) {
+        double[] profile = it.getValue();
+        out.writeLong(it.getKey());
+        out.writeInt(profile.length / 2);
+        for (double value : profile) {
+          out.writeDouble(value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the elevation profile for the given edge geometry, or {@code null} if it is not cached.
+   */
+  PackedCoordinateSequence get(Geometry geometry) {
+    double[] profile = profiles.get(key(geometry));
+    return profile == null ? null : new PackedCoordinateSequence.Double(profile, 2, 0);
+  }
+
+  void put(Geometry geometry, PackedCoordinateSequence profile) {
+    double[] values = new double[2 * profile.size()];
+    for (int i = 0; i < profile.size(); ++i) {
+      values[2 * i] = profile.getX(i);
+      values[2 * i + 1] = profile.getY(i);
+    }
+    profiles.put(key(geometry), values);
+  }
+
+  int size() {
+    return profiles.size();
+  }
+
+  private static long key(Geometry geometry) {
+    return HASH_FUNCTION.hashUnencodedChars(EncodedPolyline.encode(geometry).points()).asLong();
+  }
+}
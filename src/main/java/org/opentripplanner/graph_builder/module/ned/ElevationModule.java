@@ -2,16 +2,14 @@ package org.opentripplanner.graph_builder.module.ned;
 
 import static org.opentripplanner.street.model.elevation.ElevationUtils.computeEllipsoidToGeoidDifference;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,7 +23,6 @@ import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 import org.opengis.coverage.Coverage;
 import org.opengis.coverage.PointOutsideCoverageException;
 import org.opengis.referencing.operation.TransformException;
-import org.opentripplanner.framework.geometry.EncodedPolyline;
 import org.opentripplanner.framework.geometry.GeometryUtils;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.framework.lang.IntUtils;
@@ -90,12 +87,12 @@ public class ElevationModule implements GraphBuilderModule {
   private final ThreadLocal<Coverage> coverageInterpolatorThreadLocal = new ThreadLocal<>();
   private final DataImportIssueStore issueStore;
   /**
-   * A map of PackedCoordinateSequence values identified by Strings of encoded polylines.
+   * The elevation profiles from a previous build, identified by the edge geometry.
    * <p>
-   * Note: Since this map has a key of only the encoded polylines, it is assumed that all other
+   * Note: Since the profiles are identified by the edge geometry only, it is assumed that all other
    * inputs are the same as those that occurred in the graph build that produced this data.
    */
-  private HashMap<String, PackedCoordinateSequence> cachedElevations;
+  private CachedElevations cachedElevations;
   // the first coordinate in the first StreetWithElevationEdge which is used for initializing coverage instances
   private Coordinate examplarCoordinate;
   /** Used only when the ElevationModule is requested to be ran with a single thread */
@@ -159,10 +156,9 @@ public class ElevationModule implements GraphBuilderModule {
     if (readCachedElevations) {
       // try to load in the cached elevation data
       try {
-        ObjectInputStream in = new ObjectInputStream(new FileInputStream(cachedElevationsFile));
-        cachedElevations = (HashMap<String, PackedCoordinateSequence>) in.readObject();
+        cachedElevations = CachedElevations.read(cachedElevationsFile);
         LOG.info("Cached elevation data loaded into memory!");
-      } catch (IOException | ClassNotFoundException e) {
+      } catch (IOException e) {
         issueStore.add(
           new Graphwide(
             String.format(
@@ -175,7 +171,7 @@ public class ElevationModule implements GraphBuilderModule {
     }
     LOG.info("Setting street elevation profiles from digital elevation model...");
 
-    List<StreetEdge> streetsWithElevationEdges = new LinkedList<>();
+    List<StreetEdge> streetsWithElevationEdges = new ArrayList<>();
 
     for (Vertex gv : graph.getVertices()) {
       for (Edge ee : gv.getOutgoing()) {
@@ -194,6 +190,11 @@ public class ElevationModule implements GraphBuilderModule {
       }
     }
 
+    // Process the edges in a space-filling curve order, so consecutive lookups - and the ranges of
+    // edges each thread is given - fall in the same part of the elevation raster, and the tiles of
+    // the raster are read once instead of being evicted from and reloaded into the tile cache.
+    sortInZOrder(streetsWithElevationEdges);
+
     // Keeps track of the total amount of elevation edges for logging purposes
     int totalElevationEdges = streetsWithElevationEdges.size();
 
@@ -245,19 +246,12 @@ public class ElevationModule implements GraphBuilderModule {
     if (writeCachedElevations) {
       // write information from edgesWithElevation to a new cache file for subsequent graph builds
       LOG.info("Writing elevation cache");
-      HashMap<String, PackedCoordinateSequence> newCachedElevations = new HashMap<>();
+      CachedElevations newCachedElevations = new CachedElevations();
       for (StreetEdge streetEdge : edgesWithCalculatedElevations) {
-        newCachedElevations.put(
-          EncodedPolyline.encode(streetEdge.getGeometry()).points(),
-          streetEdge.getElevationProfile()
-        );
+        newCachedElevations.put(streetEdge.getGeometry(), streetEdge.getElevationProfile());
       }
       try {
-        ObjectOutputStream out = new ObjectOutputStream(
-          new BufferedOutputStream(new FileOutputStream(cachedElevationsFile))
-        );
-        out.writeObject(newCachedElevations);
-        out.close();
+        newCachedElevations.write(cachedElevationsFile);
       } catch (IOException e) {
         issueStore.add(new Graphwide("Failed to write cached elevation file: " + e.getMessage()));
       }
@@ -383,9 +377,7 @@ public class ElevationModule implements GraphBuilderModule {
     // first try to find a cached value if possible
     Geometry edgeGeometry = ee.getGeometry();
     if (cachedElevations != null) {
-      PackedCoordinateSequence coordinateSequence = cachedElevations.get(
-        EncodedPolyline.encode(edgeGeometry).points()
-      );
+      PackedCoordinateSequence coordinateSequence = cachedElevations.get(edgeGeometry);
       if (coordinateSequence != null) {
         // found a cached value! Set the elevation profile with the pre-calculated data.
         setEdgeElevationProfile(ee, coordinateSequence);
@@ -403,10 +395,18 @@ public class ElevationModule implements GraphBuilderModule {
     try {
       Coordinate[] coords = edgeGeometry.getCoordinates();
 
-      List<Coordinate> coordList = new LinkedList<>();
+      // Find the sample points first, and then look up the elevations for all of them. The
+      // samples are collected in primitive arrays: the distance along the edge, and the x and y
+      // coordinates of the sample point.
+      double[] distances = new double[16];
+      double[] xs = new double[distances.length];
+      double[] ys = new double[distances.length];
 
       // initial sample (x = 0)
-      coordList.add(new Coordinate(0, getElevation(coverage, coords[0])));
+      distances[0] = 0;
+      xs[0] = coords[0].x;
+      ys[0] = coords[0].y;
+      int nSamples = 1;
 
       // iterate through coordinates calculating the edge length and creating intermediate elevation coordinates at
       // the regularly specified interval
@@ -425,16 +425,16 @@ public class ElevationModule implements GraphBuilderModule {
 
           // calculate percent of current segment that distance is between
           double pctAlongSeg = (sampleDistance - previousDistance) / curSegmentDistance;
-          // add an elevation coordinate
-          coordList.add(
-            new Coordinate(
-              sampleDistance,
-              getElevation(
-                coverage,
-                new Coordinate(x1 + (pctAlongSeg * (x2 - x1)), y1 + (pctAlongSeg * (y2 - y1)))
-              )
-            )
-          );
+          // add an elevation sample, keeping room for the final sample
+          if (nSamples == distances.length - 1) {
+            distances = Arrays.copyOf(distances, 2 * distances.length);
+            xs = Arrays.copyOf(xs, distances.length);
+            ys = Arrays.copyOf(ys, distances.length);
+          }
+          distances[nSamples] = sampleDistance;
+          xs[nSamples] = x1 + (pctAlongSeg * (x2 - x1));
+          ys[nSamples] = y1 + (pctAlongSeg * (y2 - y1));
+          ++nSamples;
           sampleDistance += distanceBetweenSamplesM;
         }
         previousDistance = edgeLenM;
@@ -442,19 +442,30 @@ public class ElevationModule implements GraphBuilderModule {
         y1 = y2;
       }
 
+      // final sample (x = edge length)
+      distances[nSamples] = edgeLenM;
+      xs[nSamples] = coords[coords.length - 1].x;
+      ys[nSamples] = coords[coords.length - 1].y;
+      ++nSamples;
+
+      double[] elevations = getElevations(coverage, xs, ys, nSamples);
+
       // remove final-segment sample if it is less than half the distance between samples
-      if (edgeLenM - coordList.get(coordList.size() - 1).x < distanceBetweenSamplesM / 2) {
-        coordList.remove(coordList.size() - 1);
+      int removed = -1;
+      if (edgeLenM - distances[nSamples - 2] < distanceBetweenSamplesM / 2) {
+        removed = nSamples - 2;
       }
 
-      // final sample (x = edge length)
-      coordList.add(new Coordinate(edgeLenM, getElevation(coverage, coords[coords.length - 1])));
-
       // construct the PCS
-      Coordinate[] coordArr = new Coordinate[coordList.size()];
-      PackedCoordinateSequence elevPCS = new PackedCoordinateSequence.Double(
-        coordList.toArray(coordArr)
-      );
+      double[] profile = new double[2 * (removed < 0 ? nSamples : nSamples - 1)];
+      int n = 0;
+      for (int i = 0; i < nSamples; i++) {
+        if (i != removed) {
+          profile[n++] = distances[i];
+          profile[n++] = elevations[i];
+        }
+      }
+      PackedCoordinateSequence elevPCS = new PackedCoordinateSequence.Double(profile, 2, 0);
 
       setEdgeElevationProfile(ee, elevPCS);
     } catch (ElevationLookupException e) {
@@ -532,8 +543,35 @@ public class ElevationModule implements GraphBuilderModule {
    * @return elevation in meters
    */
   private double getElevation(Coverage coverage, Coordinate c) throws ElevationLookupException {
+    return getElevations(coverage, new double[] { c.x }, new double[] { c.y }, 1)[0];
+  }
+
+  /**
+   * Method for retrieving the elevations at the given (x, y) pairs. The position and the result
+   * buffer passed to the coverage are reused for all the points.
+   *
+   * @param coverage the specific Coverage instance to use in order to avoid competition between
+   *                 threads
+   * @param xs       the query longitudes (NAD83)
+   * @param ys       the query latitudes (NAD83)
+   * @param n        the number of points
+   * @return elevations in meters
+   */
+  private double[] getElevations(Coverage coverage, double[] xs, double[] ys, int n)
+    throws ElevationLookupException {
+    // We specify a CRS here because otherwise the coordinates are assumed to be in the coverage's native CRS.
+    // That assumption is fine when the coverage happens to be in longitude-first WGS84 but we want to support
+    // GeoTIFFs in various projections. Note that GeoTools defaults to strict EPSG axis ordering of (lat, long)
+    // for DefaultGeographicCRS.WGS84, but OTP is using (long, lat) throughout and assumes unprojected DEM
+    // rasters to also use (long, lat).
+    DirectPosition2D position = new DirectPosition2D(GeometryUtils.WGS84_XY, 0, 0);
+    double[] values = new double[1];
+    double[] elevations = new double[n];
     try {
-      return getElevation(coverage, c.x, c.y);
+      for (int i = 0; i < n; i++) {
+        position.setLocation(xs[i], ys[i]);
+        elevations[i] = getElevation(coverage, position, values);
+      }
     } catch (
       ArrayIndexOutOfBoundsException | PointOutsideCoverageException | TransformException e
     ) {
@@ -544,27 +582,22 @@ public class ElevationModule implements GraphBuilderModule {
       // - The TransformException can occur when trying to compute the EllipsoidToGeoidDifference.
       throw new ElevationLookupException(e);
     }
+    return elevations;
   }
 
   /**
-   * Method for retrieving the elevation at a given (x, y) pair.
+   * Method for retrieving the elevation at a given position.
    *
    * @param coverage the specific Coverage instance to use in order to avoid competition between
    *                 threads
-   * @param x        the query longitude (NAD83)
-   * @param y        the query latitude (NAD83)
+   * @param position the query position (NAD83)
+   * @param values   a buffer for the value evaluated by the coverage
    * @return elevation in meters
    */
-  private double getElevation(Coverage coverage, double x, double y)
+  private double getElevation(Coverage coverage, DirectPosition2D position, double[] values)
     throws PointOutsideCoverageException, TransformException {
-    double[] values = new double[1];
     try {
-      // We specify a CRS here because otherwise the coordinates are assumed to be in the coverage's native CRS.
-      // That assumption is fine when the coverage happens to be in longitude-first WGS84 but we want to support
-      // GeoTIFFs in various projections. Note that GeoTools defaults to strict EPSG axis ordering of (lat, long)
-      // for DefaultGeographicCRS.WGS84, but OTP is using (long, lat) throughout and assumes unprojected DEM
-      // rasters to also use (long, lat).
-      coverage.evaluate(new DirectPosition2D(GeometryUtils.WGS84_XY, x, y), values);
+      coverage.evaluate(position, values);
     } catch (PointOutsideCoverageException e) {
       nPointsOutsideDEM.incrementAndGet();
       throw e;
@@ -572,7 +605,11 @@ public class ElevationModule implements GraphBuilderModule {
 
     var elevation =
       (values[0] * gridCoverageFactory.elevationUnitMultiplier()) -
-      (includeEllipsoidToGeoidDifference ? getApproximateEllipsoidToGeoidDifference(y, x) : 0);
+      (
+        includeEllipsoidToGeoidDifference
+          ? getApproximateEllipsoidToGeoidDifference(position.y, position.x)
+          : 0
+      );
 
     minElevation = Math.min(minElevation, elevation);
     maxElevation = Math.max(maxElevation, elevation);
@@ -582,6 +619,37 @@ public class ElevationModule implements GraphBuilderModule {
     return elevation;
   }
 
+  /**
+   * Sort the edges by the Z-order code of their first coordinate. The code is computed once for
+   * each edge, not for each comparison, since the edge geometry is decompressed to get it.
+   */
+  private static void sortInZOrder(List<StreetEdge> edges) {
+    ZOrderedEdge[] ordered = new ZOrderedEdge[edges.size()];
+    for (int i = 0; i < ordered.length; i++) {
+      var edge = edges.get(i);
+      ordered[i] = new ZOrderedEdge(zOrder(edge.getGeometry().getCoordinates()[0]), edge);
+    }
+    Arrays.sort(ordered, Comparator.comparingLong(ZOrderedEdge::key));
+    for (int i = 0; i < ordered.length; i++) {
+      edges.set(i, ordered[i].edge());
+    }
+  }
+
+  /**
+   * Return a Z-order (Morton) code for the coordinate, a position along a space-filling curve, so
+   * that coordinates close to each other usually get codes close to each other.
+   */
+  static long zOrder(Coordinate c) {
+    long x = (long) ((c.x + 180.0) / 360.0 * (1 << 24));
+    long y = (long) ((c.y + 90.0) / 180.0 * (1 << 24));
+    long code = 0;
+    for (int i = 0; i < 24; i++) {
+      code |= ((x >> i) & 1L) << (2 * i);
+      code |= ((y >> i) & 1L) << (2 * i + 1);
+    }
+    return code;
+  }
+
   /**
    * The Calculation of the EllipsoidToGeoidDifference is a very expensive operation, so the
    * resulting values are cached based on the coordinate values up to 2 significant digits. Two
@@ -623,4 +691,6 @@ public class ElevationModule implements GraphBuilderModule {
       super(e);
     }
   }
+
+  private record ZOrderedEdge(long key, StreetEdge edge) {}
 }
@@ -59,9 +59,15 @@ public class OsmDatabase {
 
   private final DataImportIssueStore issueStore;
 
-  /* Map of all nodes used in ways/areas keyed by their OSM ID */
+  /* Map of all nodes used in ways/areas keyed by their OSM ID, except nodeCoordinates */
   private final TLongObjectMap<OSMNode> nodesById = new TLongObjectHashMap<>();
 
+  /* The untagged nodes used in ways only, kept outside the heap */
+  private final OsmNodeCoordinateStore nodeCoordinates = new OsmNodeCoordinateStore();
+
+  /* Number of nodes in nodeCoordinates which are also in nodesById */
+  private int nodesCopiedFromNodeCoordinates = 0;
+
   /* Map of all bike parking nodes, keyed by their OSM ID */
   private final TLongObjectMap<OSMNode> bikeParkingNodes = new TLongObjectHashMap<>();
 
@@ -134,8 +140,13 @@ public class OsmDatabase {
     this.issueStore = issueStore;
   }
 
+  /**
+   * Return the node with the given id. Untagged nodes which are only used in ways are not stored
+   * as objects, and a new instance is returned each time.
+   */
   public OSMNode getNode(Long nodeId) {
-    return nodesById.get(nodeId);
+    OSMNode node = nodesById.get(nodeId);
+    return node != null ? node : nodeCoordinates.get(nodeId);
   }
 
   public OSMWay getWay(Long nodeId) {
@@ -151,7 +162,7 @@ public class OsmDatabase {
   }
 
   public int nodeCount() {
-    return nodesById.size();
+    return nodesById.size() + (int) nodeCoordinates.size() - nodesCopiedFromNodeCoordinates;
   }
 
   public int wayCount() {
@@ -230,6 +241,14 @@ public class OsmDatabase {
     if (nodesById.containsKey(node.getId())) {
       return;
     }
+    if (
+      node.getTags().isEmpty() &&
+      !areaNodeIds.contains(node.getId()) &&
+      OsmNodeCoordinateStore.canStore(node.lat, node.lon)
+    ) {
+      nodeCoordinates.add(node.getId(), node.lat, node.lon);
+      return;
+    }
     nodesById.put(node.getId(), node);
   }
 
@@ -336,6 +355,13 @@ public class OsmDatabase {
     processSingleWayAreas();
   }
 
+  /**
+   * Release the resources used by the database. The database can not be used after this.
+   */
+  public void close() {
+    nodeCoordinates.close();
+  }
+
   /**
    * After all loading is done (from multiple OSM sources), post-process.
    */
@@ -390,8 +416,8 @@ public class OsmDatabase {
 
       // For each segment of the way
       for (int i = 0; i < way.getNodeRefs().size() - 1; i++) {
-        OSMNode nA = nodesById.get(way.getNodeRefs().get(i));
-        OSMNode nB = nodesById.get(way.getNodeRefs().get(i + 1));
+        OSMNode nA = getNode(way.getNodeRefs().get(i));
+        OSMNode nB = getNode(way.getNodeRefs().get(i + 1));
         if (nA == null || nB == null) {
           continue;
         }
@@ -557,7 +583,7 @@ public class OsmDatabase {
            * rather small.
            */
           int j = ringSegment.ring.nodes.indexOf(ringSegment.nB);
-          ringSegment.ring.nodes.add(j, splitNode);
+          ringSegment.ring.nodes.add(j, keepNodeInstance(splitNode));
 
           /*
            * Update spatial index as we just split a ring segment. Note: we do not update
@@ -640,6 +666,34 @@ public class OsmDatabase {
     return node;
   }
 
+  /**
+   * Make sure the node with the given id is in nodesById, so the same instance is used everywhere.
+   * Return {@code false} if the node does not exist.
+   */
+  private boolean keepNodeInstance(long nodeId) {
+    if (nodesById.containsKey(nodeId)) {
+      return true;
+    }
+    OSMNode node = nodeCoordinates.get(nodeId);
+    if (node == null) {
+      return false;
+    }
+    keepNodeInstance(node);
+    return true;
+  }
+
+  /**
+   * Make sure the given node is in nodesById, so the same instance is used everywhere. This is
+   * needed for nodes which are added to area rings.
+   */
+  private OSMNode keepNodeInstance(OSMNode node) {
+    if (!nodesById.containsKey(node.getId())) {
+      nodesById.put(node.getId(), node);
+      ++nodesCopiedFromNodeCoordinates;
+    }
+    return node;
+  }
+
   private void applyLevelsForWay(OSMWithTags way) {
     /* Determine OSM level for each way, if it was not already set */
     if (!wayLevels.containsKey(way)) {
@@ -685,7 +739,7 @@ public class OsmDatabase {
       TLongIterator longIterator = way.getNodeRefs().iterator();
       while (longIterator.hasNext()) {
         long nodeRef = longIterator.next();
-        if (!nodesById.containsKey(nodeRef)) {
+        if (!keepNodeInstance(nodeRef)) {
           continue AREA;
         }
       }
@@ -735,7 +789,7 @@ public class OsmDatabase {
         TLongIterator wayNodeIterator = way.getNodeRefs().iterator();
         while (wayNodeIterator.hasNext()) {
           long nodeId = wayNodeIterator.next();
-          if (nodesById.containsKey(nodeId)) {
+          if (keepNodeInstance(nodeId)) {
             MapUtils.addToMapSet(areasForNode, nodeId, way);
           } else {
             // this area is missing some nodes, perhaps because it is on
@@ -1056,7 +1110,7 @@ public class OsmDatabase {
     for (OSMRelationMember member : relation.getMembers()) {
       switch (member.getType()) {
         case NODE -> {
-          var node = nodesById.get(member.getRef());
+          var node = getNode(member.getRef());
           if (node != null && (node.isEntrance() || node.isBoardingLocation())) {
             platformNodes.add(node);
           }
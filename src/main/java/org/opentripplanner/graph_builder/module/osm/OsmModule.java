@@ -53,8 +53,8 @@ public class OsmModule implements GraphBuilderModule {
   private final DataImportIssueStore issueStore;
   private final OsmProcessingParameters params;
   private final SafetyValueNormalizer normalizer;
-  private final VertexGenerator vertexGenerator;
-  private final OsmDatabase osmdb;
+  private VertexGenerator vertexGenerator;
+  private OsmDatabase osmdb;
 
   OsmModule(
     Collection<OsmProvider> providers,
@@ -81,19 +81,27 @@ public class OsmModule implements GraphBuilderModule {
 
   @Override
   public void buildGraph() {
-    for (OsmProvider provider : providers) {
-      LOG.info("Gathering OSM from provider: {}", provider);
-      LOG.info(
-        "Using OSM way configuration from {}.",
-        provider.getOsmTagMapper().getClass().getSimpleName()
-      );
-      provider.readOSM(osmdb);
+    try {
+      for (OsmProvider provider : providers) {
+        LOG.info("Gathering OSM from provider: {}", provider);
+        LOG.info(
+          "Using OSM way configuration from {}.",
+          provider.getOsmTagMapper().getClass().getSimpleName()
+        );
+        provider.readOSM(osmdb);
+      }
+      osmdb.postLoad();
+
+      LOG.info("Building street graph from OSM");
+      build();
+      graph.hasStreets = true;
+    } finally {
+      // The OSM data is not used after the street graph is built, release it so the memory can be
+      // used by the following modules. The node store is released even if the build fails.
+      osmdb.close();
+      osmdb = null;
+      vertexGenerator = null;
     }
-    osmdb.postLoad();
-
-    LOG.info("Building street graph from OSM");
-    build();
-    graph.hasStreets = true;
   }
 
   @Override
@@ -0,0 +1,298 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact store for the coordinates of OSM nodes without tags. The nodes used by the street
+ * network are by far the most numerous OSM entities, and most of them have no tags. Keeping an
+ * {@link OSMNode} object for each of them takes a lot of heap for large regions.
+ * <p>
+ * Each node is stored as a 16 byte record: the id, and the latitude and longitude as fixed point
+ * numbers with 1e-7 degree precision (the precision used by OSM). The records are appended to a
+ * temporary file while the nodes are loaded. Before a node is looked up the file is memory-mapped
+ * and the records are sorted by id, so a node can be found with a binary search. The data is kept
+ * outside the heap, and the operating system pages it in and out as needed.
+ * <p>
+ * Only coordinates which survive the conversion to fixed point unchanged can be stored, see
+ * {@link #canStore(double, double)}. A node is returned as a new {@link OSMNode} instance for each
+ * lookup.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE.
+ */
+class OsmNodeCoordinateStore implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OsmNodeCoordinateStore.class);
+
+  private static final int RECORD_SIZE = 16;
+
+  /** A mapped buffer can not be larger than 2 GB, so the file is mapped in chunks of 1 GB. */
+  private static final int RECORDS_PER_BUFFER = 1 << 26;
+
+  private static final int WRITE_BUFFER_RECORDS = 4096;
+
+  private final ByteBuffer writeBuffer = ByteBuffer.allocate(RECORD_SIZE * WRITE_BUFFER_RECORDS);
+
+  private Path file = null;
+  private FileChannel channel = null;
+  private MappedByteBuffer[] buffers = new MappedByteBuffer[0];
+
+  /** The number of records in the file, including the ones in the write buffer. */
+  private long size = 0;
+
+  /** The number of records which are sorted and mapped, and can be looked up. */
+  private long mappedSize = 0;
+
+  private long lastId = Long.MIN_VALUE;
+  private boolean sorted = true;
+
+  /**
+   * Return {@code true} if the given coordinate can be stored without any loss of precision.
+   */
+  static boolean canStore(double lat, double lon) {
+    return fromFixedPoint(toFixedPoint(lat)) == lat && fromFixedPoint(toFixedPoint(lon)) == lon;
+  }
+
+  /**
+   * Add a node. The coordinates must be storable, see {@link #canStore(double, double)}. If a node
+   * with the same id is added more than once, only one of them is kept.
+   */
+  void add(long id, double lat, double lon) {
+    if (writeBuffer.remaining() < RECORD_SIZE) {
+      flush();
+    }
+    writeBuffer.putLong(id);
+    writeBuffer.putInt(toFixedPoint(lat));
+    writeBuffer.putInt(toFixedPoint(lon));
+
+    if (id <= lastId) {
+      sorted = false;
+    }
+    lastId = id;
+    ++size;
+  }
+
+  boolean contains(long id) {
+    return indexOf(id) >= 0;
+  }
+
+  /**
+   * Return the node with the given id, or {@code null} if it is not in the store.
+   */
+  OSMNode get(long id) {
+    long index = indexOf(id);
+    if (index < 0) {
+      return null;
+    }
+    var buffer = buffers[(int) (index / RECORDS_PER_BUFFER)];
+    int offset = (int) (index % RECORDS_PER_BUFFER) * RECORD_SIZE;
+
+    var node = new OSMNode();
+    node.setId(id);
+    node.lat = fromFixedPoint(buffer.getInt(offset + 8));
+    node.lon = fromFixedPoint(buffer.getInt(offset + 12));
+    return node;
+  }
+
+  long size() {
+    prepare();
+    return size;
+  }
+
+  /**
+   * Delete the temporary file. The store can not be used after it is closed.
+   */
+  @Override
+  public void close() {
+    buffers = new MappedByteBuffer[0];
+    writeBuffer.clear();
+    size = mappedSize = 0;
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Unable to delete temporary OSM node file {}: {}", file, e.getMessage());
+    }
+    channel = null;
+  }
+
+  private long indexOf(long id) {
+    prepare();
+    long low = 0;
+    long high = mappedSize - 1;
+
+    while (low <= high) {
+      long mid = (low + high) >>> 1;
+      long midId = idAt(mid);
+      if (midId < id) {
+        low = mid + 1;
+      } else if (midId > id) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Write the buffered records, map the file and sort the records by id. This is done before the
+   * first lookup, and again if more nodes are added after that.
+   */
+  private void prepare() {
+    if (mappedSize == size) {
+      return;
+    }
+    flush();
+    try {
+      int nBuffers = (int) ((size + RECORDS_PER_BUFFER - 1) / RECORDS_PER_BUFFER);
+      buffers = new MappedByteBuffer[nBuffers];
+      for (int i = 0; i < nBuffers; ++i) {
+        long first = (long) i * RECORDS_PER_BUFFER;
+        long count = Math.min(RECORDS_PER_BUFFER, size - first);
+        buffers[i] =
+          channel.map(FileChannel.MapMode.READ_WRITE, first * RECORD_SIZE, count * RECORD_SIZE);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to map temporary OSM node file " + file, e);
+    }
+    if (!sorted) {
+      sort();
+      size = removeDuplicates();
+      sorted = true;
+      lastId = idAt(size - 1);
+    }
+    mappedSize = size;
+  }
+
+  private void flush() {
+    if (writeBuffer.position() == 0) {
+      return;
+    }
+    try {
+      if (channel == null) {
+        file = Files.createTempFile("otp-osm-nodes-", ".bin");
+        file.toFile().deleteOnExit();
+        channel =
+          FileChannel.open(
+            file,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+          );
+      }
+      writeBuffer.flip();
+      long position = (size - writeBuffer.remaining() / RECORD_SIZE) * RECORD_SIZE;
+      while (writeBuffer.hasRemaining()) {
+        position += channel.write(writeBuffer, position);
+      }
+      writeBuffer.clear();
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to write temporary OSM node file " + file, e);
+    }
+  }
+
+  /**
+   * Sort the records by id with an in-place heap sort, which needs no extra memory.
+   */
+  private void sort() {
+    for (long i = size / 2 - 1; i >= 0; --i) {
+      siftDown(i, size);
+    }
+    for (long end = size - 1; end > 0; --end) {
+      swap(0, end);
+      siftDown(0, end);
+    }
+  }
+
+  private void siftDown(long root, long end) {
+    while (true) {
+      long child = 2 * root + 1;
+      if (child >= end) {
+        return;
+      }
+      if (child + 1 < end && idAt(child + 1) > idAt(child)) {
+        ++child;
+      }
+      if (idAt(root) >= idAt(child)) {
+        return;
+      }
+      swap(root, child);
+      root = child;
+    }
+  }
+
+  /**
+   * Remove records with the same id as the previous record, and return the new number of records.
+   * The records after the new size are left in the file, and are overwritten if more nodes are
+   * added.
+   */
+  private long removeDuplicates() {
+    if (size == 0) {
+      return 0;
+    }
+    long n = 1;
+    for (long i = 1; i < size; ++i) {
+      if (idAt(i) != idAt(n - 1)) {
+        if (i != n) {
+          copy(i, n);
+        }
+        ++n;
+      }
+    }
+    return n;
+  }
+
+  private long idAt(long index) {
+    return buffers[(int) (index / RECORDS_PER_BUFFER)].getLong(
+        (int) (index % RECORDS_PER_BUFFER) * RECORD_SIZE
+      );
+  }
+
+  private void swap(long a, long b) {
+    var bufferA = buffers[(int) (a / RECORDS_PER_BUFFER)];
+    var bufferB = buffers[(int) (b / RECORDS_PER_BUFFER)];
+    int offsetA = (int) (a % RECORDS_PER_BUFFER) * RECORD_SIZE;
+    int offsetB = (int) (b % RECORDS_PER_BUFFER) * RECORD_SIZE;
+
+    long id = bufferA.getLong(offsetA);
+    long coordinates = bufferA.getLong(offsetA + 8);
+    bufferA.putLong(offsetA, bufferB.getLong(offsetB));
+    bufferA.putLong(offsetA + 8, bufferB.getLong(offsetB + 8));
+    bufferB.putLong(offsetB, id);
+    bufferB.putLong(offsetB + 8, coordinates);
+  }
+
+  private void copy(long from, long to) {
+    var bufferFrom = buffers[(int) (from / RECORDS_PER_BUFFER)];
+    var bufferTo = buffers[(int) (to / RECORDS_PER_BUFFER)];
+    int offsetFrom = (int) (from % RECORDS_PER_BUFFER) * RECORD_SIZE;
+    int offsetTo = (int) (to % RECORDS_PER_BUFFER) * RECORD_SIZE;
+
+    bufferTo.putLong(offsetTo, bufferFrom.getLong(offsetFrom));
+    bufferTo.putLong(offsetTo + 8, bufferFrom.getLong(offsetFrom + 8));
+  }
+
+  private static int toFixedPoint(double degrees) {
+    return (int) Math.round(degrees * 1e7);
+  }
+
+  /**
+   * Use the same calculation as the OSM PBF parser, so the coordinates of nodes read from a PBF
+   * file with the default granularity are the same as when they were read.
+   */
+  private static double fromFixedPoint(int value) {
+    return .000000001 * (100L * value);
+  }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
@@ -18,8 +19,9 @@ import org.locationtech.jts.geom.MultiLineString;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.opentripplanner.astar.model.GraphPath;
-import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.SkipEdgeStrategy;
 import org.opentripplanner.framework.geometry.GeometryUtils;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
@@ -46,7 +48,7 @@ import org.opentripplanner.street.model.vertex.IntersectionVertex;
 import org.opentripplanner.street.model.vertex.OsmVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.model.vertex.VertexFactory;
-import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.StreetSearchBatch;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
 
@@ -331,51 +333,49 @@ public class WalkableAreaBuilder {
       // if area is too complex, consider only part of visibility nodes
       // so that at least some edges passing through the area is added
       // otherwise routing can use only area boundary edges
+      List<OSMNode> nodes = new ArrayList<>();
       float skip_ratio = (float) maxAreaNodes / (float) visibilityNodes.size();
       int i = 0;
       float sum_i = 0;
-      for (OSMNode nodeI : visibilityNodes) {
+      for (OSMNode node : visibilityNodes) {
         sum_i += skip_ratio;
         if (Math.floor(sum_i) < i + 1) {
           continue;
         }
         i = (int) Math.floor(sum_i);
-        IntersectionVertex startEndpoint = vertexBuilder.getVertexForOsmNode(nodeI, areaEntity);
-        if (startingNodes.contains(nodeI)) {
-          startingVertices.add(startEndpoint);
+        nodes.add(node);
+      }
+
+      IntersectionVertex[] vertices = new IntersectionVertex[nodes.size()];
+      for (int n = 0; n < nodes.size(); ++n) {
+        vertices[n] = vertexBuilder.getVertexForOsmNode(nodes.get(n), areaEntity);
+        if (startingNodes.contains(nodes.get(n))) {
+          startingVertices.add(vertices[n]);
         }
-        int j = 0;
-        float sum_j = 0;
-        for (OSMNode nodeJ : visibilityNodes) {
-          sum_j += skip_ratio;
-          if (Math.floor(sum_j) < j + 1) {
+      }
+
+      boolean[] visible = findVisiblePairs(polygon, nodes, vertices, alreadyAddedEdges);
+
+      // Create the edges in the same order as the nodes, so the graph is the same for each build
+      for (int from = 0; from < nodes.size(); ++from) {
+        for (int to = 0; to < nodes.size(); ++to) {
+          if (!visible[from * nodes.size() + to]) {
             continue;
           }
-          j = (int) Math.floor(sum_j);
-          NodeEdge edge = new NodeEdge(nodeI, nodeJ);
-          if (alreadyAddedEdges.contains(edge)) continue;
-
-          IntersectionVertex endEndpoint = vertexBuilder.getVertexForOsmNode(nodeJ, areaEntity);
-
-          Coordinate[] coordinates = new Coordinate[] {
-            startEndpoint.getCoordinate(),
-            endEndpoint.getCoordinate(),
-          };
-          LineString line = geometryFactory.createLineString(coordinates);
-          if (polygon.contains(line)) {
-            Set<AreaEdge> segments = createSegments(
-              startEndpoint,
-              endEndpoint,
-              group.areas,
-              edgeList
-            );
-            edges.addAll(segments);
-            if (platformLinkingVertices.contains(startEndpoint)) {
-              ringEdges.addAll(segments);
-            }
-            if (platformLinkingVertices.contains(endEndpoint)) {
-              ringEdges.addAll(segments);
-            }
+          IntersectionVertex startEndpoint = vertices[from];
+          IntersectionVertex endEndpoint = vertices[to];
+          Set<AreaEdge> segments = createSegments(
+            startEndpoint,
+            endEndpoint,
+            group.areas,
+            edgeList
+          );
+          edges.addAll(segments);
+          if (platformLinkingVertices.contains(startEndpoint)) {
+            ringEdges.addAll(segments);
+          }
+          if (platformLinkingVertices.contains(endEndpoint)) {
+            ringEdges.addAll(segments);
           }
         }
       }
@@ -383,6 +383,42 @@ public class WalkableAreaBuilder {
     pruneAreaEdges(startingVertices, edges, ringEdges);
   }
 
+  /**
+   * Find the pairs of nodes which can see each other, that is the straight line between them is
+   * inside the polygon. The result is indexed by {@code from * nodes.size() + to}. This is the
+   * expensive part of building the visibility graph, so the pairs are tested in parallel. The
+   * polygon is prepared, which indexes the segments of its rings, so each test does not need to
+   * check the line against all the segments.
+   */
+  private static boolean[] findVisiblePairs(
+    Polygon polygon,
+    List<OSMNode> nodes,
+    IntersectionVertex[] vertices,
+    Set<NodeEdge> alreadyAddedEdges
+  ) {
+    int size = nodes.size();
+    boolean[] visible = new boolean[size * size];
+    PreparedGeometry preparedPolygon = PreparedGeometryFactory.prepare(polygon);
+    GeometryFactory geometryFactory = GeometryUtils.getGeometryFactory();
+
+    IntStream
+      .range(0, size)
+      .parallel()
+      .forEach(from -> {
+        for (int to = 0; to < size; ++to) {
+          NodeEdge edge = new NodeEdge(nodes.get(from), nodes.get(to));
+          if (from == to || alreadyAddedEdges.contains(edge)) {
+            continue;
+          }
+          LineString line = geometryFactory.createLineString(
+            new Coordinate[] { vertices[from].getCoordinate(), vertices[to].getCoordinate() }
+          );
+          visible[from * size + to] = preparedPolygon.contains(line);
+        }
+      });
+    return visible;
+  }
+
   private Set<String> getStopReferences(AreaGroup group) {
     return group.areas
       .stream()
@@ -411,25 +447,28 @@ public class WalkableAreaBuilder {
     } else {
       mode = StreetMode.CAR;
     }
-    RouteRequest options = new RouteRequest();
+    // The searches only read the graph, so they are run in parallel. The edges are removed after
+    // all searches are done.
+    var batch = StreetSearchBatch
+      .<Vertex>of(new RouteRequest(), new StreetRequest(mode))
+      .setSkipEdgeStrategy(() -> new ListedEdgesOnly(edges))
+      .setDominanceFunction(DominanceFunctions.EarliestArrival::new);
+    startingVertices.forEach(vertex -> batch.addOrigin(vertex, vertex));
+
     Set<Edge> usedEdges = new HashSet<>();
-    for (Vertex vertex : startingVertices) {
-      ShortestPathTree<State, Edge, Vertex> spt = StreetSearchBuilder
-        .of()
-        .setSkipEdgeStrategy(new ListedEdgesOnly(edges))
-        .setDominanceFunction(new DominanceFunctions.EarliestArrival())
-        .setRequest(options)
-        .setStreetRequest(new StreetRequest(mode))
-        .setFrom(vertex)
-        .getShortestPathTree();
-
-      for (Vertex endVertex : startingVertices) {
-        GraphPath<State, Edge, Vertex> path = spt.getPath(endVertex);
-        if (path != null) {
-          usedEdges.addAll(path.edges);
+    batch
+      .search(spt -> {
+        List<Edge> pathEdges = new ArrayList<>();
+        for (Vertex endVertex : startingVertices) {
+          GraphPath<State, Edge, Vertex> path = spt.getPath(endVertex);
+          if (path != null) {
+            pathEdges.addAll(path.edges);
+          }
         }
-      }
-    }
+        return pathEdges;
+      })
+      .values()
+      .forEach(usedEdges::addAll);
     for (Edge edge : edges) {
       if (!usedEdges.contains(edge) && !edgesToKeep.contains(edge)) {
         graph.removeEdge(edge);
@@ -0,0 +1,82 @@
+package org.opentripplanner.graph_builder.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.opentripplanner.framework.lang.OtpNumberFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The time and memory used by each graph builder module in a graph build. Use
+ * {@link #profile(String, Runnable, Supplier)} to run a module and record its profile.
+ * <p>
+ * The profile is logged and written to the build report directory when the build is complete, see
+ * {@link BuildProfileReport}. It is used to find out where the time is spent in a build, and to
+ * compare builds of different releases of the input data.
+ */
+public class BuildProfile {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BuildProfile.class);
+
+  private final List<ModuleProfile> modules = new ArrayList<>();
+
+  /**
+   * Run the given module task and add its profile.
+   *
+   * @param counts Returns the number of vertices, edges, stops, etc. after the module is run.
+   */
+  public void profile(String module, Runnable task, Supplier<Map<String, Long>> counts) {
+    ResourceUsage.resetPeakHeapUsed();
+    ResourceUsage start = ResourceUsage.now();
+    task.run();
+    ResourceUsage end = ResourceUsage.now();
+
+    ModuleProfile profile = new ModuleProfile(
+      module,
+      end.wallTimeMillisSince(start),
+      end.cpuTimeMillisSince(start),
+      end.gcTimeMillisSince(start),
+      end.allocatedBytesSince(start),
+      start.heapUsed(),
+      end.heapUsed(),
+      ResourceUsage.peakHeapUsed(),
+      counts.get()
+    );
+    modules.add(profile);
+    logModule(profile);
+  }
+
+  /**
+   * Add the modules of a profile recorded earlier in the same build, before the modules of this
+   * profile. This is used when the build is split in a street and a transit stage.
+   */
+  public void prepend(BuildProfile earlier) {
+    modules.addAll(0, earlier.modules);
+  }
+
+  public List<ModuleProfile> modules() {
+    return Collections.unmodifiableList(modules);
+  }
+
+  private static void logModule(ModuleProfile profile) {
+    var f = new OtpNumberFormat();
+    LOG.info(
+      "{} took {} ms (cpu {} ms, gc {} ms), allocated {} MB, heap {} MB -> {} MB (peak {} MB)",
+      profile.module(),
+      f.formatNumber(profile.wallTimeMillis()),
+      f.formatNumber(profile.cpuTimeMillis()),
+      f.formatNumber(profile.gcTimeMillis()),
+      f.formatNumber(toMegaBytes(profile.allocatedBytes())),
+      f.formatNumber(toMegaBytes(profile.heapUsedBefore())),
+      f.formatNumber(toMegaBytes(profile.heapUsedAfter())),
+      f.formatNumber(toMegaBytes(profile.peakHeapUsed()))
+    );
+  }
+
+  static long toMegaBytes(long bytes) {
+    return bytes < 0 ? bytes : bytes / 1_000_000;
+  }
+}
@@ -0,0 +1,108 @@
+package org.opentripplanner.graph_builder.profile;
+
+import static org.opentripplanner.graph_builder.profile.BuildProfile.toMegaBytes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeSet;
+import org.opentripplanner.datastore.api.CompositeDataSource;
+import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.framework.lang.OtpNumberFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write the build profile to the build report directory, as {@code build-profile.json} for
+ * comparing builds with other tools, and as {@code build-profile.html} to read it in a browser.
+ */
+public class BuildProfileReport {
+
+  public static final String JSON_FILE = "build-profile.json";
+  public static final String HTML_FILE = "build-profile.html";
+
+  private static final Logger LOG = LoggerFactory.getLogger(BuildProfileReport.class);
+
+  private final CompositeDataSource reportDirectory;
+  private final BuildProfile profile;
+
+  public BuildProfileReport(CompositeDataSource reportDirectory, BuildProfile profile) {
+    this.reportDirectory = reportDirectory;
+    this.profile = profile;
+  }
+
+  /**
+   * Write the report. A failure to write the report is logged, the graph build continues.
+   */
+  public void write() {
+    if (reportDirectory == null) {
+      return;
+    }
+    try {
+      writeJson(reportDirectory.entry(JSON_FILE));
+      writeHtml(reportDirectory.entry(HTML_FILE));
+      LOG.info("Build profile is in {}", reportDirectory.path());
+    } catch (Exception e) {
+      LOG.error("OTP failed to save the build profile!", e);
+    }
+  }
+
+  private void writeJson(DataSource target) throws IOException {
+    try (OutputStream out = target.asOutputStream()) {
+      new ObjectMapper()
+        .writerWithDefaultPrettyPrinter()
+        .writeValue(out, Map.of("modules", profile.modules()));
+    }
+  }
+
+  private void writeHtml(DataSource target) {
+    var countNames = new TreeSet<String>();
+    profile.modules().forEach(it -> countNames.addAll(it.counts().keySet()));
+    var f = new OtpNumberFormat();
+
+    try (PrintWriter out = new PrintWriter(target.asOutputStream(), true, StandardCharsets.UTF_8)) {
+      out.println("<!DOCTYPE html>");
+      out.println("<html lang=\"en\"><head>");
+      out.println("<title>OTP graph build profile</title>");
+      out.println("<meta charset=\"utf-8\">");
+      out.println(
+        "<link " +
+        "rel=\"stylesheet\" " +
+        "href=\"https://cdn.jsdelivr.net/npm/purecss@3.0.0/build/pure-min.css\" " +
+        "integrity=\"sha384-X38yfunGUhNzHpBaEBsWLO+A0HDYOQi8ufWDkZ0k9e0eXz/tH3II7uKZ9msv++Ls\" " +
+        "crossorigin=\"anonymous\">"
+      );
+      out.println("<style>td{text-align:right;}</style>");
+      out.println("</head><body>");
+      out.println("<h1>OpenTripPlanner graph build profile</h1>");
+      out.println("<table class=\"pure-table pure-table-striped\">");
+      out.print("<thead><tr><th>Module</th><th>Wall time (ms)</th><th>CPU time (ms)</th>");
+      out.print("<th>GC time (ms)</th><th>Allocated (MB)</th><th>Heap before (MB)</th>");
+      out.print("<th>Heap after (MB)</th><th>Peak heap (MB)</th>");
+      countNames.forEach(it -> out.printf("<th>%s</th>", it));
+      out.println("</tr></thead><tbody>");
+
+      for (ModuleProfile it : profile.modules()) {
+        out.printf("<tr><th>%s</th>", it.module());
+        printCell(out, f, it.wallTimeMillis());
+        printCell(out, f, it.cpuTimeMillis());
+        printCell(out, f, it.gcTimeMillis());
+        printCell(out, f, toMegaBytes(it.allocatedBytes()));
+        printCell(out, f, toMegaBytes(it.heapUsedBefore()));
+        printCell(out, f, toMegaBytes(it.heapUsedAfter()));
+        printCell(out, f, toMegaBytes(it.peakHeapUsed()));
+        countNames.forEach(name -> printCell(out, f, it.counts().getOrDefault(name, -1L)));
+        out.println("</tr>");
+      }
+      out.println("</tbody></table>");
+      out.println("</body></html>");
+    }
+  }
+
+  private static void printCell(PrintWriter out, OtpNumberFormat f, long value) {
+    out.printf("<td>%s</td>", value < 0 ? "-" : f.formatNumber(value));
+  }
+}
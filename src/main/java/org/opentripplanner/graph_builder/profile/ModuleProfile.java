@@ -0,0 +1,30 @@
+package org.opentripplanner.graph_builder.profile;
+
+import java.util.Map;
+
+/**
+ * The resources used by a single graph builder module, and the size of the graph and transit model
+ * after the module is run. Values which can not be measured on the running JVM are {@code -1}.
+ *
+ * @param module          The name of the module.
+ * @param wallTimeMillis  The elapsed time.
+ * @param cpuTimeMillis   The CPU time used by the process, all threads included.
+ * @param gcTimeMillis    The time spent on garbage collection.
+ * @param allocatedBytes  The bytes allocated on the heap. Allocations made by threads which
+ *                        terminated while the module was running are not included.
+ * @param heapUsedBefore  The heap used before the module is run.
+ * @param heapUsedAfter   The heap used after the module is run.
+ * @param peakHeapUsed    The maximum heap used while the module was running.
+ * @param counts          The number of vertices, edges, stops, etc. after the module is run.
+ */
+public record ModuleProfile(
+  String module,
+  long wallTimeMillis,
+  long cpuTimeMillis,
+  long gcTimeMillis,
+  long allocatedBytes,
+  long heapUsedBefore,
+  long heapUsedAfter,
+  long peakHeapUsed,
+  Map<String, Long> counts
+) {}
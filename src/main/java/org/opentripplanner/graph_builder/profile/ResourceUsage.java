@@ -0,0 +1,126 @@
+package org.opentripplanner.graph_builder.profile;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the resources used by the JVM, taken with the standard management beans. The
+ * CPU time and allocated bytes use the HotSpot extensions of the beans, and are {@code -1} if they
+ * are not available.
+ */
+class ResourceUsage {
+
+  private final long wallTimeNanos;
+  private final long cpuTimeNanos;
+  private final long gcTimeMillis;
+  private final long heapUsed;
+  private final Map<Long, Long> allocatedBytesByThread;
+
+  private ResourceUsage() {
+    this.wallTimeNanos = System.nanoTime();
+    this.cpuTimeNanos = processCpuTime();
+    this.gcTimeMillis = gcTime();
+    this.heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    this.allocatedBytesByThread = allocatedBytesByThread();
+  }
+
+  static ResourceUsage now() {
+    return new ResourceUsage();
+  }
+
+  /**
+   * Reset the peak usage of the heap memory pools, so {@link #peakHeapUsed()} returns the peak
+   * usage from now on.
+   */
+  static void resetPeakHeapUsed() {
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  /**
+   * The sum of the peak usage of each heap memory pool. The pools do not necessarily peak at the
+   * same time, so this is an upper bound of the peak heap usage.
+   */
+  static long peakHeapUsed() {
+    return heapPools().stream().mapToLong(it -> it.getPeakUsage().getUsed()).sum();
+  }
+
+  long wallTimeMillisSince(ResourceUsage start) {
+    return (wallTimeNanos - start.wallTimeNanos) / 1_000_000;
+  }
+
+  long cpuTimeMillisSince(ResourceUsage start) {
+    if (cpuTimeNanos < 0 || start.cpuTimeNanos < 0) {
+      return -1;
+    }
+    return (cpuTimeNanos - start.cpuTimeNanos) / 1_000_000;
+  }
+
+  long gcTimeMillisSince(ResourceUsage start) {
+    return gcTimeMillis - start.gcTimeMillis;
+  }
+
+  long allocatedBytesSince(ResourceUsage start) {
+    if (allocatedBytesByThread == null || start.allocatedBytesByThread == null) {
+      return -1;
+    }
+    long sum = 0;
+    for (var it : allocatedBytesByThread.entrySet()) {
+      sum += it.getValue() - start.allocatedBytesByThread.getOrDefault(it.getKey(), 0L);
+    }
+    return sum;
+  }
+
+  long heapUsed() {
+    return heapUsed;
+  }
+
+  private static long processCpuTime() {
+    if (
+      ManagementFactory.getOperatingSystemMXBean() instanceof
+        com.sun.management.OperatingSystemMXBean os
+    ) {
+      return os.getProcessCpuTime();
+    }
+    return -1;
+  }
+
+  private static long gcTime() {
+    long sum = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      sum += Math.max(gc.getCollectionTime(), 0);
+    }
+    return sum;
+  }
+
+  private static Map<Long, Long> allocatedBytesByThread() {
+    if (
+      !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) ||
+      !threads.isThreadAllocatedMemorySupported() ||
+      !threads.isThreadAllocatedMemoryEnabled()
+    ) {
+      return null;
+    }
+    long[] ids = threads.getAllThreadIds();
+    long[] bytes = threads.getThreadAllocatedBytes(ids);
+    Map<Long, Long> result = new HashMap<>();
+    for (int i = 0; i < ids.length; ++i) {
+      if (bytes[i] >= 0) {
+        result.put(ids[i], bytes[i]);
+      }
+    }
+    return result;
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory
+      .getMemoryPoolMXBeans()
+      .stream()
+      .filter(it -> it.getType() == MemoryType.HEAP && it.isValid())
+      .toList();
+  }
+}
@@ -3,11 +3,14 @@ package org.opentripplanner.gtfs;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.opentripplanner.ext.flex.trip.FlexTrip;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.TripDegenerate;
@@ -16,6 +19,8 @@ import org.opentripplanner.graph_builder.module.geometry.GeometryProcessor;
 import org.opentripplanner.model.Frequency;
 import org.opentripplanner.model.StopTime;
 import org.opentripplanner.model.impl.OtpTransitServiceBuilder;
+import org.opentripplanner.transit.model.basic.SubMode;
+import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.model.framework.Deduplicator;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.network.Route;
@@ -71,8 +76,17 @@ public class GenerateTripPatternsOperation {
     final Collection<Trip> trips = transitDaoBuilder.getTripsById().values();
     final int tripsSize = trips.size();
 
-    /* Loop over all trips, handling each one as a frequency-based or scheduled trip. */
+    final List<Trip> validTrips = new ArrayList<>(tripsSize);
     for (Trip trip : trips) {
+      if (isValid(trip)) {
+        validTrips.add(trip);
+      }
+    }
+
+    prepareHopGeometries(validTrips);
+
+    /* Loop over all trips, handling each one as a frequency-based or scheduled trip. */
+    for (Trip trip : validTrips) {
       if (++tripCount % 100000 == 0) {
         LOG.debug("build trip patterns {}/{}", tripCount, tripsSize);
       }
@@ -106,11 +120,15 @@ public class GenerateTripPatternsOperation {
     }
   }
 
-  private void buildTripPatternForTrip(Trip trip) {
+  /**
+   * Check that the trip is valid, and report an issue if it is not. Invalid trips are skipped,
+   * they will break later.
+   */
+  private boolean isValid(Trip trip) {
     // TODO: move to a validator module
     if (!calendarServiceIds.contains(trip.getServiceId())) {
       issueStore.add(new TripUndefinedService(trip));
-      return; // Invalid trip, skip it, it will break later
+      return false;
     }
 
     List<StopTime> stopTimes = transitDaoBuilder.getStopTimesSortedByTrip().get(trip);
@@ -122,8 +140,31 @@ public class GenerateTripPatternsOperation {
     var flexTripWithZeroStops = FlexTrip.containsFlexStops(stopTimes) && stopTimes.size() < 1;
     if (staticTripWithFewerThan2Stops || flexTripWithZeroStops) {
       issueStore.add(new TripDegenerate(trip));
-      return;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Find the trips which create a new trip pattern, and compute the hop geometries for them in
+   * parallel. This is the expensive part of creating the trip patterns, while the trip patterns
+   * themselves are created one at a time below.
+   */
+  private void prepareHopGeometries(List<Trip> trips) {
+    Map<TripPatternKey, Trip> firstTripByPattern = new LinkedHashMap<>();
+    for (Trip trip : trips) {
+      StopPattern stopPattern = new StopPattern(
+        transitDaoBuilder.getStopTimesSortedByTrip().get(trip)
+      );
+      if (findTripPattern(stopPattern, trip, trip.getDirection()) == null) {
+        firstTripByPattern.putIfAbsent(TripPatternKey.of(stopPattern, trip), trip);
+      }
     }
+    geometryProcessor.prepareHopGeometries(firstTripByPattern.values());
+  }
+
+  private void buildTripPatternForTrip(Trip trip) {
+    List<StopTime> stopTimes = transitDaoBuilder.getStopTimesSortedByTrip().get(trip);
 
     // Get the existing TripPattern for this filtered StopPattern, or create one.
     StopPattern stopPattern = new StopPattern(stopTimes);
@@ -154,17 +195,11 @@ public class GenerateTripPatternsOperation {
     Trip trip,
     Direction direction
   ) {
-    Route route = trip.getRoute();
-    for (TripPattern tripPattern : tripPatterns.get(stopPattern)) {
-      if (
-        tripPattern.getRoute().equals(route) &&
-        tripPattern.getDirection().equals(direction) &&
-        tripPattern.getMode().equals(trip.getMode()) &&
-        tripPattern.getNetexSubmode().equals(trip.getNetexSubMode())
-      ) {
-        return tripPattern;
-      }
+    TripPattern existing = findTripPattern(stopPattern, trip, direction);
+    if (existing != null) {
+      return existing;
     }
+    Route route = trip.getRoute();
     FeedScopedId patternId = generateUniqueIdForTripPattern(route, direction);
     TripPattern tripPattern = TripPattern
       .of(patternId)
@@ -178,6 +213,22 @@ public class GenerateTripPatternsOperation {
     return tripPattern;
   }
 
+  @Nullable
+  private TripPattern findTripPattern(StopPattern stopPattern, Trip trip, Direction direction) {
+    Route route = trip.getRoute();
+    for (TripPattern tripPattern : tripPatterns.get(stopPattern)) {
+      if (
+        tripPattern.getRoute().equals(route) &&
+        tripPattern.getDirection().equals(direction) &&
+        tripPattern.getMode().equals(trip.getMode()) &&
+        tripPattern.getNetexSubmode().equals(trip.getNetexSubMode())
+      ) {
+        return tripPattern;
+      }
+    }
+    return null;
+  }
+
   /**
    * Patterns do not have unique IDs in GTFS, so we make some by concatenating agency id, route id,
    * the direction and an integer. This only works if the Collection of TripPattern includes every
@@ -196,4 +247,26 @@ public class GenerateTripPatternsOperation {
 
     return new FeedScopedId(routeId.getFeedId(), id);
   }
+
+  /**
+   * The properties used to find the trip pattern of a trip, see
+   * {@link #findTripPattern(StopPattern, Trip, Direction)}.
+   */
+  private record TripPatternKey(
+    StopPattern stopPattern,
+    Route route,
+    Direction direction,
+    TransitMode mode,
+    SubMode netexSubmode
+  ) {
+    static TripPatternKey of(StopPattern stopPattern, Trip trip) {
+      return new TripPatternKey(
+        stopPattern,
+        trip.getRoute(),
+        trip.getDirection(),
+        trip.getMode(),
+        trip.getNetexSubMode()
+      );
+    }
+  }
 }
@@ -1,8 +1,8 @@
 package org.opentripplanner.netex;
 
-import jakarta.xml.bind.JAXBException;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import org.opentripplanner.datastore.api.CompositeDataSource;
@@ -13,6 +13,7 @@ import org.opentripplanner.netex.config.NetexFeedParameters;
 import org.opentripplanner.netex.index.NetexEntityIndex;
 import org.opentripplanner.netex.loader.GroupEntries;
 import org.opentripplanner.netex.loader.NetexDataSourceHierarchy;
+import org.opentripplanner.netex.loader.NetexXmlParseQueue;
 import org.opentripplanner.netex.loader.NetexXmlParser;
 import org.opentripplanner.netex.loader.parser.NetexDocumentParser;
 import org.opentripplanner.netex.mapping.NetexMapper;
@@ -51,7 +52,7 @@ public class NetexBundle implements Closeable {
   private DataImportIssueStore issueStore;
   /** maps the NeTEx XML document to OTP transit model. */
   private NetexMapper mapper;
-  private NetexXmlParser xmlParser;
+  private NetexXmlParseQueue xmlParseQueue;
 
   public NetexBundle(
     String feedId,
@@ -84,7 +85,7 @@ public class NetexBundle implements Closeable {
     OtpTransitServiceBuilder transitBuilder = new OtpTransitServiceBuilder(issueStore);
 
     // init parser and mapper
-    xmlParser = new NetexXmlParser();
+    xmlParseQueue = new NetexXmlParseQueue(new NetexXmlParser(), entriesInLoadOrder());
     mapper =
       new NetexMapper(
         transitBuilder,
@@ -115,6 +116,20 @@ public class NetexBundle implements Closeable {
     source.close();
   }
 
+  /**
+   * All file entries in the order they are loaded by {@link #loadFileEntries()}. The XML files are
+   * parsed in parallel in this order, ahead of loading them.
+   */
+  private List<DataSource> entriesInLoadOrder() {
+    List<DataSource> entries = new ArrayList<>();
+    hierarchy.sharedEntries().forEach(entries::add);
+    for (GroupEntries group : hierarchy.groups()) {
+      entries.addAll(group.sharedEntries());
+      entries.addAll(group.independentEntries());
+    }
+    return entries;
+  }
+
   /** Load all files entries in the bundle */
   private void loadFileEntries() {
     // Load global shared files
@@ -178,10 +193,8 @@ public class NetexBundle implements Closeable {
     try {
       LOG.info("reading entity {}: {}", fileDescription, entry.name());
       issueStore.startProcessingSource(entry.name());
-      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry.asInputStream());
+      PublicationDeliveryStructure doc = xmlParseQueue.next(entry);
       NetexDocumentParser.parseAndPopulateIndex(index, doc, ignoreFareFrame);
-    } catch (JAXBException e) {
-      throw new RuntimeException(e.getMessage(), e);
     } finally {
       issueStore.stopProcessingSource();
     }
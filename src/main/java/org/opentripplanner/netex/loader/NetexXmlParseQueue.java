@@ -0,0 +1,81 @@
+package org.opentripplanner.netex.loader;
+
+import jakarta.xml.bind.JAXBException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.opentripplanner.datastore.api.DataSource;
+import org.rutebanken.netex.model.PublicationDeliveryStructure;
+
+/**
+ * Parse the NeTEx XML files of a bundle in parallel, ahead of the loader. The loader populates the
+ * index and maps the entities one file at a time, in the order given by the
+ * {@link NetexDataSourceHierarchy}, and this is not changed. Only the XML unmarshalling, which is
+ * CPU-bound and does not depend on any other file, is done in parallel.
+ * <p>
+ * At most one document per processor is parsed ahead of the loader, to limit the memory used by
+ * the documents waiting to be loaded.
+ */
+public class NetexXmlParseQueue {
+
+  private final NetexXmlParser parser;
+  private final Iterator<DataSource> entries;
+  private final int maxParseAhead;
+  private final Deque<ParseTask> queue = new ArrayDeque<>();
+
+  /**
+   * @param entries All entries to parse, in the order they are loaded.
+   */
+  public NetexXmlParseQueue(NetexXmlParser parser, Iterable<DataSource> entries) {
+    this.parser = parser;
+    this.entries = entries.iterator();
+    this.maxParseAhead = Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Return the parsed document for the given entry, waiting for it to be parsed if necessary. The
+   * entries must be retrieved in the same order as they are passed in to the constructor.
+   */
+  public PublicationDeliveryStructure next(DataSource entry) {
+    parseAhead();
+    ParseTask task = queue.pollFirst();
+    if (task == null || task.entry() != entry) {
+      throw new IllegalStateException("NeTEx file is not loaded in the expected order: " + entry);
+    }
+    parseAhead();
+    try {
+      return task.document().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private void parseAhead() {
+    while (queue.size() < maxParseAhead && entries.hasNext()) {
+      DataSource entry = entries.next();
+      queue.addLast(new ParseTask(entry, CompletableFuture.supplyAsync(() -> parse(entry))));
+    }
+  }
+
+  private PublicationDeliveryStructure parse(DataSource entry) {
+    try (InputStream stream = entry.asInputStream()) {
+      return parser.parseXmlDoc(stream);
+    } catch (JAXBException e) {
+      throw new RuntimeException(e.getMessage(), e);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to read NeTEx file " + entry.path(), e);
+    }
+  }
+
+  private record ParseTask(
+    DataSource entry,
+    CompletableFuture<PublicationDeliveryStructure> document
+  ) {}
+}
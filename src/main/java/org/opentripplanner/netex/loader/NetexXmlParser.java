@@ -7,20 +7,26 @@ import jakarta.xml.bind.Unmarshaller;
 import java.io.InputStream;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
 
-/** Simple wrapper to perform typesafe xml parsing and simple error handling. */
+/**
+ * Simple wrapper to perform typesafe xml parsing and simple error handling.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE. The JAXB context is shared, while an unmarshaller, which is not
+ * thread-safe, is created for each document.
+ */
 public class NetexXmlParser {
 
-  /** used to parse the XML. */
-  private final Unmarshaller unmarshaller;
+  /** used to create the unmarshaller used to parse the XML. */
+  private final JAXBContext context;
 
   public NetexXmlParser() {
-    this.unmarshaller = createUnmarshaller();
+    this.context = createContext();
   }
 
   /**
    * Parse an input stream and return the root document type for the given xml file (stream).
    */
   public PublicationDeliveryStructure parseXmlDoc(InputStream stream) throws JAXBException {
+    Unmarshaller unmarshaller = context.createUnmarshaller();
     JAXBElement<PublicationDeliveryStructure> root;
 
     //noinspection unchecked
@@ -29,10 +35,10 @@ public class NetexXmlParser {
     return root.getValue();
   }
 
-  /** factory method for unmarshaller */
-  private static Unmarshaller createUnmarshaller() {
+  /** factory method for the JAXB context */
+  private static JAXBContext createContext() {
     try {
-      return JAXBContext.newInstance(PublicationDeliveryStructure.class).createUnmarshaller();
+      return JAXBContext.newInstance(PublicationDeliveryStructure.class);
     } catch (JAXBException e) {
       // This is a programming error - not expected!
       // We abort early and also allow for this to happen in the constructor;
@@ -11,7 +11,7 @@ import org.opentripplanner.openstreetmap.model.OSMMemberType;
 import org.opentripplanner.openstreetmap.model.OSMNode;
 import org.opentripplanner.openstreetmap.model.OSMRelation;
 import org.opentripplanner.openstreetmap.model.OSMRelationMember;
-import org.opentripplanner.openstreetmap.model.OSMTag;
+import org.opentripplanner.openstreetmap.model.OSMTagSet;
 import org.opentripplanner.openstreetmap.model.OSMWay;
 
 /**
@@ -67,14 +67,13 @@ class OpenStreetMapParser extends BinaryParser {
       tmp.setId(i.getId());
       tmp.setOsmProvider(provider);
 
+      var tags = OSMTagSet.of();
       for (int j = 0; j < i.getKeysCount(); j++) {
-        OSMTag tag = new OSMTag();
         String key = internalize(getStringById(i.getKeys(j)));
         String value = internalize(getStringById(i.getVals(j)));
-        tag.setK(key);
-        tag.setV(value);
-        tmp.addTag(tag);
+        tags.add(key, value);
       }
+      tmp.setTags(tags.build());
 
       long lastMid = 0;
       for (int j = 0; j < i.getMemidsCount(); j++) {
@@ -130,18 +129,16 @@ class OpenStreetMapParser extends BinaryParser {
 
       // If empty, assume that nothing here has keys or vals.
       if (nodes.getKeysValsCount() > 0) {
+        var tags = OSMTagSet.of();
         while (nodes.getKeysVals(j) != 0) {
           int keyid = nodes.getKeysVals(j++);
           int valid = nodes.getKeysVals(j++);
-
-          OSMTag tag = new OSMTag();
           String key = internalize(getStringById(keyid));
           String value = internalize(getStringById(valid));
-          tag.setK(key);
-          tag.setV(value);
-          tmp.addTag(tag);
+          tags.add(key, value);
         }
         j++; // Skip over the '0' delimiter.
+        tmp.setTags(tags.build());
       }
 
       osmdb.addNode(tmp);
@@ -161,15 +158,14 @@ class OpenStreetMapParser extends BinaryParser {
       tmp.lat = parseLat(i.getLat());
       tmp.lon = parseLon(i.getLon());
 
+      var tags = OSMTagSet.of();
       for (int j = 0; j < i.getKeysCount(); j++) {
         String key = internalize(getStringById(i.getKeys(j)));
         // if handler.retain_tag(key) // TODO: filter tags
         String value = internalize(getStringById(i.getVals(j)));
-        OSMTag tag = new OSMTag();
-        tag.setK(key);
-        tag.setV(value);
-        tmp.addTag(tag);
+        tags.add(key, value);
       }
+      tmp.setTags(tags.build());
 
       osmdb.addNode(tmp);
     }
@@ -186,14 +182,13 @@ class OpenStreetMapParser extends BinaryParser {
       tmp.setId(i.getId());
       tmp.setOsmProvider(provider);
 
+      var tags = OSMTagSet.of();
       for (int j = 0; j < i.getKeysCount(); j++) {
-        OSMTag tag = new OSMTag();
         String key = internalize(getStringById(i.getKeys(j)));
         String value = internalize(getStringById(i.getVals(j)));
-        tag.setK(key);
-        tag.setV(value);
-        tmp.addTag(tag);
+        tags.add(key, value);
       }
+      tmp.setTags(tags.build());
 
       long lastId = 0;
       for (long j : i.getRefsList()) {
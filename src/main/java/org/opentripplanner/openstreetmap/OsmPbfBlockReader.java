@@ -0,0 +1,229 @@
+package org.opentripplanner.openstreetmap;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+
+/**
+ * Reads the blocks of an OSM PBF file, and decompresses and decodes them on a pool of worker
+ * threads. The decoded blocks are passed to the parser on the calling thread, in the same order as
+ * they appear in the file, so the result is the same as when reading the file on a single thread.
+ * <p>
+ * The PBF file is read once for each {@link OsmParserPhase}. Each data block usually contains only
+ * one kind of entity, so on the first pass the reader records which phases need each block. On the
+ * following passes the blocks which are not needed by the current phase are skipped without
+ * decompressing them. Blocks without any entities of the current phase are never passed to the
+ * parser.
+ * <p>
+ * The reader can be used for one file only.
+ */
+class OsmPbfBlockReader {
+
+  private static final String HEADER_BLOCK = "OSMHeader";
+  private static final String DATA_BLOCK = "OSMData";
+
+  /** The max size of a blob header and a blob, as defined by the PBF format. */
+  private static final int MAX_BLOB_HEADER_SIZE = 64 * 1024;
+  private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+  private final int nThreads;
+
+  /**
+   * The phases which need each data block in the file, in file order. This is {@code null} until
+   * the file has been read once.
+   */
+  private List<Set<OsmParserPhase>> blockPhases = null;
+
+  OsmPbfBlockReader(int nThreads) {
+    this.nThreads = Math.max(1, nThreads);
+  }
+
+  void process(InputStream input, OpenStreetMapParser parser, OsmParserPhase phase)
+    throws IOException {
+    var in = new DataInputStream(input);
+    var executor = Executors.newFixedThreadPool(
+      nThreads,
+      new ThreadFactoryBuilder().setNameFormat("osm-pbf-%d").setDaemon(true).build()
+    );
+    // Limit the number of decoded blocks waiting to be parsed, to keep the memory usage bounded
+    int maxPending = 2 * nThreads;
+    Deque<Future<DecodedBlock>> pending = new ArrayDeque<>();
+    List<Set<OsmParserPhase>> phasesFound = new ArrayList<>();
+
+    try {
+      int dataBlockIndex = 0;
+      Fileformat.BlobHeader header;
+
+      while ((header = readBlobHeader(in)) != null) {
+        int size = header.getDatasize();
+        if (size < 0 || size > MAX_BLOB_SIZE) {
+          throw new IOException("Invalid PBF blob size: " + size);
+        }
+        if (header.getType().equals(DATA_BLOCK)) {
+          if (isSkipped(dataBlockIndex++, phase)) {
+            in.skipNBytes(size);
+            continue;
+          }
+          byte[] blob = readBytes(in, size);
+          pending.add(executor.submit(() -> decodeDataBlock(blob, phase)));
+        } else if (header.getType().equals(HEADER_BLOCK)) {
+          byte[] blob = readBytes(in, size);
+          pending.add(executor.submit(() -> decodeHeaderBlock(blob)));
+        } else {
+          // Unknown block types must be ignored
+          in.skipNBytes(size);
+        }
+
+        while (pending.size() >= maxPending) {
+          parse(pending.removeFirst(), parser, phasesFound);
+        }
+      }
+      while (!pending.isEmpty()) {
+        parse(pending.removeFirst(), parser, phasesFound);
+      }
+      parser.complete();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (blockPhases == null) {
+      blockPhases = phasesFound;
+    }
+  }
+
+  private boolean isSkipped(int dataBlockIndex, OsmParserPhase phase) {
+    return (
+      blockPhases != null &&
+      dataBlockIndex < blockPhases.size() &&
+      !blockPhases.get(dataBlockIndex).contains(phase)
+    );
+  }
+
+  private static void parse(
+    Future<DecodedBlock> future,
+    OpenStreetMapParser parser,
+    List<Set<OsmParserPhase>> phasesFound
+  ) throws IOException {
+    DecodedBlock block;
+    try {
+      block = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading OSM PBF file", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw new IOException("Failed to decode OSM PBF block: " + e.getCause(), e.getCause());
+    }
+
+    if (block.header() != null) {
+      parser.parse(block.header());
+      return;
+    }
+    phasesFound.add(block.phases());
+    if (block.data() != null) {
+      parser.parse(block.data());
+    }
+  }
+
+  /**
+   * Read the next blob header, or return {@code null} at the end of the file.
+   */
+  private static Fileformat.BlobHeader readBlobHeader(DataInputStream in) throws IOException {
+    int size;
+    try {
+      size = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    if (size < 0 || size > MAX_BLOB_HEADER_SIZE) {
+      throw new IOException("Invalid PBF blob header size: " + size);
+    }
+    return Fileformat.BlobHeader.parseFrom(readBytes(in, size));
+  }
+
+  private static byte[] readBytes(DataInputStream in, int size) throws IOException {
+    byte[] bytes = new byte[size];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static DecodedBlock decodeHeaderBlock(byte[] blob) throws IOException {
+    return new DecodedBlock(Osmformat.HeaderBlock.parseFrom(inflate(blob)), null, null);
+  }
+
+  /**
+   * Decode a data block. The block is only returned if it contains entities for the given phase,
+   * but the phases needing the block are always returned.
+   */
+  private static DecodedBlock decodeDataBlock(byte[] blob, OsmParserPhase phase)
+    throws IOException {
+    var block = Osmformat.PrimitiveBlock.parseFrom(inflate(blob));
+    var phases = EnumSet.noneOf(OsmParserPhase.class);
+
+    for (Osmformat.PrimitiveGroup group : block.getPrimitivegroupList()) {
+      if (group.getRelationsCount() > 0) {
+        phases.add(OsmParserPhase.Relations);
+      }
+      if (group.getWaysCount() > 0) {
+        phases.add(OsmParserPhase.Ways);
+      }
+      if (group.getNodesCount() > 0 || group.hasDense()) {
+        phases.add(OsmParserPhase.Nodes);
+      }
+    }
+    return new DecodedBlock(null, phases.contains(phase) ? block : null, phases);
+  }
+
+  private static byte[] inflate(byte[] data) throws IOException {
+    var blob = Fileformat.Blob.parseFrom(data);
+
+    if (blob.hasRaw()) {
+      return blob.getRaw().toByteArray();
+    }
+    if (!blob.hasZlibData()) {
+      throw new IOException("Unsupported PBF blob compression, only raw and zlib are supported.");
+    }
+
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(blob.getZlibData().asReadOnlyByteBuffer());
+      byte[] result = new byte[blob.getRawSize()];
+      int length = inflater.inflate(result);
+      if (length != result.length) {
+        throw new IOException("PBF blob is truncated or has the wrong uncompressed size.");
+      }
+      return result;
+    } catch (DataFormatException e) {
+      throw new IOException("Failed to decompress PBF blob: " + e.getMessage(), e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * A decoded block. Either the header is set, or the phases needing the data block are set. The
+   * data is {@code null} if the block is not needed by the current phase.
+   */
+  private record DecodedBlock(
+    Osmformat.HeaderBlock header,
+    Osmformat.PrimitiveBlock data,
+    Set<OsmParserPhase> phases
+  ) {}
+}
@@ -5,7 +5,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
-import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.datastore.api.FileType;
 import org.opentripplanner.datastore.file.FileDataSource;
@@ -21,7 +20,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Parser for the OpenStreetMap PBF format. Parses files in three passes: First the relations, then
- * the ways, then the nodes are also loaded.
+ * the ways, then the nodes are also loaded. The blocks of the file are decoded in parallel, see
+ * {@link OsmPbfBlockReader}.
  */
 public class OsmProvider {
 
@@ -37,6 +37,9 @@ public class OsmProvider {
   private final OsmTagMapper osmTagMapper;
 
   private final WayPropertySet wayPropertySet;
+  private final OsmPbfBlockReader blockReader = new OsmPbfBlockReader(
+    Runtime.getRuntime().availableProcessors()
+  );
   private byte[] cachedBytes = null;
 
   /** For tests */
@@ -99,19 +102,8 @@ public class OsmProvider {
 
   private void parsePhase(OpenStreetMapParser parser, OsmParserPhase phase) throws IOException {
     parser.setPhase(phase);
-    BlockInputStream in = null;
-    try {
-      in = new BlockInputStream(createInputStream(phase), parser);
-      in.process();
-    } finally {
-      // Close
-      try {
-        if (in != null) {
-          in.close();
-        }
-      } catch (Exception e) {
-        LOG.error(e.getMessage(), e);
-      }
+    try (InputStream in = createInputStream(phase)) {
+      blockReader.process(in, parser, phase);
     }
   }
 
@@ -0,0 +1,229 @@
+package org.opentripplanner.openstreetmap.model;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable set of OSM tags. The keys are in lower case.
+ * <p>
+ * The keys and values are stored in a single array sorted by key, which takes much less memory
+ * than a hash map for the handful of tags an entity usually has. The tag sets are interned, so
+ * all entities with the same tags share the same instance. Most ways share their tags with many
+ * other ways, and the tag set can be used as a cache key for values which are derived from the
+ * tags only.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class OSMTagSet {
+
+  private static final Interner<OSMTagSet> TAG_SETS = Interners.newWeakInterner();
+
+  public static final OSMTagSet EMPTY = TAG_SETS.intern(new OSMTagSet(new String[0]));
+
+  /** The keys and values: {@code [key0, value0, key1, value1, ...]} sorted by key. */
+  private final String[] keysAndValues;
+  private final int hashCode;
+
+  private OSMTagSet(String[] keysAndValues) {
+    this.keysAndValues = keysAndValues;
+    this.hashCode = Arrays.hashCode(keysAndValues);
+  }
+
+  public static Builder of() {
+    return new Builder();
+  }
+
+  /**
+   * Return a tag set with the given tag added, replacing any existing value for the key. The key
+   * must be in lower case.
+   */
+  public OSMTagSet with(String key, String value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      if (Objects.equals(value, keysAndValues[index + 1])) {
+        return this;
+      }
+      String[] copy = keysAndValues.clone();
+      copy[index + 1] = value;
+      return TAG_SETS.intern(new OSMTagSet(copy));
+    }
+    int insertAt = -(index + 1);
+    String[] copy = new String[keysAndValues.length + 2];
+    System.arraycopy(keysAndValues, 0, copy, 0, insertAt);
+    copy[insertAt] = key;
+    copy[insertAt + 1] = value;
+    System.arraycopy(keysAndValues, insertAt, copy, insertAt + 2, keysAndValues.length - insertAt);
+    return TAG_SETS.intern(new OSMTagSet(copy));
+  }
+
+  public boolean containsKey(String key) {
+    return indexOf(key) >= 0;
+  }
+
+  public String get(String key) {
+    int index = indexOf(key);
+    return index >= 0 ? keysAndValues[index + 1] : null;
+  }
+
+  public int size() {
+    return keysAndValues.length / 2;
+  }
+
+  public boolean isEmpty() {
+    return keysAndValues.length == 0;
+  }
+
+  /**
+   * Return an unmodifiable map view of the tags, iterated in key order.
+   */
+  public Map<String, String> asMap() {
+    return new MapView();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return (
+      o instanceof OSMTagSet other &&
+      hashCode == other.hashCode &&
+      Arrays.equals(keysAndValues, other.keysAndValues)
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  /**
+   * Find the index of the key in the array with a binary search. If the key is not found,
+   * {@code -(insertion index) - 1} is returned.
+   */
+  private int indexOf(String key) {
+    int low = 0;
+    int high = size() - 1;
+
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = keysAndValues[2 * mid].compareTo(key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return 2 * mid;
+      }
+    }
+    return -(2 * low) - 1;
+  }
+
+  public static class Builder {
+
+    private final List<String[]> tags = new ArrayList<>();
+
+    private Builder() {}
+
+    /**
+     * Add a tag. The key is converted to lower case. If the same key is added more than once, the
+     * last value is kept.
+     */
+    public Builder add(String key, String value) {
+      tags.add(new String[] { key.toLowerCase(), value });
+      return this;
+    }
+
+    public OSMTagSet build() {
+      if (tags.isEmpty()) {
+        return EMPTY;
+      }
+      // The sort is stable, so the last value for a key is the last one in each run of equal keys
+      tags.sort(Comparator.comparing((String[] tag) -> tag[0]));
+
+      String[] keysAndValues = new String[2 * tags.size()];
+      int n = 0;
+      for (int i = 0; i < tags.size(); ++i) {
+        String[] tag = tags.get(i);
+        if (i + 1 < tags.size() && tags.get(i + 1)[0].equals(tag[0])) {
+          continue;
+        }
+        keysAndValues[n++] = tag[0];
+        keysAndValues[n++] = tag[1];
+      }
+      if (n < keysAndValues.length) {
+        keysAndValues = Arrays.copyOf(keysAndValues, n);
+      }
+      return TAG_SETS.intern(new OSMTagSet(keysAndValues));
+    }
+  }
+
+  private class MapView extends AbstractMap<String, String> {
+
+    @Override
+    public int size() {
+      return OSMTagSet.this.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String s && OSMTagSet.this.containsKey(s);
+    }
+
+    @Override
+    public String get(Object key) {
+      return key instanceof String s ? OSMTagSet.this.get(s) : null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return OSMTagSet.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+          return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+              return index < keysAndValues.length;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              var entry = new SimpleImmutableEntry<>(
+                keysAndValues[index],
+                keysAndValues[index + 1]
+              );
+              index += 2;
+              return entry;
+            }
+          };
+        }
+      };
+    }
+  }
+}
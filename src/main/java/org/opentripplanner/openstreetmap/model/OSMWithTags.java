@@ -48,8 +48,8 @@ public class OSMWithTags {
 
   static final Set<String> LEVEL_TAGS = Set.of("level", "layer");
 
-  /* To save memory this is only created when an entity actually has tags. */
-  private Map<String, String> tags;
+  /* The tag sets are interned and shared between entities with the same tags, to save memory. */
+  private OSMTagSet tags = OSMTagSet.EMPTY;
 
   protected long id;
 
@@ -83,9 +83,7 @@ public class OSMWithTags {
    * Adds a tag.
    */
   public void addTag(OSMTag tag) {
-    if (tags == null) tags = new HashMap<>();
-
-    tags.put(tag.getK().toLowerCase(), tag.getV());
+    tags = tags.with(tag.getK().toLowerCase(), tag.getV());
   }
 
   /**
@@ -96,19 +94,30 @@ public class OSMWithTags {
       return this;
     }
 
-    if (tags == null) {
-      tags = new HashMap<>();
-    }
-
-    tags.put(key.toLowerCase(), value);
+    tags = tags.with(key.toLowerCase(), value);
     return this;
   }
 
   /**
-   * The tags of an entity.
+   * Replace all tags of the entity. This is faster than adding the tags one at a time.
+   */
+  public void setTags(OSMTagSet tags) {
+    this.tags = Objects.requireNonNull(tags);
+  }
+
+  /**
+   * The tags of an entity, as an unmodifiable map.
    */
   public Map<String, String> getTags() {
-    return Objects.requireNonNullElse(tags, Map.of());
+    return tags.asMap();
+  }
+
+  /**
+   * The tags of an entity. The tag sets are interned, so entities with the same tags return the
+   * same instance, and the tag set can be used as a cache key.
+   */
+  public OSMTagSet getTagSet() {
+    return tags;
   }
 
   /**
@@ -116,7 +125,7 @@ public class OSMWithTags {
    */
   public boolean hasTag(String tag) {
     tag = tag.toLowerCase();
-    return tags != null && tags.containsKey(tag);
+    return tags.containsKey(tag);
   }
 
   /**
@@ -124,7 +133,7 @@ public class OSMWithTags {
    */
   public boolean isTagFalse(String tag) {
     tag = tag.toLowerCase();
-    if (tags == null) {
+    if (tags.isEmpty()) {
       return false;
     }
 
@@ -149,7 +158,7 @@ public class OSMWithTags {
    */
   public boolean isTagTrue(String tag) {
     tag = tag.toLowerCase();
-    if (tags == null) {
+    if (tags.isEmpty()) {
       return false;
     }
 
@@ -164,7 +173,7 @@ public class OSMWithTags {
   }
 
   protected boolean doesTagAllowAccess(String tag) {
-    if (tags == null) {
+    if (tags.isEmpty()) {
       return false;
     }
     if (isTagTrue(tag)) {
@@ -184,10 +193,7 @@ public class OSMWithTags {
   @Nullable
   public String getTag(String tag) {
     tag = tag.toLowerCase();
-    if (tags != null && tags.containsKey(tag)) {
-      return tags.get(tag);
-    }
-    return null;
+    return tags.get(tag);
   }
 
   /**
@@ -220,7 +226,7 @@ public class OSMWithTags {
    */
   public boolean isTag(String tag, String value) {
     tag = tag.toLowerCase();
-    if (tags != null && tags.containsKey(tag) && value != null) {
+    if (value != null) {
       return value.equals(tags.get(tag));
     }
 
@@ -239,7 +245,7 @@ public class OSMWithTags {
    * by {@link OsmModule}
    */
   public I18NString getAssumedName() {
-    if (tags == null) {
+    if (tags.isEmpty()) {
       return null;
     }
     if (tags.containsKey("name")) {
@@ -317,7 +323,7 @@ public class OSMWithTags {
 
   public Map<String, String> getTagsByPrefix(String prefix) {
     Map<String, String> out = new HashMap<>();
-    for (Map.Entry<String, String> entry : tags.entrySet()) {
+    for (Map.Entry<String, String> entry : tags.asMap().entrySet()) {
       String k = entry.getKey();
       if (k.equals(prefix) || k.startsWith(prefix + ":")) {
         out.put(k, entry.getValue());
@@ -682,6 +688,6 @@ public class OSMWithTags {
 
   @Override
   public String toString() {
-    return ToStringBuilder.of(this.getClass()).addObj("tags", tags).toString();
+    return ToStringBuilder.of(this.getClass()).addObj("tags", tags, OSMTagSet.EMPTY).toString();
   }
 }
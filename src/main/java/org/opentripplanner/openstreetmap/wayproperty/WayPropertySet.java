@@ -3,6 +3,8 @@ package org.opentripplanner.openstreetmap.wayproperty;
 import static org.opentripplanner.openstreetmap.wayproperty.WayPropertiesBuilder.withModes;
 import static org.opentripplanner.street.model.StreetTraversalPermission.ALL;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -14,6 +16,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.opentripplanner.framework.functional.FunctionUtils.TriFunction;
 import org.opentripplanner.framework.i18n.I18NString;
+import org.opentripplanner.openstreetmap.model.OSMTagSet;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
 import org.opentripplanner.openstreetmap.wayproperty.specifier.BestMatchSpecifier;
 import org.opentripplanner.openstreetmap.wayproperty.specifier.OsmSpecifier;
@@ -65,6 +68,16 @@ public class WayPropertySet {
 
   private final List<MixinProperties> mixins = new ArrayList<>();
 
+  /**
+   * The result of {@link #getDataForWay(OSMWithTags)} only depends on the tags of the way, and most
+   * ways share their tags with many other ways. So the results are cached by tag set. The cache is
+   * cleared when the rules are changed.
+   */
+  private final Cache<WayDataKey, WayProperties> wayDataCache = CacheBuilder
+    .newBuilder()
+    .maximumSize(100_000)
+    .build();
+
   public WayPropertySet() {
     /* sensible defaults */
     defaultSpeed = 11.2f; // 11.2 m/s ~= 25 mph ~= 40 kph, standard speed limit in the US
@@ -86,6 +99,16 @@ public class WayPropertySet {
    * that are mixins will have their safety values applied if they match at all.
    */
   public WayProperties getDataForWay(OSMWithTags way) {
+    var key = new WayDataKey(way.getTagSet(), way.getClass(), defaultSpeed);
+    WayProperties result = wayDataCache.getIfPresent(key);
+    if (result == null) {
+      result = calculateDataForWay(way);
+      wayDataCache.put(key, result);
+    }
+    return result;
+  }
+
+  private WayProperties calculateDataForWay(OSMWithTags way) {
     WayProperties backwardResult = defaultProperties;
     WayProperties forwardResult = defaultProperties;
     int bestBackwardScore = 0;
@@ -277,10 +300,12 @@ public class WayPropertySet {
 
   public void addMixin(MixinProperties mixin) {
     mixins.add(mixin);
+    wayDataCache.invalidateAll();
   }
 
   public void addProperties(OsmSpecifier spec, WayProperties properties) {
     wayProperties.add(new WayPropertyPicker(spec, properties));
+    wayDataCache.invalidateAll();
   }
 
   public void addCreativeNamer(OsmSpecifier spec, CreativeNamer namer) {
@@ -319,6 +344,7 @@ public class WayPropertySet {
 
   public void addSpeedPicker(SpeedPicker picker) {
     this.speedPickers.add(picker);
+    wayDataCache.invalidateAll();
   }
 
   public Float getMetersSecondFromSpeed(String speed) {
@@ -385,6 +411,7 @@ public class WayPropertySet {
       throw new IllegalStateException("A custom default walk safety resolver was already set");
     }
     this.defaultWalkSafetyForPermission = defaultWalkSafetyForPermission;
+    wayDataCache.invalidateAll();
   }
 
   /**
@@ -398,6 +425,7 @@ public class WayPropertySet {
       throw new IllegalStateException("A custom default cycling safety resolver was already set");
     }
     this.defaultBicycleSafetyForPermission = defaultBicycleSafetyForPermission;
+    wayDataCache.invalidateAll();
   }
 
   public void setMixinProperties(OsmSpecifier spec, MixinPropertiesBuilder builder) {
@@ -493,4 +521,10 @@ public class WayPropertySet {
       .walkSafety(forwardWalk, backWalk)
       .build();
   }
+
+  /**
+   * The way class is part of the key, because some of the tag checks are overridden by the
+   * subclasses. The default speed is a public field, so it is part of the key as well.
+   */
+  private record WayDataKey(OSMTagSet tags, Class<?> type, Float defaultSpeed) {}
 }
@@ -52,15 +52,34 @@ public class GraphPathToItineraryMapper {
   private final ZoneId timeZone;
   private final StreetNotesService streetNotesService;
   private final double ellipsoidToGeoidDifference;
+  private final boolean includeWalkSteps;
+  private final boolean includeElevationProfile;
 
   public GraphPathToItineraryMapper(
     ZoneId timeZone,
     StreetNotesService streetNotesService,
     double ellipsoidToGeoidDifference
+  ) {
+    this(timeZone, streetNotesService, ellipsoidToGeoidDifference, true, true);
+  }
+
+  /**
+   * @param includeWalkSteps        if false, the street legs are created without walk steps.
+   * @param includeElevationProfile if false, the street legs are created without an elevation
+   *                                profile, and the itineraries without elevation gained and lost.
+   */
+  public GraphPathToItineraryMapper(
+    ZoneId timeZone,
+    StreetNotesService streetNotesService,
+    double ellipsoidToGeoidDifference,
+    boolean includeWalkSteps,
+    boolean includeElevationProfile
   ) {
     this.timeZone = timeZone;
     this.streetNotesService = streetNotesService;
     this.ellipsoidToGeoidDifference = ellipsoidToGeoidDifference;
+    this.includeWalkSteps = includeWalkSteps;
+    this.includeElevationProfile = includeElevationProfile;
   }
 
   public static boolean isRentalPickUp(State state) {
@@ -135,7 +154,9 @@ public class GraphPathToItineraryMapper {
 
     Itinerary itinerary = new Itinerary(legs);
 
-    calculateElevations(itinerary, path.edges);
+    if (includeElevationProfile) {
+      calculateElevations(itinerary, path.edges);
+    }
 
     State lastState = path.states.getLast();
     itinerary.setGeneralizedCost((int) lastState.weight);
@@ -365,13 +386,22 @@ public class GraphPathToItineraryMapper {
 
     LineString geometry = GeometryUtils.concatenateLineStrings(edges, Edge::getGeometry);
 
-    var statesToWalkStepsMapper = new StatesToWalkStepsMapper(
-      states,
-      previousStep,
-      streetNotesService,
-      ellipsoidToGeoidDifference
-    );
-    List<WalkStep> walkSteps = statesToWalkStepsMapper.generateWalkSteps();
+    // The steps are created here, while the temporary vertices of the search still exist. The
+    // first and last step depend on the edges going out of the temporary origin and destination.
+    List<WalkStep> walkSteps = List.of();
+    if (includeWalkSteps) {
+      var statesToWalkStepsMapper = new StatesToWalkStepsMapper(
+        states,
+        previousStep,
+        streetNotesService,
+        ellipsoidToGeoidDifference
+      );
+      walkSteps = statesToWalkStepsMapper.generateWalkSteps();
+    }
+
+    ElevationProfile elevationProfile = includeElevationProfile
+      ? makeElevation(edges, firstState.getPreferences().system().geoidElevation())
+      : ElevationProfile.empty();
 
     /* For the from/to vertices to be in the correct place for vehicle parking
      * the state for actually parking (traversing the VehicleParkEdge) is excluded
@@ -393,9 +423,7 @@ public class GraphPathToItineraryMapper {
       .withDistanceMeters(distanceMeters)
       .withGeneralizedCost((int) (lastState.getWeight() - firstState.getWeight()))
       .withGeometry(geometry)
-      .withElevationProfile(
-        makeElevation(edges, firstState.getPreferences().system().geoidElevation())
-      )
+      .withElevationProfile(elevationProfile)
       .withWalkSteps(walkSteps)
       .withRentedVehicle(firstState.isRentingVehicle())
       .withWalkingBike(false);
@@ -82,7 +82,9 @@ public class RaptorPathToItineraryMapper<T extends TripSchedule> {
       new GraphPathToItineraryMapper(
         transitService.getTimeZone(),
         graph.streetNotesService,
-        graph.ellipsoidToGeoidDifference
+        graph.ellipsoidToGeoidDifference,
+        request.includeWalkSteps(),
+        request.includeElevationProfile()
       );
   }
 
@@ -3,12 +3,15 @@ package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.graph_builder.module.NearbyStopFinder;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.request.StreetRequest;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
+import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.TemporaryVerticesContainer;
 import org.opentripplanner.transit.service.TransitService;
 import org.slf4j.Logger;
@@ -39,19 +42,42 @@ public class AccessEgressRouter {
     int maxStopCount
   ) {
     OTPRequestTimeoutException.checkForTimeout();
-    NearbyStopFinder nearbyStopFinder = new NearbyStopFinder(
-      transitService,
-      durationLimit,
-      maxStopCount,
-      dataOverlayContext,
-      true
-    );
-    List<NearbyStop> nearbyStopList = nearbyStopFinder.findNearbyStopsViaStreets(
-      fromTarget ? verticesContainer.getToVertices() : verticesContainer.getFromVertices(),
-      fromTarget,
-      request,
-      streetRequest
-    );
+    Set<Vertex> originVertices = fromTarget
+      ? verticesContainer.getToVertices()
+      : verticesContainer.getFromVertices();
+
+    Supplier<List<NearbyStop>> search = () -> {
+      NearbyStopFinder nearbyStopFinder = new NearbyStopFinder(
+        transitService,
+        durationLimit,
+        maxStopCount,
+        dataOverlayContext,
+        true
+      );
+      return nearbyStopFinder.findNearbyStopsViaStreets(
+        originVertices,
+        fromTarget,
+        request,
+        streetRequest
+      );
+    };
+
+    var transitLayer = transitService.getTransitLayer();
+    var cache = transitLayer == null ? null : transitLayer.getAccessEgressStopCache();
+
+    List<NearbyStop> nearbyStopList = cache == null
+      ? search.get()
+      : cache.getOrSearch(
+        originVertices,
+        streetRequest.mode(),
+        fromTarget,
+        durationLimit,
+        maxStopCount,
+        request,
+        dataOverlayContext != null,
+        verticesContainer.realtimeStreetUpdateCount(),
+        search
+      );
 
     LOG.debug("Found {} {} stops", nearbyStopList.size(), fromTarget ? "egress" : "access");
 
@@ -0,0 +1,519 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.BikePreferences;
+import org.opentripplanner.routing.api.request.preference.CarPreferences;
+import org.opentripplanner.routing.api.request.preference.StreetPreferences;
+import org.opentripplanner.routing.api.request.preference.WalkPreferences;
+import org.opentripplanner.routing.api.request.preference.WheelchairPreferences;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graphfinder.NearbyStop;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.TemporaryEdge;
+import org.opentripplanner.street.model.edge.TemporaryPartialStreetEdge;
+import org.opentripplanner.street.model.vertex.TemporaryVertex;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
+import org.opentripplanner.street.search.state.EdgeTraverser;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.transit.model.site.StopLocation;
+
+/**
+ * A bounded cache of access/egress stop searches shared by all requests. Many requests start or end
+ * at the same place (stations, saved places, popular addresses), and the street search to find the
+ * nearby stops is then repeated with the exact same input.
+ * <p>
+ * The cache is keyed on the origin location, the street mode, the direction of the search, the
+ * search limits and the street relevant preferences. Request origins are linked into the graph
+ * with new temporary vertices for each request, so these are keyed on the coordinate rounded to
+ * {@link #COORDINATE_PRECISION} decimal degrees (about 1 meter) and the street edges the origin is
+ * snapped to. Permanent vertices, like a stop given by id, are keyed on the vertex itself.
+ * <p>
+ * The cache only keeps the stops found and the permanent street edges leading to each of them.
+ * The states belong to the request and its temporary vertices, so they are never shared. Instead,
+ * the states of each request are created by traversing the path from the origin of the request to
+ * the cached edges, and then the cached edges. This is much cheaper than the street search, and
+ * the durations and costs are calculated for the request time. If a path can not be traversed,
+ * the search is done again.
+ * <p>
+ * Only plain walk, bike and car searches are cached. Rental, park-and-ride and other modes depend
+ * on realtime vehicle availability and are always searched. The cache is also bypassed if the data
+ * overlay, flex routing or the vehicle-to-stop heuristics are in use, because these depend on
+ * parts of the request that are not part of the key.
+ * <p>
+ * Vehicle rental and parking places linked by the realtime updaters do not change the cached paths.
+ * The cached paths never contain temporary edges, and the edges added when linking these places
+ * can only be traversed when renting or parking. All entries are dropped if a realtime update
+ * removes or replaces street edges, see {@link Graph#realtimeStreetUpdateCount()}. The entries are
+ * tagged with the update count they are searched with, so an entry put by a search started before
+ * the street graph was changed is never used.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class AccessEgressStopCache {
+
+  /** Number of decimals used when rounding the coordinates of temporary vertices. */
+  private static final int COORDINATE_PRECISION = 5;
+  private static final double COORDINATE_SCALE = Math.pow(10, COORDINATE_PRECISION);
+  private static final Set<StreetMode> CACHEABLE_MODES = Set.of(
+    StreetMode.WALK,
+    StreetMode.BIKE,
+    StreetMode.CAR
+  );
+
+  /**
+   * The maximum number of temporary edges between an origin and the permanent street graph. An
+   * origin is linked with a free edge to a splitter vertex, and a partial street edge to each end
+   * of the street edge it is snapped to.
+   */
+  private static final int MAX_CONNECTOR_LENGTH = 3;
+
+  private final Cache<CacheKey, CacheEntry> cache;
+
+  /** The highest realtime street update count seen, the cache only contains entries for it. */
+  private final AtomicLong realtimeStreetUpdateCount = new AtomicLong();
+
+  public AccessEgressStopCache(int maximumSize) {
+    this.cache =
+      maximumSize > 0 ? CacheBuilder.newBuilder().maximumSize(maximumSize).build() : null;
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  /**
+   * Return the nearby stops for the given search, using the cached stops and paths if present.
+   * Perform the search using the {@code search} supplier if not cached (or not cacheable).
+   *
+   * @param realtimeStreetUpdateCount the current realtime update count for the street graph, all
+   *                                  cached entries are dropped if this is higher than the count
+   *                                  of earlier calls. If it is lower, the search is done without
+   *                                  using the cache.
+   */
+  public List<NearbyStop> getOrSearch(
+    Set<Vertex> originVertices,
+    StreetMode mode,
+    boolean fromTarget,
+    Duration durationLimit,
+    int maxStopCount,
+    RouteRequest request,
+    boolean hasDataOverlay,
+    long realtimeStreetUpdateCount,
+    Supplier<List<NearbyStop>> search
+  ) {
+    if (
+      !isEnabled() ||
+      !isCacheable(originVertices, mode, hasDataOverlay) ||
+      !isCurrent(realtimeStreetUpdateCount)
+    ) {
+      return search.get();
+    }
+
+    var connectors = connectors(originVertices, fromTarget);
+    var key = new CacheKey(
+      originKeys(originVertices, connectors),
+      mode,
+      fromTarget,
+      durationLimit,
+      maxStopCount,
+      request
+    );
+
+    var entry = cache.getIfPresent(key);
+    if (entry != null && entry.realtimeStreetUpdateCount() == realtimeStreetUpdateCount) {
+      var nearbyStops = createNearbyStops(entry.stops(), connectors, mode, fromTarget, request);
+      if (nearbyStops != null) {
+        return nearbyStops;
+      }
+    }
+
+    // The search is done outside the cache loader, so timeouts and other exceptions are
+    // propagated unchanged to the caller
+    var nearbyStops = search.get();
+    var cachedStops = cachedStops(nearbyStops, fromTarget);
+    if (cachedStops != null && this.realtimeStreetUpdateCount.get() == realtimeStreetUpdateCount) {
+      cache.put(key, new CacheEntry(realtimeStreetUpdateCount, cachedStops));
+    }
+    return nearbyStops;
+  }
+
+  private static boolean isCacheable(
+    Set<Vertex> originVertices,
+    StreetMode mode,
+    boolean hasDataOverlay
+  ) {
+    return (
+      originVertices != null &&
+      !originVertices.isEmpty() &&
+      CACHEABLE_MODES.contains(mode) &&
+      !hasDataOverlay &&
+      OTPFeature.FlexRouting.isOff() &&
+      OTPFeature.VehicleToStopHeuristics.isOff()
+    );
+  }
+
+  /**
+   * Return {@code true} if the cache is for the given street graph version. The cache is cleared
+   * if the given count is newer than the count of the cache. Searches done on an older street
+   * graph must not use the cache.
+   */
+  private boolean isCurrent(long realtimeStreetUpdateCount) {
+    long current = this.realtimeStreetUpdateCount.get();
+    while (realtimeStreetUpdateCount > current) {
+      if (this.realtimeStreetUpdateCount.compareAndSet(current, realtimeStreetUpdateCount)) {
+        cache.invalidateAll();
+        return true;
+      }
+      current = this.realtimeStreetUpdateCount.get();
+    }
+    return realtimeStreetUpdateCount == current;
+  }
+
+  /**
+   * Find the stops and the permanent part of the path to each of them. Return {@code null} if
+   * any of the paths can not be cached.
+   */
+  @Nullable
+  private static List<CachedStop> cachedStops(List<NearbyStop> nearbyStops, boolean fromTarget) {
+    List<CachedStop> result = new ArrayList<>(nearbyStops.size());
+    for (NearbyStop nearbyStop : nearbyStops) {
+      if (nearbyStop.state == null || nearbyStop.edges == null) {
+        return null;
+      }
+      // The edges are in chronological order, traverse them in the search direction
+      var edges = new ArrayList<>(nearbyStop.edges);
+      if (fromTarget) {
+        Collections.reverse(edges);
+      }
+      int connectorLength = 0;
+      while (
+        connectorLength < edges.size() && edges.get(connectorLength) instanceof TemporaryEdge
+      ) {
+        ++connectorLength;
+      }
+      var path = edges.subList(connectorLength, edges.size());
+      Vertex start;
+      if (connectorLength > 0) {
+        start = endVertex(edges.get(connectorLength - 1), fromTarget);
+      } else if (edges.isEmpty()) {
+        start = nearbyStop.state.getVertex();
+      } else {
+        start = fromTarget ? edges.get(0).getToVertex() : edges.get(0).getFromVertex();
+      }
+
+      if (
+        start instanceof TemporaryVertex ||
+        path.stream().anyMatch(e -> e instanceof TemporaryEdge)
+      ) {
+        return null;
+      }
+      result.add(new CachedStop(nearbyStop.stop, start, List.copyOf(path), edges.isEmpty()));
+    }
+    return List.copyOf(result);
+  }
+
+  /**
+   * Create the nearby stops of this request from the cached stops. Return {@code null} if the
+   * path to any of the stops can not be traversed.
+   */
+  @Nullable
+  private static List<NearbyStop> createNearbyStops(
+    List<CachedStop> cachedStops,
+    List<Connector> connectors,
+    StreetMode mode,
+    boolean fromTarget,
+    RouteRequest request
+  ) {
+    var streetSearchRequest = StreetSearchRequestMapper
+      .map(request)
+      .withMode(mode)
+      .withArriveBy(fromTarget)
+      .build();
+    var streetPreferences = request.preferences().street();
+    streetSearchRequest.setIntersectionTraversalCalculator(
+      IntersectionTraversalCalculator.create(
+        streetPreferences.intersectionTraversalModel(),
+        streetPreferences.drivingDirection()
+      )
+    );
+    Map<Vertex, Collection<State>> initialStates = new HashMap<>();
+
+    List<NearbyStop> result = new ArrayList<>(cachedStops.size());
+    for (CachedStop cachedStop : cachedStops) {
+      var nearbyStop = cachedStop.directlyConnected()
+        ? createDirectlyConnectedStop(cachedStop, mode, fromTarget, request)
+        : createNearbyStop(cachedStop, connectors, initialStates, streetSearchRequest);
+
+      if (nearbyStop == null) {
+        return null;
+      }
+      result.add(nearbyStop);
+    }
+    return result;
+  }
+
+  @Nullable
+  private static NearbyStop createNearbyStop(
+    CachedStop cachedStop,
+    List<Connector> connectors,
+    Map<Vertex, Collection<State>> initialStates,
+    StreetSearchRequest streetSearchRequest
+  ) {
+    State best = null;
+    for (Connector connector : connectors) {
+      if (connector.end() != cachedStop.start()) {
+        continue;
+      }
+      var edges = new ArrayList<>(connector.edges());
+      edges.addAll(cachedStop.path());
+
+      var states = initialStates.computeIfAbsent(
+        connector.origin(),
+        v -> State.getInitialStates(Set.of(v), streetSearchRequest)
+      );
+      for (State initialState : states) {
+        var state = EdgeTraverser.traverseEdges(initialState, edges).orElse(null);
+        if (
+          state != null &&
+          state.isFinal() &&
+          state.getVertex() instanceof TransitStopVertex &&
+          (best == null || state.getWeight() < best.getWeight())
+        ) {
+          best = state;
+        }
+      }
+    }
+    return best == null ? null : NearbyStop.nearbyStopForState(best, cachedStop.stop());
+  }
+
+  /**
+   * An origin vertex that is a stop is included with an empty path, see
+   * {@link org.opentripplanner.graph_builder.module.NearbyStopFinder}.
+   */
+  private static NearbyStop createDirectlyConnectedStop(
+    CachedStop cachedStop,
+    StreetMode mode,
+    boolean fromTarget,
+    RouteRequest request
+  ) {
+    var streetSearchRequest = StreetSearchRequestMapper
+      .mapToTransferRequest(request)
+      .withArriveBy(fromTarget)
+      .withMode(mode)
+      .build();
+    return new NearbyStop(
+      cachedStop.stop(),
+      0,
+      Collections.emptyList(),
+      new State(cachedStop.start(), streetSearchRequest)
+    );
+  }
+
+  /**
+   * Find the paths of temporary edges from each origin vertex to the permanent street graph, in
+   * the search direction. A permanent origin vertex is connected to itself with an empty path.
+   */
+  private static List<Connector> connectors(Set<Vertex> originVertices, boolean fromTarget) {
+    List<Connector> connectors = new ArrayList<>();
+    for (Vertex origin : originVertices) {
+      addConnectors(origin, origin, new ArrayList<>(), fromTarget, connectors);
+    }
+    return connectors;
+  }
+
+  private static void addConnectors(
+    Vertex origin,
+    Vertex vertex,
+    List<Edge> edges,
+    boolean fromTarget,
+    List<Connector> connectors
+  ) {
+    if (!(vertex instanceof TemporaryVertex)) {
+      connectors.add(new Connector(origin, vertex, List.copyOf(edges)));
+      return;
+    }
+    if (edges.size() == MAX_CONNECTOR_LENGTH) {
+      return;
+    }
+    for (Edge edge : fromTarget ? vertex.getIncoming() : vertex.getOutgoing()) {
+      if (edge instanceof TemporaryEdge) {
+        edges.add(edge);
+        addConnectors(origin, endVertex(edge, fromTarget), edges, fromTarget, connectors);
+        edges.remove(edges.size() - 1);
+      }
+    }
+  }
+
+  private static Vertex endVertex(Edge edge, boolean fromTarget) {
+    return fromTarget ? edge.getFromVertex() : edge.getToVertex();
+  }
+
+  private static Set<OriginKey> originKeys(Set<Vertex> originVertices, List<Connector> connectors) {
+    Set<OriginKey> keys = new HashSet<>();
+    for (Vertex v : originVertices) {
+      if (v instanceof TemporaryVertex) {
+        Set<Edge> snappedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Connector connector : connectors) {
+          if (connector.origin() == v) {
+            for (Edge edge : connector.edges()) {
+              if (edge instanceof TemporaryPartialStreetEdge partialEdge) {
+                snappedEdges.add(partialEdge.getParentEdge());
+              }
+            }
+          }
+        }
+        keys.add(new OriginKey(round(v.getLat()), round(v.getLon()), null, snappedEdges));
+      } else {
+        keys.add(new OriginKey(0, 0, v, Set.of()));
+      }
+    }
+    return keys;
+  }
+
+  private static long round(double degrees) {
+    return Math.round(degrees * COORDINATE_SCALE);
+  }
+
+  /**
+   * Temporary vertices are identified by their rounded coordinate and the permanent street edges
+   * they are snapped to, while permanent vertices are identified by the instance (Vertex and Edge
+   * do not override equals/hashCode).
+   */
+  private record OriginKey(long lat, long lon, Vertex vertex, Set<Edge> snappedEdges) {}
+
+  /**
+   * The temporary edges from an origin vertex to a permanent vertex, in the search direction.
+   */
+  private record Connector(Vertex origin, Vertex end, List<Edge> edges) {}
+
+  /**
+   * A stop and the permanent edges from the {@code start} vertex to the stop, in the search
+   * direction. A directly connected stop is an origin vertex, reached without any edges.
+   */
+  private record CachedStop(
+    StopLocation stop,
+    Vertex start,
+    List<Edge> path,
+    boolean directlyConnected
+  ) {}
+
+  private record CacheEntry(long realtimeStreetUpdateCount, List<CachedStop> stops) {}
+
+  private static final class CacheKey {
+
+    private final Set<OriginKey> origins;
+    private final StreetMode mode;
+    private final boolean fromTarget;
+    private final Duration durationLimit;
+    private final int maxStopCount;
+    private final boolean wheelchair;
+    private final WalkPreferences walk;
+    private final BikePreferences bike;
+    private final CarPreferences car;
+    private final StreetPreferences street;
+    private final WheelchairPreferences wheelchairPreferences;
+    private final int hashCode;
+
+    private CacheKey(
+      Set<OriginKey> origins,
+      StreetMode mode,
+      boolean fromTarget,
+      Duration durationLimit,
+      int maxStopCount,
+      RouteRequest request
+    ) {
+      var preferences = request.preferences();
+      this.origins = origins;
+      this.mode = mode;
+      this.fromTarget = fromTarget;
+      this.durationLimit = durationLimit;
+      this.maxStopCount = maxStopCount;
+      this.wheelchair = request.wheelchair();
+      this.walk = preferences.walk();
+      this.bike = mode.includesBiking() ? preferences.bike() : BikePreferences.DEFAULT;
+      this.car = mode.includesDriving() ? preferences.car() : CarPreferences.DEFAULT;
+      this.street = preferences.street();
+      this.wheelchairPreferences =
+        wheelchair ? preferences.wheelchair() : WheelchairPreferences.DEFAULT;
+      this.hashCode =
+        Objects.hash(
+          origins,
+          mode,
+          fromTarget,
+          durationLimit,
+          maxStopCount,
+          wheelchair,
+          walk,
+          bike,
+          car,
+          street,
+          wheelchairPreferences
+        );
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey that)) {
+        return false;
+      }
+      return (
+        hashCode == that.hashCode &&
+        mode == that.mode &&
+        fromTarget == that.fromTarget &&
+        maxStopCount == that.maxStopCount &&
+        wheelchair == that.wheelchair &&
+        origins.equals(that.origins) &&
+        durationLimit.equals(that.durationLimit) &&
+        walk.equals(that.walk) &&
+        bike.equals(that.bike) &&
+        car.equals(that.car) &&
+        street.equals(that.street) &&
+        wheelchairPreferences.equals(that.wheelchairPreferences)
+      );
+    }
+
+    @Override
+    public String toString() {
+      return ToStringBuilder
+        .of(CacheKey.class)
+        .addCol("origins", origins)
+        .addEnum("mode", mode)
+        .addBoolIfTrue("fromTarget", fromTarget)
+        .addDuration("durationLimit", durationLimit)
+        .addNum("maxStopCount", maxStopCount)
+        .addBoolIfTrue("wheelchair", wheelchair)
+        .toString();
+    }
+  }
+}
@@ -53,7 +53,9 @@ public class DirectStreetRouter {
       final GraphPathToItineraryMapper graphPathToItineraryMapper = new GraphPathToItineraryMapper(
         serverContext.transitService().getTimeZone(),
         serverContext.graph().streetNotesService,
-        serverContext.graph().ellipsoidToGeoidDifference
+        serverContext.graph().ellipsoidToGeoidDifference,
+        request.includeWalkSteps(),
+        request.includeElevationProfile()
       );
       List<Itinerary> response = graphPathToItineraryMapper.mapItineraries(paths);
       ItinerariesHelper.decorateItinerariesWithRequestData(
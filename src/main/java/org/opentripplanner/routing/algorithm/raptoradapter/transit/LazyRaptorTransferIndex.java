@@ -0,0 +1,150 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+
+/**
+ * A {@link RaptorTransferIndex} where the transfers of each stop are priced the first time they
+ * are used. The transfers are exactly the same as the transfers of
+ * {@link RaptorTransferIndex#create(List, StreetSearchRequest)}, but a search only prices the
+ * transfers of the stops it reaches. This is used while the full index for a new set of
+ * preferences is built in the background.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE. Two threads may price the transfers of the same stop at the same
+ * time, both get the same result. The lists are immutable, so they are safely published.
+ */
+public final class LazyRaptorTransferIndex extends RaptorTransferIndex {
+
+  private final List<List<Transfer>> transfersByStopIndex;
+  private final TransfersToStop transfersToStop;
+  private final StreetSearchRequest request;
+
+  private final List<RaptorTransfer>[] forwardTransfers;
+  private final List<RaptorTransfer>[] reversedTransfers;
+
+  public LazyRaptorTransferIndex(TransfersToStop transfersToStop, StreetSearchRequest request) {
+    this(
+      transfersToStop,
+      request,
+      new List[transfersToStop.transfersByStopIndex.size()],
+      new List[transfersToStop.transfersByStopIndex.size()]
+    );
+  }
+
+  private LazyRaptorTransferIndex(
+    TransfersToStop transfersToStop,
+    StreetSearchRequest request,
+    List<RaptorTransfer>[] forwardTransfers,
+    List<RaptorTransfer>[] reversedTransfers
+  ) {
+    super(forwardTransfers, reversedTransfers);
+    this.transfersByStopIndex = transfersToStop.transfersByStopIndex;
+    this.transfersToStop = transfersToStop;
+    this.request = request;
+    this.forwardTransfers = forwardTransfers;
+    this.reversedTransfers = reversedTransfers;
+  }
+
+  @Override
+  public List<RaptorTransfer> getForwardTransfers(int stopIndex) {
+    var transfers = forwardTransfers[stopIndex];
+    if (transfers == null) {
+      transfers = List.copyOf(priceTransfers(transfersByStopIndex.get(stopIndex), request));
+      forwardTransfers[stopIndex] = transfers;
+    }
+    return transfers;
+  }
+
+  @Override
+  public List<RaptorTransfer> getReversedTransfers(int stopIndex) {
+    var transfers = reversedTransfers[stopIndex];
+    if (transfers == null) {
+      transfers = priceReversedTransfers(stopIndex);
+      reversedTransfers[stopIndex] = transfers;
+    }
+    return transfers;
+  }
+
+  /**
+   * Price the transfers to the given stop. As in the full index, only the cheapest transfer from
+   * each stop is kept, and the transfers are ordered by the stop they come from.
+   */
+  private List<RaptorTransfer> priceReversedTransfers(int toStop) {
+    List<RaptorTransfer> result = new ArrayList<>();
+    int end = transfersToStop.offsets[toStop + 1];
+    int i = transfersToStop.offsets[toStop];
+
+    while (i < end) {
+      int fromStop = transfersToStop.fromStops[i];
+      var transfers = transfersByStopIndex.get(fromStop);
+      RaptorTransfer cheapest = null;
+
+      for (; i < end && transfersToStop.fromStops[i] == fromStop; ++i) {
+        var transfer = transfers.get(transfersToStop.transferIndexes[i]).asRaptorTransfer(request);
+        if (transfer.isPresent()) {
+          cheapest = cheapest == null ? transfer.get() : cheapest(cheapest, transfer.get());
+        }
+      }
+      if (cheapest != null) {
+        result.add(DefaultRaptorTransfer.reverseOf(fromStop, cheapest));
+      }
+    }
+    return List.copyOf(result);
+  }
+
+  /**
+   * The transfers to each stop, used to price the reversed transfers of a single stop. For each
+   * transfer the stop it comes from and its index in the list of transfers of that stop are kept
+   * in flat arrays, so this is small compared to the transfers. The transfers to stop {@code j}
+   * are at index {@code offsets[j]} until {@code offsets[j + 1]}, ordered by the stop they come
+   * from and their index.
+   * <p>
+   * This is immutable, and is shared by all lazy indexes for the same transfers.
+   */
+  public static final class TransfersToStop {
+
+    private final List<List<Transfer>> transfersByStopIndex;
+    private final int[] offsets;
+    private final int[] fromStops;
+    private final int[] transferIndexes;
+
+    public TransfersToStop(List<List<Transfer>> transfersByStopIndex) {
+      int nStops = transfersByStopIndex.size();
+      this.transfersByStopIndex = transfersByStopIndex;
+      this.offsets = new int[nStops + 1];
+
+      for (List<Transfer> transfers : transfersByStopIndex) {
+        for (Transfer transfer : transfers) {
+          ++offsets[transfer.getToStop() + 1];
+        }
+      }
+      for (int stop = 0; stop < nStops; ++stop) {
+        offsets[stop + 1] += offsets[stop];
+      }
+
+      this.fromStops = new int[offsets[nStops]];
+      this.transferIndexes = new int[offsets[nStops]];
+      int[] next = Arrays.copyOf(offsets, nStops);
+
+      for (int fromStop = 0; fromStop < nStops; ++fromStop) {
+        var transfers = transfersByStopIndex.get(fromStop);
+        for (int i = 0; i < transfers.size(); ++i) {
+          int index = next[transfers.get(i).getToStop()]++;
+          fromStops[index] = fromStop;
+          transferIndexes[index] = i;
+        }
+      }
+    }
+
+    /**
+     * Return {@code true} if this is created for the given transfers. The instance is checked, not
+     * the content, there is only one instance per graph.
+     */
+    public boolean isFor(List<List<Transfer>> transfersByStopIndex) {
+      return this.transfersByStopIndex == transfersByStopIndex;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 import static java.util.stream.Collectors.toMap;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
@@ -23,6 +24,17 @@ public class RaptorTransferIndex {
     this.reversedTransfers = reversedTransfers.stream().map(List::copyOf).toArray(List[]::new);
   }
 
+  /**
+   * Used by {@link LazyRaptorTransferIndex}, the arrays are not copied.
+   */
+  RaptorTransferIndex(
+    List<RaptorTransfer>[] forwardTransfers,
+    List<RaptorTransfer>[] reversedTransfers
+  ) {
+    this.forwardTransfers = forwardTransfers;
+    this.reversedTransfers = reversedTransfers;
+  }
+
   public static RaptorTransferIndex create(
     List<List<Transfer>> transfersByStopIndex,
     StreetSearchRequest request
@@ -36,20 +48,7 @@ public class RaptorTransferIndex {
     }
 
     for (int fromStop = 0; fromStop < transfersByStopIndex.size(); fromStop++) {
-      // The transfers are filtered so that there is only one possible directional transfer
-      // for a stop pair.
-      var transfers = transfersByStopIndex
-        .get(fromStop)
-        .stream()
-        .flatMap(s -> s.asRaptorTransfer(request).stream())
-        .collect(
-          toMap(
-            RaptorTransfer::stop,
-            Function.identity(),
-            (a, b) -> a.generalizedCost() < b.generalizedCost() ? a : b
-          )
-        )
-        .values();
+      var transfers = priceTransfers(transfersByStopIndex.get(fromStop), request);
 
       forwardTransfers.get(fromStop).addAll(transfers);
 
@@ -70,4 +69,26 @@ public class RaptorTransferIndex {
   public List<RaptorTransfer> getReversedTransfers(int stopIndex) {
     return reversedTransfers[stopIndex];
   }
+
+  /**
+   * Price the transfers from one stop for the given request. The transfers are filtered so that
+   * there is only one possible directional transfer for a stop pair.
+   */
+  static Collection<RaptorTransfer> priceTransfers(
+    List<Transfer> transfers,
+    StreetSearchRequest request
+  ) {
+    return transfers
+      .stream()
+      .flatMap(s -> s.asRaptorTransfer(request).stream())
+      .collect(toMap(RaptorTransfer::stop, Function.identity(), RaptorTransferIndex::cheapest))
+      .values();
+  }
+
+  /**
+   * Keep the cheapest of two transfers to the same stop, the last one if the cost is the same.
+   */
+  static RaptorTransfer cheapest(RaptorTransfer a, RaptorTransfer b) {
+    return a.generalizedCost() < b.generalizedCost() ? a : b;
+  }
 }
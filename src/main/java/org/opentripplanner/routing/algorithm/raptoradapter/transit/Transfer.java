@@ -9,6 +9,7 @@ import org.opentripplanner.raptor.api.model.RaptorTransfer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.RaptorCostConverter;
 import org.opentripplanner.routing.api.request.preference.WalkPreferences;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.WalkPathCostCalculator;
 import org.opentripplanner.street.search.request.StreetSearchRequest;
 import org.opentripplanner.street.search.state.EdgeTraverser;
 import org.opentripplanner.street.search.state.StateEditor;
@@ -21,16 +22,24 @@ public class Transfer {
 
   private final List<Edge> edges;
 
+  /**
+   * If {@code true} the walk duration and cost of this transfer can be calculated from the edge
+   * properties alone, without traversing the edges, see {@link WalkPathCostCalculator}.
+   */
+  private final boolean walkPathCostSupported;
+
   public Transfer(int toStop, List<Edge> edges) {
     this.toStop = toStop;
     this.edges = edges;
     this.distanceMeters = (int) edges.stream().mapToDouble(Edge::getDistanceMeters).sum();
+    this.walkPathCostSupported = WalkPathCostCalculator.isSupported(edges);
   }
 
   public Transfer(int toStopIndex, int distanceMeters) {
     this.toStop = toStopIndex;
     this.distanceMeters = distanceMeters;
     this.edges = null;
+    this.walkPathCostSupported = false;
   }
 
   public List<Coordinate> getCoordinates() {
@@ -72,6 +81,20 @@ public class Transfer {
       );
     }
 
+    if (walkPathCostSupported && WalkPathCostCalculator.isSupported(request)) {
+      var cost = WalkPathCostCalculator.calculate(edges, request);
+      return Optional
+        .ofNullable(cost)
+        .map(c ->
+          new DefaultRaptorTransfer(
+            this.toStop,
+            c.durationSeconds(),
+            RaptorCostConverter.toRaptorCost(c.weight()),
+            this
+          )
+        );
+    }
+
     StateEditor se = new StateEditor(edges.get(0).getFromVertex(), request);
     se.setTimeSeconds(0);
 
@@ -7,9 +7,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferService;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressStopCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedTransfersForPatterns;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
@@ -42,6 +44,8 @@ public class TransitLayer {
 
   private final RaptorRequestTransferCache transferCache;
 
+  private final AccessEgressStopCache accessEgressStopCache;
+
   private ConstrainedTransfersForPatterns constrainedTransfers;
 
   private final TransferIndexGenerator transferIndexGenerator;
@@ -61,6 +65,7 @@ public class TransitLayer {
       transitLayer.stopModel,
       transitLayer.transitDataZoneId,
       transitLayer.transferCache,
+      transitLayer.accessEgressStopCache,
       transitLayer.constrainedTransfers,
       transitLayer.transferIndexGenerator,
       transitLayer.stopBoardAlightCosts
@@ -74,6 +79,7 @@ public class TransitLayer {
     StopModel stopModel,
     ZoneId transitDataZoneId,
     RaptorRequestTransferCache transferCache,
+    AccessEgressStopCache accessEgressStopCache,
     ConstrainedTransfersForPatterns constrainedTransfers,
     TransferIndexGenerator transferIndexGenerator,
     int[] stopBoardAlightCosts
@@ -84,6 +90,7 @@ public class TransitLayer {
     this.stopModel = stopModel;
     this.transitDataZoneId = transitDataZoneId;
     this.transferCache = transferCache;
+    this.accessEgressStopCache = accessEgressStopCache;
     this.constrainedTransfers = constrainedTransfers;
     this.transferIndexGenerator = transferIndexGenerator;
     this.stopBoardAlightCosts = stopBoardAlightCosts;
@@ -133,10 +140,27 @@ public class TransitLayer {
     return transferCache.get(transfersByStopIndex, request);
   }
 
+  /**
+   * Build the transfers for the given request and add them to the cache, without waiting for the
+   * result if the cache is configured to build in the background.
+   *
+   * @return a future completed when the transfers are built.
+   */
+  public CompletableFuture<Void> initRaptorTransfersForRequest(RouteRequest request) {
+    return transferCache.build(transfersByStopIndex, request);
+  }
+
   public RaptorRequestTransferCache getTransferCache() {
     return transferCache;
   }
 
+  /**
+   * The access/egress stop cache is shared between the scheduled and the realtime transit layer.
+   */
+  public AccessEgressStopCache getAccessEgressStopCache() {
+    return accessEgressStopCache;
+  }
+
   @Nullable
   public ConstrainedTransfersForPatterns getConstrainedTransfers() {
     return constrainedTransfers;
@@ -47,6 +47,16 @@ public interface TransitTuningParameters {
       return 5;
     }
 
+    @Override
+    public boolean transferCacheAsyncBuild() {
+      return false;
+    }
+
+    @Override
+    public int accessEgressCacheMaxSize() {
+      return 0;
+    }
+
     @Override
     public List<Duration> pagingSearchWindowAdjustments() {
       return PAGING_SEARCH_WINDOW_ADJUSTMENTS;
@@ -77,6 +87,22 @@ public interface TransitTuningParameters {
    */
   int transferCacheMaxSize();
 
+  /**
+   * If {@code true}, the transfers for the {@link #transferCacheRequests()} and for new
+   * preferences are calculated in the background. Until they are ready, a request only calculates
+   * the transfers of the stops it reaches. If {@code false}, the transfers for the
+   * {@link #transferCacheRequests()} are calculated before the server starts, and the transfers
+   * for new preferences are all calculated in the first request using them.
+   */
+  boolean transferCacheAsyncBuild();
+
+  /**
+   * The maximum number of access/egress stop searches to cache. Street searches from the same
+   * location, with the same street mode and preferences are reused across requests. Set to zero to
+   * disable the cache.
+   */
+  int accessEgressCacheMaxSize();
+
   /**
    * This parameter is used to reduce the number of pages a client have to step through for a
    * journey where there are few alternatives/low frequency. This also work well to adjust for
@@ -3,18 +3,25 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
 import static org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransfersMapper.mapTransfers;
 
 import com.google.common.collect.ArrayListMultimap;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.model.Timetable;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressStopCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
@@ -90,7 +97,13 @@ public class TransitLayerMapper {
       constrainedTransfers = transferIndexGenerator.generateTransfers();
     }
 
-    var transferCache = new RaptorRequestTransferCache(tuningParameters.transferCacheMaxSize());
+    var transferCache = new RaptorRequestTransferCache(
+      tuningParameters.transferCacheMaxSize(),
+      tuningParameters.transferCacheAsyncBuild()
+    );
+    var accessEgressStopCache = new AccessEgressStopCache(
+      tuningParameters.accessEgressCacheMaxSize()
+    );
 
     LOG.info("Mapping complete.");
 
@@ -101,6 +114,7 @@ public class TransitLayerMapper {
       stopModel,
       transitModel.getTimeZone(),
       transferCache,
+      accessEgressStopCache,
       constrainedTransfers,
       transferIndexGenerator,
       createStopTransferCosts(stopModel, tuningParameters)
@@ -116,30 +130,49 @@ public class TransitLayerMapper {
   private HashMap<LocalDate, List<TripPatternForDate>> mapTripPatterns(
     Collection<TripPattern> allTripPatterns
   ) {
+    Map<LocalDate, TIntSet> serviceCodesRunningForDate = transitModel
+      .getTransitModelIndex()
+      .getServiceCodesRunningForDate();
+
     TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
-      transitModel.getTransitModelIndex().getServiceCodesRunningForDate()
+      serviceCodesRunningForDate
     );
 
-    Set<LocalDate> allServiceDates = transitModel
-      .getTransitModelIndex()
-      .getServiceCodesRunningForDate()
-      .keySet();
+    List<TripPattern> patterns = List.copyOf(allTripPatterns);
+    TIntObjectMap<TIntList> patternsByServiceCode = indexPatternsByServiceCode(patterns);
 
     List<TripPatternForDate> tripPatternForDates = Collections.synchronizedList(new ArrayList<>());
 
     // THIS CODE RUNS IN PARALLEL
-    allServiceDates
+    serviceCodesRunningForDate
+      .entrySet()
       .parallelStream()
-      .forEach(serviceDate -> {
+      .forEach(entry -> {
+        LocalDate serviceDate = entry.getKey();
+
         // Create a List to hold the values for this iteration. The results are then added
         // to the common synchronized list at the end.
         List<TripPatternForDate> values = new ArrayList<>();
 
-        // This nested loop could be quite inefficient.
-        // Maybe determine in advance which patterns are running on each service and day.
-        for (TripPattern oldTripPattern : allTripPatterns) {
+        // Only the patterns with a trip on one of the services running on the date can have a
+        // TripPatternForDate, the mapper returns null for all the others.
+        BitSet patternsRunning = new BitSet(patterns.size());
+        entry
+          .getValue()
+          .forEach(serviceCode -> {
+            TIntList patternIndexes = patternsByServiceCode.get(serviceCode);
+            if (patternIndexes != null) {
+              patternIndexes.forEach(i -> {
+                patternsRunning.set(i);
+                return true;
+              });
+            }
+            return true;
+          });
+
+        for (int i = patternsRunning.nextSetBit(0); i >= 0; i = patternsRunning.nextSetBit(i + 1)) {
           TripPatternForDate tripPatternForDate = tripPatternForDateMapper.map(
-            oldTripPattern.getScheduledTimetable(),
+            patterns.get(i).getScheduledTimetable(),
             serviceDate
           );
           if (tripPatternForDate != null) {
@@ -155,6 +188,34 @@ public class TransitLayerMapper {
     return keyByRunningPeriodDates(tripPatternForDates);
   }
 
+  /**
+   * Index the patterns by the service codes of their scheduled trips and frequency entries. The
+   * value is the indexes of the patterns in the given list, in ascending order.
+   */
+  private static TIntObjectMap<TIntList> indexPatternsByServiceCode(List<TripPattern> patterns) {
+    TIntObjectMap<TIntList> result = new TIntObjectHashMap<>();
+    for (int i = 0; i < patterns.size(); i++) {
+      Timetable timetable = patterns.get(i).getScheduledTimetable();
+      TIntSet serviceCodes = new TIntHashSet();
+      timetable.getTripTimes().forEach(it -> serviceCodes.add(it.getServiceCode()));
+      timetable
+        .getFrequencyEntries()
+        .forEach(it -> serviceCodes.add(it.tripTimes.getServiceCode()));
+
+      final int patternIndex = i;
+      serviceCodes.forEach(serviceCode -> {
+        TIntList patternIndexes = result.get(serviceCode);
+        if (patternIndexes == null) {
+          patternIndexes = new TIntArrayList();
+          result.put(serviceCode, patternIndexes);
+        }
+        patternIndexes.add(patternIndex);
+        return true;
+      });
+    }
+    return result;
+  }
+
   /**
    * Returns a map of TripPatternsForDate objects by their active dates.
    */
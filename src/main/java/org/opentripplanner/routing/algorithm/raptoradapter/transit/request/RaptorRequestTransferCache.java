@@ -3,11 +3,18 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.annotation.Nonnull;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.LazyRaptorTransferIndex;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransferIndex;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
 import org.opentripplanner.routing.api.request.RouteRequest;
@@ -21,33 +28,156 @@ import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Cache the {@link RaptorTransferIndex} for each distinct set of street preferences used by the
+ * transfers. Creating a new index requires pricing all pre-calculated transfers in the graph.
+ * <p>
+ * A request always uses transfers priced for its own preferences. If {@code asyncBuild} is
+ * disabled, a missing index is built in the request thread, so the first request with a new set of
+ * preferences waits for all transfers to be priced. Only the preferences pre-warmed at startup
+ * with {@link #build(List, RouteRequest)} are ready for the first request.
+ * <p>
+ * If {@code asyncBuild} is enabled, all indexes are built on a background thread. Until the index
+ * is ready, requests with the same preferences share a {@link LazyRaptorTransferIndex}, which only
+ * prices the transfers of the stops the searches reach. The transfers are priced exactly as in the
+ * full index, with the arithmetic walk cost calculator where the path supports it, so the result
+ * does not depend on whether the index is ready.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
 public class RaptorRequestTransferCache {
 
   private static final Logger LOG = LoggerFactory.getLogger(RaptorRequestTransferCache.class);
 
   private final LoadingCache<CacheKey, RaptorTransferIndex> transferCache;
 
+  /** The background executor is {@code null} if async build is disabled. */
+  private final ExecutorService asyncBuildExecutor;
+
+  /** The indexes currently queued or being built by the background executor. */
+  private final Map<CacheKey, CompletableFuture<Void>> pendingBuilds = new ConcurrentHashMap<>();
+
+  /** The lazily priced indexes used by requests until the pending builds are done. */
+  private final Map<CacheKey, RaptorTransferIndex> pendingIndexes = new ConcurrentHashMap<>();
+
+  /** Created the first time a lazy index is needed, see {@link #transfersToStop(List)}. */
+  private volatile LazyRaptorTransferIndex.TransfersToStop transfersToStop;
+
   public RaptorRequestTransferCache(int maximumSize) {
+    this(maximumSize, false);
+  }
+
+  public RaptorRequestTransferCache(int maximumSize, boolean asyncBuild) {
     transferCache = CacheBuilder.newBuilder().maximumSize(maximumSize).build(cacheLoader());
+    asyncBuildExecutor =
+      asyncBuild
+        ? Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setNameFormat("transfer-cache-%d").setDaemon(true).build()
+        )
+        : null;
   }
 
   public LoadingCache<CacheKey, RaptorTransferIndex> getTransferCache() {
     return transferCache;
   }
 
+  /**
+   * Return the transfers priced for the given request. If async build is enabled and the index is
+   * not built yet, the build is started in the background, and a lazily priced index is returned.
+   * If not, a missing index is built in the calling thread.
+   */
   public RaptorTransferIndex get(List<List<Transfer>> transfersByStopIndex, RouteRequest request) {
+    var key = cacheKey(transfersByStopIndex, request);
+    if (asyncBuildExecutor != null) {
+      return getOrBuildInBackground(key);
+    }
     try {
-      return transferCache.get(
-        new CacheKey(
-          transfersByStopIndex,
-          StreetSearchRequestMapper.mapToTransferRequest(request).build()
-        )
-      );
+      return transferCache.get(key);
     } catch (ExecutionException e) {
       throw new RuntimeException("Failed to get item from transfer cache", e);
     }
   }
 
+  /**
+   * Build the index for the given request in the background, if async build is enabled. If not,
+   * the index is built in the calling thread. This is used to pre-warm the cache at startup.
+   *
+   * @return a future completed when the index is built, or when the build has failed.
+   */
+  public CompletableFuture<Void> build(
+    List<List<Transfer>> transfersByStopIndex,
+    RouteRequest request
+  ) {
+    var key = cacheKey(transfersByStopIndex, request);
+    if (asyncBuildExecutor != null) {
+      return submitBuild(key);
+    }
+    transferCache.getUnchecked(key);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  private static CacheKey cacheKey(
+    List<List<Transfer>> transfersByStopIndex,
+    RouteRequest request
+  ) {
+    return new CacheKey(
+      transfersByStopIndex,
+      StreetSearchRequestMapper.mapToTransferRequest(request).build()
+    );
+  }
+
+  private RaptorTransferIndex getOrBuildInBackground(CacheKey key) {
+    var index = transferCache.getIfPresent(key);
+    if (index != null) {
+      return index;
+    }
+    // The lazy index is added before the build is submitted, and removed after the build is
+    // removed from the pending builds, so it is always removed by a build
+    index =
+      pendingIndexes.computeIfAbsent(
+        key,
+        k -> new LazyRaptorTransferIndex(transfersToStop(k.transfersByStopIndex), k.request)
+      );
+    submitBuild(key);
+    return index;
+  }
+
+  private LazyRaptorTransferIndex.TransfersToStop transfersToStop(
+    List<List<Transfer>> transfersByStopIndex
+  ) {
+    var result = transfersToStop;
+    if (result == null || !result.isFor(transfersByStopIndex)) {
+      synchronized (this) {
+        result = transfersToStop;
+        if (result == null || !result.isFor(transfersByStopIndex)) {
+          result = new LazyRaptorTransferIndex.TransfersToStop(transfersByStopIndex);
+          transfersToStop = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private CompletableFuture<Void> submitBuild(CacheKey key) {
+    return pendingBuilds.computeIfAbsent(
+      key,
+      k ->
+        CompletableFuture.runAsync(
+          () -> {
+            try {
+              transferCache.getUnchecked(k);
+            } catch (RuntimeException e) {
+              LOG.error("Failed to build transfers for request: {}", k.options, e);
+            } finally {
+              pendingBuilds.remove(k);
+              pendingIndexes.remove(k);
+            }
+          },
+          asyncBuildExecutor
+        )
+    );
+  }
+
   private CacheLoader<CacheKey, RaptorTransferIndex> cacheLoader() {
     return new CacheLoader<>() {
       @Override
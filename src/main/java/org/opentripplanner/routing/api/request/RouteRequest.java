@@ -76,6 +76,10 @@ public class RouteRequest implements Cloneable, Serializable {
 
   private boolean wheelchair = false;
 
+  private boolean includeWalkSteps = true;
+
+  private boolean includeElevationProfile = true;
+
   /* CONSTRUCTORS */
 
   /** Constructor for options; modes defaults to walk and transit */
@@ -420,4 +424,36 @@ public class RouteRequest implements Cloneable, Serializable {
   public void setNumItineraries(int numItineraries) {
     this.numItineraries = numItineraries;
   }
+
+  /**
+   * Whether the walk steps of the street legs should be created. The APIs turn this off when the
+   * client does not ask for the steps, creating them is a large part of mapping an itinerary. The
+   * steps are always created if the accessibility score is calculated, since it is based on them.
+   * <p>
+   * Default: true
+   */
+  public boolean includeWalkSteps() {
+    return (
+      includeWalkSteps || (wheelchair && preferences.itineraryFilter().useAccessibilityScore())
+    );
+  }
+
+  public void setIncludeWalkSteps(boolean includeWalkSteps) {
+    this.includeWalkSteps = includeWalkSteps;
+  }
+
+  /**
+   * Whether the elevation profile of the street legs should be created. The elevation gained and
+   * lost by an itinerary is summed from the profiles of its legs, so the APIs only turn this off
+   * when the client asks for neither the profiles nor the elevation totals.
+   * <p>
+   * Default: true
+   */
+  public boolean includeElevationProfile() {
+    return includeElevationProfile;
+  }
+
+  public void setIncludeElevationProfile(boolean includeElevationProfile) {
+    this.includeElevationProfile = includeElevationProfile;
+  }
 }
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -114,6 +115,12 @@ public class Graph implements Serializable {
   public DataOverlayParameterBindings dataOverlayParameterBindings;
   private LuceneIndex luceneIndex;
 
+  /**
+   * Incremented every time a realtime updater removes or replaces street edges. Caches of street
+   * search results use this to detect stale entries.
+   */
+  private final transient AtomicLong realtimeStreetUpdateCount = new AtomicLong();
+
   @Inject
   public Graph(
     Deduplicator deduplicator,
@@ -276,6 +283,25 @@ public class Graph implements Serializable {
     LOG.info("Index street model complete.");
   }
 
+  /**
+   * Notify the graph that street edges are removed or replaced by a realtime update.
+   * <p>
+   * Linking vehicle rental and parking places does not count as a change. The street edges are
+   * split non-destructively, so the original edges are kept, and the new link edges can only be
+   * traversed when renting or parking. The walk, bike and car paths to the stops are the same.
+   */
+  public void realtimeStreetUpdated() {
+    realtimeStreetUpdateCount.incrementAndGet();
+  }
+
+  /**
+   * The number of realtime changes applied to the street network. The value only increases, so two
+   * street searches done with the same count are done on the same street network.
+   */
+  public long realtimeStreetUpdateCount() {
+    return realtimeStreetUpdateCount.get();
+  }
+
   @Nullable
   public OpeningHoursCalendarService getOpeningHoursCalendarService() {
     return this.openingHoursCalendarService;
@@ -14,14 +14,15 @@ import org.opentripplanner.street.model.edge.Edge;
  * the permanent index and inserts into the realtime index REQUEST: Looks at both the permanent and
  * realtime indexes and does not insert into any index
  * <p>
- * NOTES ON CONCURRENCY: It is possible that an A Star search would find an edge in the
- * realTimeIndex which is then removed before the actual routing starts. This could result in a
- * NullPointerException on the from/to vertex of the Edge being routed on. This happens seldom
- * enough that we have not accounted for it.
+ * NOTES ON CONCURRENCY: The permanent index is only written to while the graph is built and read
+ * by many threads after that. The realtime index is written to by the updaters while the routing
+ * threads read from it. It is a copy-on-write index, so a query never sees a partially updated
+ * index, see {@link RealtimeEdgeSpatialIndex}.
  * <p>
- * A simple way to solve this, if needed, would be to just rerun the search in case on an exception.
- * A more complete solution would have to take into account concurrency not only for the spatial
- * index, but for the entire street graph, as an edge could be removed in the middle of routing.
+ * It is still possible that an A Star search would find an edge in the realtime index which is
+ * then removed from the graph before the actual routing starts. The linker filters out edges which
+ * are no longer reachable from the graph, but an edge could be removed in the middle of routing.
+ * Solving this would require taking concurrency into account for the entire street graph.
  * <p>
  * It is also worth noting that the entire reason we have the realTimeIndex in the first place is so
  * that the origin/destination coordinates of a search can connect directly to the edges being split
@@ -34,12 +35,12 @@ public class EdgeSpatialIndex {
 
   private final HashGridSpatialIndex<Edge> permanentEdgeIndex = new HashGridSpatialIndex<>();
 
-  private final HashGridSpatialIndex<Edge> realTimeEdgeIndex = new HashGridSpatialIndex<>();
+  private final RealtimeEdgeSpatialIndex realTimeEdgeIndex = new RealtimeEdgeSpatialIndex();
 
-  public void insert(LineString lineString, Object obj, Scope scope) {
+  public void insert(LineString lineString, Edge edge, Scope scope) {
     switch (scope) {
-      case PERMANENT -> permanentEdgeIndex.insert(lineString, obj);
-      case REALTIME -> realTimeEdgeIndex.insert(lineString, obj);
+      case PERMANENT -> permanentEdgeIndex.insert(lineString, edge);
+      case REALTIME -> realTimeEdgeIndex.insert(lineString.getEnvelopeInternal(), edge);
       case REQUEST -> throw new IllegalArgumentException();
     }
   }
@@ -47,7 +48,7 @@ public class EdgeSpatialIndex {
   public void remove(Envelope envelope, final Object item, Scope scope) {
     switch (scope) {
       case PERMANENT -> permanentEdgeIndex.remove(envelope, item);
-      case REALTIME -> realTimeEdgeIndex.remove(envelope, item);
+      case REALTIME -> realTimeEdgeIndex.remove(item);
       case REQUEST -> throw new IllegalArgumentException();
     }
   }
@@ -57,7 +58,7 @@ public class EdgeSpatialIndex {
       case PERMANENT, REALTIME -> permanentEdgeIndex.query(envelope).stream();
       case REQUEST -> Stream.concat(
         permanentEdgeIndex.query(envelope).stream(),
-        realTimeEdgeIndex.query(envelope).stream()
+        realTimeEdgeIndex.query(envelope)
       );
     };
   }
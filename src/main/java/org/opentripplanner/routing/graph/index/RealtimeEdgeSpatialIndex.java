@@ -0,0 +1,218 @@
+package org.opentripplanner.routing.graph.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.street.model.edge.Edge;
+
+/**
+ * A copy-on-write spatial index for the edges created by realtime updaters (when linking vehicle
+ * rental stations, vehicle parking and so on).
+ * <p>
+ * The updaters write to this index from the graph writer thread, while the routing threads read
+ * from it. Each write creates a new immutable snapshot, which is published atomically. Readers
+ * query the snapshot that was current when the query started, so they never see a partially
+ * updated index.
+ * <p>
+ * The snapshot is a grid of bins, like the permanent {@link HashGridSpatialIndex}. The bins are
+ * grouped in tiles, and a write only copies the bins it changes, the tiles holding them and the
+ * small map of tiles. All other bins and tiles are shared with the previous snapshot.
+ * The envelope of each edge is kept in the bins, so a query only returns the edges with an
+ * envelope intersecting the query envelope.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+final class RealtimeEdgeSpatialIndex {
+
+  /* Computation done based on geographical coordinates, the same as the permanent index. */
+  private static final double Y_BIN_SIZE = 0.005; // ~500m
+  private static final double X_BIN_SIZE = 0.0035; // ~500m at 45 degrees latitude
+
+  /** The number of bins along each side of a tile. */
+  private static final int TILE_SIZE = 16;
+
+  private static final Entry[] EMPTY_BIN = new Entry[0];
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  /**
+   * The envelopes each edge is inserted with, used to find the bins to remove it from. This is
+   * only used by the writer.
+   */
+  private final Map<Object, List<Envelope>> envelopesByItem = new IdentityHashMap<>();
+
+  synchronized void insert(Envelope envelope, Edge edge) {
+    envelopesByItem.computeIfAbsent(edge, it -> new ArrayList<>(1)).add(envelope);
+    var entry = new Entry(edge, envelope);
+    snapshot =
+      snapshot.update(
+        binKeys(envelope),
+        bin -> {
+          var newBin = Arrays.copyOf(bin, bin.length + 1);
+          newBin[bin.length] = entry;
+          return newBin;
+        },
+        envelopesByItem.size()
+      );
+  }
+
+  /**
+   * Remove all entries for the given item. The envelope is not used, the item is removed even if
+   * it was inserted with another envelope.
+   */
+  synchronized void remove(Object item) {
+    List<Envelope> envelopes = envelopesByItem.remove(item);
+    if (envelopes == null) {
+      return;
+    }
+    List<Long> keys = new ArrayList<>();
+    envelopes.forEach(it -> keys.addAll(binKeys(it)));
+    snapshot =
+      snapshot.update(
+        keys,
+        bin -> Arrays.stream(bin).filter(it -> it.edge != item).toArray(Entry[]::new),
+        envelopesByItem.size()
+      );
+  }
+
+  /**
+   * Return all edges with an envelope intersecting the given envelope.
+   */
+  Stream<Edge> query(Envelope envelope) {
+    return snapshot.query(envelope);
+  }
+
+  int size() {
+    return snapshot.size;
+  }
+
+  @Override
+  public String toString() {
+    return "RealtimeEdgeSpatialIndex{size: " + size() + "}";
+  }
+
+  private static List<Long> binKeys(Envelope envelope) {
+    long minX = xKey(envelope.getMinX());
+    long maxX = xKey(envelope.getMaxX());
+    long minY = yKey(envelope.getMinY());
+    long maxY = yKey(envelope.getMaxY());
+    List<Long> keys = new ArrayList<>();
+    for (long x = minX; x <= maxX; ++x) {
+      for (long y = minY; y <= maxY; ++y) {
+        keys.add(key(x, y));
+      }
+    }
+    return keys;
+  }
+
+  private static long xKey(double x) {
+    return (long) Math.floor(x / X_BIN_SIZE);
+  }
+
+  private static long yKey(double y) {
+    return (long) Math.floor(y / Y_BIN_SIZE);
+  }
+
+  private static long key(long x, long y) {
+    return (x << 32) | (y & 0xFFFFFFFFL);
+  }
+
+  private static long tileKey(long binKey) {
+    long x = binKey >> 32;
+    long y = (int) binKey;
+    return key(Math.floorDiv(x, TILE_SIZE), Math.floorDiv(y, TILE_SIZE));
+  }
+
+  private record Entry(Edge edge, Envelope envelope) {}
+
+  /**
+   * An immutable grid of bins, grouped in tiles. The maps and bin arrays are never modified after
+   * the snapshot is created.
+   */
+  private static final class Snapshot {
+
+    private static final Snapshot EMPTY = new Snapshot(Map.of(), 0);
+
+    private final Map<Long, Map<Long, Entry[]>> tiles;
+    private final int size;
+
+    private Snapshot(Map<Long, Map<Long, Entry[]>> tiles, int size) {
+      this.tiles = tiles;
+      this.size = size;
+    }
+
+    /**
+     * Create a new snapshot where the given bins are replaced by the result of the update. Empty
+     * bins and tiles are dropped.
+     */
+    private Snapshot update(List<Long> binKeys, UnaryOperator<Entry[]> update, int newSize) {
+      var newTiles = new HashMap<>(tiles);
+      var changedTiles = new HashMap<Long, Map<Long, Entry[]>>();
+
+      for (long binKey : binKeys) {
+        long tileKey = tileKey(binKey);
+        var tile = changedTiles.computeIfAbsent(
+          tileKey,
+          k -> new HashMap<>(tiles.getOrDefault(k, Map.of()))
+        );
+        var bin = update.apply(tile.getOrDefault(binKey, EMPTY_BIN));
+        if (bin.length == 0) {
+          tile.remove(binKey);
+        } else {
+          tile.put(binKey, bin);
+        }
+      }
+      changedTiles.forEach((tileKey, tile) -> {
+        if (tile.isEmpty()) {
+          newTiles.remove(tileKey);
+        } else {
+          newTiles.put(tileKey, Collections.unmodifiableMap(tile));
+        }
+      });
+      return new Snapshot(Collections.unmodifiableMap(newTiles), newSize);
+    }
+
+    private Stream<Edge> query(Envelope envelope) {
+      if (tiles.isEmpty()) {
+        return Stream.empty();
+      }
+      Set<Edge> result = Collections.newSetFromMap(new IdentityHashMap<>());
+      long nBins =
+        (xKey(envelope.getMaxX()) - xKey(envelope.getMinX()) + 1) *
+        (yKey(envelope.getMaxY()) - yKey(envelope.getMinY()) + 1);
+
+      // Visit the bins that exist if there are fewer of them than bins in the envelope
+      if (nBins > (long) tiles.size() * TILE_SIZE * TILE_SIZE) {
+        tiles.values().forEach(tile -> tile.values().forEach(bin -> addAll(bin, envelope, result)));
+      } else {
+        for (long binKey : binKeys(envelope)) {
+          var tile = tiles.get(tileKey(binKey));
+          if (tile != null) {
+            addAll(tile.get(binKey), envelope, result);
+          }
+        }
+      }
+      return result.stream();
+    }
+
+    private static void addAll(Entry[] bin, Envelope envelope, Set<Edge> result) {
+      if (bin == null) {
+        return;
+      }
+      for (Entry entry : bin) {
+        if (entry.envelope.intersects(envelope)) {
+          result.add(entry.edge);
+        }
+      }
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.opentripplanner.routing.linking;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -7,6 +9,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -17,6 +20,7 @@ import org.locationtech.jts.linearref.LocationIndexedLine;
 import org.locationtech.jts.operation.distance.DistanceOp;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.geometry.GeometryUtils;
+import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.index.EdgeSpatialIndex;
@@ -64,6 +68,13 @@ public class VertexLinker {
   // exit a complex area maximally via this many exit points
   private static final int MAX_AREA_LINKS = 300;
   private static final GeometryFactory GEOMETRY_FACTORY = GeometryUtils.getGeometryFactory();
+  /**
+   * The max number of request locations to cache the closest edges for, and the multiplier applied
+   * to the coordinates before they are rounded to the long values used as key. 1e7 keeps 7
+   * decimals, about 1 cm, so only locations which are practically the same share the key.
+   */
+  private static final int CLOSEST_EDGES_CACHE_SIZE = 10_000;
+  private static final double CLOSEST_EDGES_CACHE_SCALE = 1e7;
   /**
    * Spatial index of StreetEdges in the graph.
    */
@@ -74,6 +85,22 @@ public class VertexLinker {
   private final StopModel stopModel;
   private final VertexFactory vertexFactory;
 
+  /**
+   * Many requests start or end at the same location (stations, popular addresses), so the closest
+   * edges found for request-scope linking are cached. The edges are split again for each request.
+   */
+  private final Cache<ClosestEdgesKey, ClosestEdges> requestClosestEdgesCache = CacheBuilder
+    .newBuilder()
+    .maximumSize(CLOSEST_EDGES_CACHE_SIZE)
+    .build();
+
+  /**
+   * The edges split while a batch of vertices is linked with precomputed closest edges, see
+   * {@link #linkVerticesPermanently(List, boolean, Runnable)}. This is {@code null} outside such a
+   * batch.
+   */
+  private HashGridSpatialIndex<Edge> splitEdgesInBatch = null;
+
   // TODO Temporary code until we refactor WalkableAreaBuilder  (#3152)
   private boolean addExtraEdgesToAreas = true;
 
@@ -94,7 +121,54 @@ public class VertexLinker {
     LinkingDirection direction,
     BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
   ) {
-    link(vertex, traverseModes, direction, Scope.PERMANENT, edgeFunction);
+    link(vertex, traverseModes, direction, Scope.PERMANENT, edgeFunction, null);
+  }
+
+  /**
+   * Link a batch of vertices permanently. The result is exactly the same as calling
+   * {@link #linkVertexPermanently} for each link, in the given order.
+   * <p>
+   * If {@code parallel} is set, the closest edges of all vertices are first found in parallel,
+   * using the spatial index before any of the vertices are linked. The vertices are then linked
+   * one at the time, in order. Linking a vertex splits edges and changes the index, so the
+   * precomputed closest edges of a vertex are only used if no edge near the vertex is split by the
+   * vertices linked before it. If an edge near the vertex is split, the closest edges are found
+   * again, as in the sequential case. The split edges and vertices are created in the same order
+   * in both cases, so the resulting graph is identical.
+   *
+   * @param afterEachLink called after each vertex is linked, used to track progress.
+   */
+  public void linkVerticesPermanently(
+    List<PermanentLink> links,
+    boolean parallel,
+    Runnable afterEachLink
+  ) {
+    var precomputed = new PrecomputedClosestEdges[links.size()];
+
+    if (parallel) {
+      IntStream
+        .range(0, links.size())
+        .parallel()
+        .forEach(i -> precomputed[i] = precomputeClosestEdges(links.get(i)));
+      splitEdgesInBatch = new HashGridSpatialIndex<>();
+    }
+
+    try {
+      for (int i = 0; i < links.size(); ++i) {
+        var it = links.get(i);
+        link(
+          it.vertex(),
+          it.traverseModes(),
+          it.direction(),
+          Scope.PERMANENT,
+          it.edgeFunction(),
+          precomputed[i]
+        );
+        afterEachLink.run();
+      }
+    } finally {
+      splitEdgesInBatch = null;
+    }
   }
 
   public DisposableEdgeCollection linkVertexForRealTime(
@@ -103,7 +177,7 @@ public class VertexLinker {
     LinkingDirection direction,
     BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
   ) {
-    return link(vertex, traverseModes, direction, Scope.REALTIME, edgeFunction);
+    return link(vertex, traverseModes, direction, Scope.REALTIME, edgeFunction, null);
   }
 
   public DisposableEdgeCollection linkVertexForRequest(
@@ -112,7 +186,7 @@ public class VertexLinker {
     LinkingDirection direction,
     BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
   ) {
-    return link(vertex, traverseModes, direction, Scope.REQUEST, edgeFunction);
+    return link(vertex, traverseModes, direction, Scope.REQUEST, edgeFunction, null);
   }
 
   public void removeEdgeFromIndex(Edge edge, Scope scope) {
@@ -169,6 +243,7 @@ public class VertexLinker {
    * @param direction     The direction of the new edges to be created
    * @param scope         The scope of the split
    * @param edgeFunction  How the provided vertex should be linked into the street graph
+   * @param precomputed   The closest edges found before a batch of vertices was linked, may be null
    * @return A DisposableEdgeCollection with edges created by this method. It is the caller's
    * responsibility to call the dispose method on this object when the edges are no longer needed.
    */
@@ -177,7 +252,8 @@ public class VertexLinker {
     TraverseModeSet traverseModes,
     LinkingDirection direction,
     Scope scope,
-    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
+    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction,
+    PrecomputedClosestEdges precomputed
   ) {
     DisposableEdgeCollection tempEdges = (scope != Scope.PERMANENT)
       ? new DisposableEdgeCollection(graph, scope)
@@ -190,7 +266,8 @@ public class VertexLinker {
         direction,
         scope,
         INITIAL_SEARCH_RADIUS_METERS,
-        tempEdges
+        tempEdges,
+        precomputed
       );
       if (streetVertices.isEmpty()) {
         streetVertices =
@@ -200,7 +277,8 @@ public class VertexLinker {
             direction,
             scope,
             MAX_SEARCH_RADIUS_METERS,
-            tempEdges
+            tempEdges,
+            precomputed
           );
       }
 
@@ -228,17 +306,134 @@ public class VertexLinker {
     LinkingDirection direction,
     Scope scope,
     int radiusMeters,
-    DisposableEdgeCollection tempEdges
+    DisposableEdgeCollection tempEdges,
+    PrecomputedClosestEdges precomputed
   ) {
-    final double radiusDeg = SphericalDistanceLibrary.metersToDegrees(radiusMeters);
+    final double xscale = xscale(vertex);
+
+    Collection<DistanceTo<StreetEdge>> closestEdges =
+      switch (scope) {
+        case PERMANENT -> findClosestEdgesPrecomputed(
+          vertex,
+          traverseModes,
+          radiusMeters,
+          xscale,
+          precomputed
+        );
+        case REALTIME -> findClosestEdges(vertex, traverseModes, scope, radiusMeters, xscale);
+        case REQUEST -> findClosestEdgesCached(vertex, traverseModes, radiusMeters, xscale);
+      };
+
+    if (closestEdges.isEmpty()) {
+      return Set.of();
+    }
 
-    Envelope env = new Envelope(vertex.getCoordinate());
+    Set<AreaEdgeList> linkedAreas = new HashSet<>();
+    return closestEdges
+      .stream()
+      .map(ce -> link(vertex, ce.item, xscale, scope, direction, tempEdges, linkedAreas))
+      .filter(v -> v != null)
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * Find the closest edges for request-scope linking, using the cached result for the same location
+   * and modes if it exists. The cached result is not used if a realtime update removes or replaces
+   * street edges after the result was cached, or if any of the edges is removed from the graph.
+   * <p>
+   * Realtime links of vehicle rental and parking places do not drop the cached result. These split
+   * the street edges non-destructively, so the cached edges are still in the graph. If a cached
+   * edge is a realtime edge that is later removed, the closest edges are searched again.
+   */
+  private Collection<DistanceTo<StreetEdge>> findClosestEdgesCached(
+    Vertex vertex,
+    TraverseModeSet traverseModes,
+    int radiusMeters,
+    double xscale
+  ) {
+    var key = new ClosestEdgesKey(
+      Math.round(vertex.getLon() * CLOSEST_EDGES_CACHE_SCALE),
+      Math.round(vertex.getLat() * CLOSEST_EDGES_CACHE_SCALE),
+      // The mode set is mutable, so a copy is used in the key
+      traverseModes.clone(),
+      radiusMeters
+    );
+    long realtimeStreetUpdateCount = graph.realtimeStreetUpdateCount();
+    var cached = requestClosestEdgesCache.getIfPresent(key);
 
-    // Perform a simple local equirectangular projection, so distances are expressed in degrees latitude.
-    final double xscale = Math.cos(vertex.getLat() * Math.PI / 180);
+    if (
+      cached != null &&
+      cached.realtimeStreetUpdateCount == realtimeStreetUpdateCount &&
+      cached.edges.stream().allMatch(it -> it.item.getToVertex().getIncoming().contains(it.item))
+    ) {
+      return cached.edges;
+    }
 
-    // Expand more in the longitude direction than the latitude direction to account for converging meridians.
-    env.expandBy(radiusDeg / xscale, radiusDeg);
+    var closestEdges = List.copyOf(
+      findClosestEdges(vertex, traverseModes, Scope.REQUEST, radiusMeters, xscale)
+    );
+    requestClosestEdgesCache.put(key, new ClosestEdges(closestEdges, realtimeStreetUpdateCount));
+    return closestEdges;
+  }
+
+  /**
+   * Find the closest edges for permanent linking, using the closest edges found before the batch
+   * of vertices was linked if no edge near the vertex is split since then. In that case the index
+   * query near the vertex returns the same edges as before, and searching again would give the same
+   * result.
+   */
+  private Set<DistanceTo<StreetEdge>> findClosestEdgesPrecomputed(
+    Vertex vertex,
+    TraverseModeSet traverseModes,
+    int radiusMeters,
+    double xscale,
+    PrecomputedClosestEdges precomputed
+  ) {
+    if (precomputed != null && radiusMeters <= precomputed.radiusMeters) {
+      var env = searchEnvelope(vertex, precomputed.radiusMeters, xscale);
+      if (splitEdgesInBatch.query(env).isEmpty()) {
+        // A search with a smaller radius than the precomputed one was done and found nothing
+        return radiusMeters == precomputed.radiusMeters ? precomputed.closestEdges : Set.of();
+      }
+    }
+    return findClosestEdges(vertex, traverseModes, Scope.PERMANENT, radiusMeters, xscale);
+  }
+
+  /**
+   * Find the closest edges in the same way as linking a single vertex does, first searching with
+   * the initial radius and then with the max radius. This does not modify the graph or the index,
+   * and can be called from several threads as long as nothing else modifies them.
+   */
+  private PrecomputedClosestEdges precomputeClosestEdges(PermanentLink link) {
+    var vertex = link.vertex();
+    double xscale = xscale(vertex);
+
+    int radiusMeters = INITIAL_SEARCH_RADIUS_METERS;
+    var closestEdges = findClosestEdges(
+      vertex,
+      link.traverseModes(),
+      Scope.PERMANENT,
+      radiusMeters,
+      xscale
+    );
+    if (closestEdges.isEmpty()) {
+      radiusMeters = MAX_SEARCH_RADIUS_METERS;
+      closestEdges =
+        findClosestEdges(vertex, link.traverseModes(), Scope.PERMANENT, radiusMeters, xscale);
+    }
+    return new PrecomputedClosestEdges(radiusMeters, closestEdges);
+  }
+
+  private Set<DistanceTo<StreetEdge>> findClosestEdges(
+    Vertex vertex,
+    TraverseModeSet traverseModes,
+    Scope scope,
+    int radiusMeters,
+    double xscale
+  ) {
+    final double radiusDeg = SphericalDistanceLibrary.metersToDegrees(radiusMeters);
+
+    Envelope env = searchEnvelope(vertex, radiusMeters, xscale);
 
     // Perform several transformations at once on the edges returned by the index. Only consider
     // street edges traversable by at least one of the given modes and are still present in the
@@ -257,16 +452,23 @@ public class VertexLinker {
       return Set.of();
     }
 
-    Set<DistanceTo<StreetEdge>> closestEdges = getClosestEdgesPerMode(
-      traverseModes,
-      candidateEdges
-    );
-    Set<AreaEdgeList> linkedAreas = new HashSet<>();
-    return closestEdges
-      .stream()
-      .map(ce -> link(vertex, ce.item, xscale, scope, direction, tempEdges, linkedAreas))
-      .filter(v -> v != null)
-      .collect(Collectors.toSet());
+    return getClosestEdgesPerMode(traverseModes, candidateEdges);
+  }
+
+  /**
+   * Perform a simple local equirectangular projection, so distances are expressed in degrees
+   * latitude.
+   */
+  private static double xscale(Vertex vertex) {
+    return Math.cos(vertex.getLat() * Math.PI / 180);
+  }
+
+  private static Envelope searchEnvelope(Vertex vertex, int radiusMeters, double xscale) {
+    final double radiusDeg = SphericalDistanceLibrary.metersToDegrees(radiusMeters);
+    Envelope env = new Envelope(vertex.getCoordinate());
+    // Expand more in the longitude direction than the latitude direction to account for converging meridians.
+    env.expandBy(radiusDeg / xscale, radiusDeg);
+    return env;
   }
 
   /**
@@ -450,6 +652,11 @@ public class VertexLinker {
         removeEdgeFromIndex(originalEdge, scope);
         // remove original edge from the graph
         graph.removeEdge(originalEdge);
+
+        if (splitEdgesInBatch != null) {
+          // The index bins of the new edges are a subset of the bins of the original edge
+          splitEdgesInBatch.insert(geometry, originalEdge);
+        }
       }
     }
 
@@ -485,6 +692,33 @@ public class VertexLinker {
     return v;
   }
 
+  /**
+   * A vertex to link permanently, see {@link #linkVertexPermanently}.
+   */
+  public record PermanentLink(
+    Vertex vertex,
+    TraverseModeSet traverseModes,
+    LinkingDirection direction,
+    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
+  ) {}
+
+  private record PrecomputedClosestEdges(
+    int radiusMeters,
+    Set<DistanceTo<StreetEdge>> closestEdges
+  ) {}
+
+  private record ClosestEdgesKey(
+    long lon,
+    long lat,
+    TraverseModeSet traverseModes,
+    int radiusMeters
+  ) {}
+
+  private record ClosestEdges(
+    List<DistanceTo<StreetEdge>> edges,
+    long realtimeStreetUpdateCount
+  ) {}
+
   private static class DistanceTo<T> {
 
     T item;
@@ -12,9 +12,15 @@ import org.opentripplanner.street.search.state.State;
 public final class BusinessAreaBorder implements RentalRestrictionExtension {
 
   private final String network;
+  private final long networkBit;
 
   public BusinessAreaBorder(String network) {
     this.network = network;
+    this.networkBit = RentalNetworkBits.bit(network);
+  }
+
+  long networkBit() {
+    return networkBit;
   }
 
   @Override
@@ -24,7 +30,7 @@ public final class BusinessAreaBorder implements RentalRestrictionExtension {
       // there will be another PR fixing this
       return state.isRentingVehicle();
     } else {
-      return state.isRentingVehicle() && network.equals(state.getVehicleRentalNetwork());
+      return state.isRentingVehicle() && isSameNetwork(state);
     }
   }
 
@@ -57,4 +63,11 @@ public final class BusinessAreaBorder implements RentalRestrictionExtension {
   public List<String> networks() {
     return List.of(network);
   }
+
+  private boolean isSameNetwork(State state) {
+    if (networkBit == RentalNetworkBits.OVERFLOW) {
+      return network.equals(state.getVehicleRentalNetwork());
+    }
+    return (state.vehicleRentalNetworkBit() & networkBit) != 0;
+  }
 }
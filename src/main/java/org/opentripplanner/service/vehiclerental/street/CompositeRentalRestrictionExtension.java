@@ -6,16 +6,29 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.opentripplanner.street.model.RentalRestrictionExtension;
 import org.opentripplanner.street.search.state.State;
 
 /**
  * Combines multiple restrictions into one.
+ * <p>
+ * The geofencing zones and business area borders are compiled into bitmasks of the networks they
+ * restrict (see {@link RentalNetworkBits}) when the composite is created, so checking a state is a
+ * few bit tests instead of a call to each extension. A new composite is created each time an
+ * extension is added or removed, so the bitmasks are rebuilt when the geofencing zones are
+ * updated.
  */
 public final class CompositeRentalRestrictionExtension implements RentalRestrictionExtension {
 
   private final RentalRestrictionExtension[] extensions;
 
+  /**
+   * The extensions compiled into bitmasks, or {@code null} if some of them can not be compiled. In
+   * that case each extension is checked.
+   */
+  private final CompiledRestrictions compiled;
+
   private CompositeRentalRestrictionExtension(RentalRestrictionExtension... extensions) {
     for (var ext : extensions) {
       if (ext instanceof CompositeRentalRestrictionExtension) {
@@ -26,10 +39,14 @@ public final class CompositeRentalRestrictionExtension implements RentalRestrict
     }
     var set = new HashSet<>(Arrays.asList(extensions));
     this.extensions = set.toArray(RentalRestrictionExtension[]::new);
+    this.compiled = CompiledRestrictions.compile(this.extensions);
   }
 
   @Override
   public boolean traversalBanned(State state) {
+    if (compiled != null) {
+      return compiled.traversalBanned(state);
+    }
     for (var ext : extensions) {
       if (ext.traversalBanned(state)) {
         return true;
@@ -40,6 +57,9 @@ public final class CompositeRentalRestrictionExtension implements RentalRestrict
 
   @Override
   public boolean dropOffBanned(State state) {
+    if (compiled != null) {
+      return compiled.dropOffBanned(state);
+    }
     for (var ext : extensions) {
       if (ext.dropOffBanned(state)) {
         return true;
@@ -108,4 +128,84 @@ public final class CompositeRentalRestrictionExtension implements RentalRestrict
   public List<String> networks() {
     return Arrays.stream(extensions).flatMap(e -> e.networks().stream()).toList();
   }
+
+  /**
+   * The restrictions of geofencing zones and business area borders, as bitmasks of the networks
+   * they restrict.
+   *
+   * @param traversalBannedNetworks          Networks which may not traverse the vertex.
+   * @param dropOffBannedNetworks            Networks which may not drop off a vehicle.
+   * @param traversalBannedForUnknownNetwork If traversal is banned when the network is not known
+   *                                         (yet), in a reverse search.
+   * @param hasBusinessAreaBorder            In a reverse search a business area border bans
+   *                                         traversal for all networks.
+   */
+  private record CompiledRestrictions(
+    long traversalBannedNetworks,
+    long dropOffBannedNetworks,
+    boolean traversalBannedForUnknownNetwork,
+    boolean hasBusinessAreaBorder
+  ) {
+    /**
+     * Compile the extensions into bitmasks. This is only possible if all of them are geofencing
+     * zones or business area borders, and each network has a bit of its own.
+     *
+     * @return the compiled restrictions, or {@code null} if they can not be compiled.
+     */
+    @Nullable
+    static CompiledRestrictions compile(RentalRestrictionExtension[] extensions) {
+      long traversalBannedNetworks = 0;
+      long dropOffBannedNetworks = 0;
+      boolean traversalBannedForUnknownNetwork = false;
+      boolean hasBusinessAreaBorder = false;
+
+      for (var ext : extensions) {
+        if (ext instanceof GeofencingZoneExtension zoneExt) {
+          if (zoneExt.networkBit() == RentalNetworkBits.OVERFLOW) {
+            return null;
+          }
+          if (zoneExt.zone().traversalBanned()) {
+            traversalBannedNetworks |= zoneExt.networkBit();
+            traversalBannedForUnknownNetwork = true;
+          }
+          if (zoneExt.zone().dropOffBanned()) {
+            dropOffBannedNetworks |= zoneExt.networkBit();
+          }
+        } else if (ext instanceof BusinessAreaBorder border) {
+          if (border.networkBit() == RentalNetworkBits.OVERFLOW) {
+            return null;
+          }
+          traversalBannedNetworks |= border.networkBit();
+          hasBusinessAreaBorder = true;
+        } else {
+          return null;
+        }
+      }
+      return new CompiledRestrictions(
+        traversalBannedNetworks,
+        dropOffBannedNetworks,
+        traversalBannedForUnknownNetwork,
+        hasBusinessAreaBorder
+      );
+    }
+
+    boolean traversalBanned(State state) {
+      if (!state.isRentingVehicle()) {
+        return false;
+      }
+      if (hasBusinessAreaBorder && state.getRequest().arriveBy()) {
+        return true;
+      }
+      if (state.unknownRentalNetwork()) {
+        return traversalBannedForUnknownNetwork;
+      }
+      return (traversalBannedNetworks & state.vehicleRentalNetworkBit()) != 0;
+    }
+
+    boolean dropOffBanned(State state) {
+      return (
+        state.isRentingVehicle() && (dropOffBannedNetworks & state.vehicleRentalNetworkBit()) != 0
+      );
+    }
+  }
 }
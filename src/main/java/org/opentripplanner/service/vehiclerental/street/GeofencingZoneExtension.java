@@ -17,25 +17,25 @@ import org.opentripplanner.street.search.state.State;
 public final class GeofencingZoneExtension implements RentalRestrictionExtension {
 
   private final GeofencingZone zone;
+  private final long networkBit;
 
   public GeofencingZoneExtension(GeofencingZone zone) {
     this.zone = zone;
+    this.networkBit = RentalNetworkBits.bit(zone.id().getFeedId());
   }
 
   public GeofencingZone zone() {
     return zone;
   }
 
+  long networkBit() {
+    return networkBit;
+  }
+
   @Override
   public boolean traversalBanned(State state) {
     if (state.isRentingVehicle()) {
-      return (
-        zone.traversalBanned() &&
-        (
-          state.unknownRentalNetwork() ||
-          zone.id().getFeedId().equals(state.getVehicleRentalNetwork())
-        )
-      );
+      return zone.traversalBanned() && (state.unknownRentalNetwork() || isSameNetwork(state));
     } else {
       return false;
     }
@@ -44,9 +44,7 @@ public final class GeofencingZoneExtension implements RentalRestrictionExtension
   @Override
   public boolean dropOffBanned(State state) {
     if (state.isRentingVehicle()) {
-      return (
-        zone.dropOffBanned() && zone.id().getFeedId().equals(state.getVehicleRentalNetwork())
-      );
+      return zone.dropOffBanned() && isSameNetwork(state);
     } else {
       return false;
     }
@@ -88,6 +86,13 @@ public final class GeofencingZoneExtension implements RentalRestrictionExtension
     }
   }
 
+  private boolean isSameNetwork(State state) {
+    if (networkBit == RentalNetworkBits.OVERFLOW) {
+      return zone.id().getFeedId().equals(state.getVehicleRentalNetwork());
+    }
+    return (state.vehicleRentalNetworkBit() & networkBit) != 0;
+  }
+
   @Override
   public String toString() {
     return zone.id().toString();
@@ -0,0 +1,51 @@
+package org.opentripplanner.service.vehiclerental.street;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each vehicle rental network a bit in a {@code long}, so a set of networks can be stored
+ * as a bitmask and a network can be checked against it with a single bit test. This is used by
+ * the rental restrictions on the street vertices, which are checked for every traversal in a
+ * rental search.
+ * <p>
+ * The first 63 networks get a bit each. All networks after that share the {@link #OVERFLOW} bit,
+ * and the network id must be compared to tell them apart. There is rarely more than a handful of
+ * networks in a deployment.
+ * <p>
+ * The bits are assigned when a network is first seen, and never change.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public final class RentalNetworkBits {
+
+  /** The bit shared by all networks which do not get a bit of their own. */
+  public static final long OVERFLOW = 1L << 63;
+
+  /** The bit of an unknown ({@code null}) network. */
+  public static final long NONE = 0L;
+
+  private static final Map<String, Long> BITS = new ConcurrentHashMap<>();
+  private static int nextIndex = 0;
+
+  /** Utility class, private constructor to prevent instantiation */
+  private RentalNetworkBits() {}
+
+  /**
+   * Return the bit of the given network, or {@link #NONE} if the network is {@code null}.
+   */
+  public static long bit(String network) {
+    if (network == null) {
+      return NONE;
+    }
+    Long bit = BITS.get(network);
+    return bit != null ? bit : register(network);
+  }
+
+  private static synchronized long register(String network) {
+    return BITS.computeIfAbsent(
+      network,
+      it -> nextIndex < Long.SIZE - 1 ? 1L << nextIndex++ : OVERFLOW
+    );
+  }
+}
@@ -9,7 +9,9 @@ import org.geotools.util.WeakCollectionCleaner;
 import org.opentripplanner.framework.application.ApplicationShutdownSupport;
 import org.opentripplanner.framework.application.OtpAppException;
 import org.opentripplanner.graph_builder.GraphBuilder;
+import org.opentripplanner.graph_builder.StreetGraphCache;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.graph_builder.profile.BuildProfile;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.graph.SerializedGraphObject;
 import org.opentripplanner.standalone.config.CommandLineParameters;
@@ -118,6 +120,8 @@ public class OTPMain {
     loadApp.validateConfigAndDataSources();
 
     ConstructApplication app;
+    StreetGraphCache streetGraphCache = loadApp.streetGraphCache();
+    boolean streetGraphCached = false;
 
     /* Load graph from disk if one is not present from build. */
     if (cli.doLoadGraph() || cli.doLoadStreetGraph()) {
@@ -125,6 +129,10 @@ public class OTPMain {
       app = loadApp.appConstruction(obj);
       config.updateConfigFromSerializedGraph(obj.buildConfig, obj.routerConfig);
       graphAvailable = true;
+    } else if (streetGraphCache != null && streetGraphCache.exists()) {
+      SerializedGraphObject obj = streetGraphCache.load();
+      streetGraphCached = obj != null;
+      app = streetGraphCached ? loadApp.appConstruction(obj) : loadApp.appConstruction();
     } else {
       app = loadApp.appConstruction();
     }
@@ -136,8 +144,36 @@ public class OTPMain {
         app.graphOutputDataSource()
       );
 
-      GraphBuilder graphBuilder = app.createGraphBuilder();
+      DataImportIssueSummary issueSummary = app.dataImportIssueSummary();
+      BuildProfile streetBuildProfile = null;
+      GraphBuilder graphBuilder;
+      if (streetGraphCache != null) {
+        // Build the street graph and save it in the cache before adding the transit data, unless
+        // it is loaded from the cache already
+        if (!streetGraphCached) {
+          GraphBuilder streetGraphBuilder = app.createStreetGraphBuilder();
+          streetGraphBuilder.run();
+          issueSummary = streetGraphBuilder.issueSummary();
+          streetBuildProfile = streetGraphBuilder.buildProfile();
+          streetGraphCache.save(
+            new SerializedGraphObject(
+              app.graph(),
+              app.transitModel(),
+              app.worldEnvelopeRepository(),
+              config.buildConfig(),
+              config.routerConfig(),
+              issueSummary
+            )
+          );
+        }
+        graphBuilder = app.createTransitGraphBuilder();
+      } else {
+        graphBuilder = app.createGraphBuilder();
+      }
       if (graphBuilder != null) {
+        if (streetBuildProfile != null) {
+          graphBuilder.buildProfile().prepend(streetBuildProfile);
+        }
         graphBuilder.run();
         graphAvailable = true;
       } else {
@@ -151,7 +187,7 @@ public class OTPMain {
         app.worldEnvelopeRepository(),
         config.buildConfig(),
         config.routerConfig(),
-        DataImportIssueSummary.combine(graphBuilder.issueSummary(), app.dataImportIssueSummary())
+        DataImportIssueSummary.combine(graphBuilder.issueSummary(), issueSummary)
       )
         .save(app.graphOutputDataSource());
       // Log size info for the deduplicator
@@ -5,6 +5,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V1
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_0;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_1;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.MissingNode;
@@ -110,6 +111,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final boolean areaVisibility;
 
+  public final boolean cacheStreetGraph;
+
   public final boolean platformEntriesLinking;
 
   public final boolean matchBusRoutesToStreets;
@@ -176,6 +179,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public boolean multiThreadElevationCalculations;
 
+  public final boolean multiThreadStreetLinking;
+
   public LocalDate transitServiceStart;
 
   public LocalDate transitServiceEnd;
@@ -209,6 +214,23 @@ public class BuildConfig implements OtpDataStoreConfig {
             """
         )
         .asBoolean(false);
+    cacheStreetGraph =
+      root
+        .of("cacheStreetGraph")
+        .since(V2_5)
+        .summary("Reuse the street graph of the previous build if the street inputs are unchanged.")
+        .description(
+          """
+            When this is enabled a full build (`--build`) saves the street graph in the cache
+            directory (`--cache`), together with a hash of the OSM and DEM files and of the build
+            config parameters used to build it. The next build loads the saved street graph if
+            none of these have changed, instead of building it again. Only the transit data is
+            then imported, and the stops are linked to the loaded streets, the same way as when
+            using `--loadStreet`. This is useful if the transit data is updated much more often
+            than the OSM data.
+            """
+        )
+        .asBoolean(false);
     configVersion =
       root
         .of("configVersion")
@@ -320,6 +342,20 @@ all of the elevation values in the street edges.
         """
         )
         .asBoolean(false);
+    multiThreadStreetLinking =
+      root
+        .of("multiThreadStreetLinking")
+        .since(V2_5)
+        .summary("Configuring multi-threading when linking stops and entrances to the streets.")
+        .description(
+          """
+          If multi-threading is activated, the closest street edges of all stops, entrances and
+          vehicle parking entrances are found in parallel before they are linked. The edges are
+          still split one at the time and in the same order, so the resulting graph is the same as
+          when a single thread is used.
+          """
+        )
+        .asBoolean(false);
     osmCacheDataInMem =
       root
         .of("osmCacheDataInMem")
@@ -452,11 +488,11 @@ Use an empty string to make it unbounded.
 When set to true, the elevation module will create a file cache for calculated elevation data.
 Subsequent graph builds can reuse the data in this file.
   
-After building the graph, a file called `cached_elevations.obj` will be written to the cache
+After building the graph, a file called `cached_elevations.bin` will be written to the cache
 directory. By default, this file is not written during graph builds. There is also a graph build
 parameter called `readCachedElevations` which is set to `true` by default.
 
-In graph builds, the elevation module will attempt to read the `cached_elevations.obj` file from
+In graph builds, the elevation module will attempt to read the `cached_elevations.bin` file from
 the cache directory. The cache directory defaults to `/var/otp/cache`, but this can be overridden
 via the CLI argument `--cache <directory>`. For the same graph build for multiple Northeast US
 states, the time it took with using this pre-downloaded and precalculated data became roughly 9
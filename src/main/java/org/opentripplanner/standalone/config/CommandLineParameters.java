@@ -86,7 +86,7 @@ public class CommandLineParameters {
   @Parameter(
     names = { "--cache" },
     validateWith = ReadWriteDirectory.class,
-    description = "The directory under which to cache OSM and NED tiles."
+    description = "The directory under which to cache NED tiles and the street graph."
   )
   public File cacheDirectory = new File(DEFAULT_CACHE_PATH);
 
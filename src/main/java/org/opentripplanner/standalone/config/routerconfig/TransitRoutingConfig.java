@@ -5,6 +5,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_1;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
 
 import java.time.Duration;
 import java.util.List;
@@ -27,6 +28,8 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int iterationDepartureStepInSeconds;
   private final int searchThreadPoolSize;
   private final int transferCacheMaxSize;
+  private final boolean transferCacheAsyncBuild;
+  private final int accessEgressCacheMaxSize;
   private final List<RouteRequest> transferCacheRequests;
   private final List<Duration> pagingSearchWindowAdjustments;
 
@@ -151,6 +154,44 @@ Use values in a range from `0` to `100 000`. **All key/value pairs are required
         )
         .asInt(25);
 
+    this.transferCacheAsyncBuild =
+      c
+        .of("transferCacheAsyncBuild")
+        .since(V2_5)
+        .summary("Calculate the cached transfers in the background.")
+        .description(
+          """
+The stop-to-stop transfers are calculated and cached for each distinct set of transfer preferences 
+(walk speed, reluctance and so on). This is slow for large graphs. By default, the transfers for 
+the requests listed in `transferCacheRequests` are calculated at startup, before the server is 
+ready. The transfers for any other preferences are calculated as part of the first request using 
+them, and that request waits for all transfers in the graph to be calculated. 
+
+If enabled, all transfers are calculated in the background, and the server starts without waiting 
+for them. Until the transfers for its preferences are ready, a request only calculates the 
+transfers from the stops it reaches. These are calculated in the same way, so the result is the 
+same.
+"""
+        )
+        .asBoolean(false);
+
+    this.accessEgressCacheMaxSize =
+      c
+        .of("accessEgressCacheMaxSize")
+        .since(V2_5)
+        .summary("The maximum number of access/egress stop searches to cache.")
+        .description(
+          """
+The access and egress street searches are cached and shared between requests starting or ending at 
+the same location (rounded to about 1 meter), with the same street mode and street preferences. 
+Only the stops found and the street paths to them are cached, the durations and costs are 
+calculated for each request. Only plain walk, bike and car searches are cached. Linking vehicle 
+rental and parking places in realtime does not clear the cache, it is only cleared if a realtime 
+update removes or replaces street edges. Set to `0` to disable the cache.
+"""
+        )
+        .asInt(0);
+
     this.transferCacheRequests =
       c
         .of("transferCacheRequests")
@@ -243,6 +284,16 @@ for more info."
     return transferCacheMaxSize;
   }
 
+  @Override
+  public boolean transferCacheAsyncBuild() {
+    return transferCacheAsyncBuild;
+  }
+
+  @Override
+  public int accessEgressCacheMaxSize() {
+    return accessEgressCacheMaxSize;
+  }
+
   @Override
   public List<RouteRequest> transferCacheRequests() {
     return transferCacheRequests;
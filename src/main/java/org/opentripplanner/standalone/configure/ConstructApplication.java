@@ -1,6 +1,13 @@
 package org.opentripplanner.standalone.configure;
 
+import static org.opentripplanner.datastore.api.FileType.DEM;
+import static org.opentripplanner.datastore.api.FileType.GTFS;
+import static org.opentripplanner.datastore.api.FileType.NETEX;
+import static org.opentripplanner.datastore.api.FileType.OSM;
+
 import jakarta.ws.rs.core.Application;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.ext.geocoder.LuceneIndex;
@@ -10,6 +17,7 @@ import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.logging.ProgressTracker;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
+import org.opentripplanner.graph_builder.StreetGraphCache;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
@@ -123,6 +131,41 @@ public class ConstructApplication {
     );
   }
 
+  /**
+   * Create a graph builder for the street stage of a full build, building a street graph from
+   * the OSM and DEM data only. See {@link StreetGraphCache}.
+   */
+  public GraphBuilder createStreetGraphBuilder() {
+    LOG.info("Wiring up and configuring street graph builder task.");
+    return GraphBuilder.create(
+      buildConfig(),
+      graphBuilderDataSources.withOnly(EnumSet.of(OSM, DEM)),
+      graph(),
+      transitModel(),
+      factory.worldEnvelopeRepository(),
+      false,
+      true
+    );
+  }
+
+  /**
+   * Create a graph builder for the transit stage of a full build, adding the transit data to a
+   * street graph built by the {@link #createStreetGraphBuilder()} or loaded from the
+   * {@link StreetGraphCache}.
+   */
+  public GraphBuilder createTransitGraphBuilder() {
+    LOG.info("Wiring up and configuring transit graph builder task.");
+    return GraphBuilder.create(
+      buildConfig(),
+      graphBuilderDataSources.withOnly(EnumSet.of(GTFS, NETEX)),
+      graph(),
+      transitModel(),
+      factory.worldEnvelopeRepository(),
+      true,
+      false
+    );
+  }
+
   /**
    * The output data source to use for saving the serialized graph.
    * <p>
@@ -220,14 +263,21 @@ public class ConstructApplication {
 
       LOG.info(progress.startMessage());
 
-      transferCacheRequests.forEach(request -> {
-        transitModel.getTransitLayer().getRaptorTransfersForRequest(request);
-
-        //noinspection Convert2MethodRef
-        progress.step(s -> LOG.info(s));
-      });
-
-      LOG.info(progress.completeMessage());
+      var transitLayer = transitModel.getTransitLayer();
+
+      // If the cache is configured to build in the background, the futures complete after this
+      // method returns. The progress is counted when each build is done.
+      var builds = transferCacheRequests
+        .stream()
+        .map(request ->
+          transitLayer
+            .initRaptorTransfersForRequest(request)
+            //noinspection Convert2MethodRef
+            .thenRun(() -> progress.step(s -> LOG.info(s)))
+        )
+        .toArray(CompletableFuture[]::new);
+
+      CompletableFuture.allOf(builds).thenRun(() -> LOG.info(progress.completeMessage()));
     }
   }
 
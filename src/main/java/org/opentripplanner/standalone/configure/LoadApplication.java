@@ -1,7 +1,9 @@
 package org.opentripplanner.standalone.configure;
 
+import javax.annotation.Nullable;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
+import org.opentripplanner.graph_builder.StreetGraphCache;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.SerializedGraphObject;
@@ -73,6 +75,18 @@ public class LoadApplication {
     return factory.graphBuilderDataSources();
   }
 
+  /**
+   * Return the street graph cache for a full build, or {@code null} if the cache is not enabled or
+   * not used by the command.
+   */
+  @Nullable
+  public StreetGraphCache streetGraphCache() {
+    if (!cli.doBuildStreet() || !cli.doBuildTransit()) {
+      return null;
+    }
+    return StreetGraphCache.of(config().buildConfig(), graphBuilderDataSources());
+  }
+
   public ConfigModel config() {
     return factory.configModel();
   }
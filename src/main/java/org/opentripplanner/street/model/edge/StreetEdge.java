@@ -613,6 +613,10 @@ public class StreetEdge
     this.costExtension = costExtension;
   }
 
+  boolean hasCostExtension() {
+    return costExtension != null;
+  }
+
   /**
    * This method is not thread-safe!
    */
@@ -162,6 +162,10 @@ public abstract class StreetTransitEntityLink<T extends Vertex>
 
   protected abstract int getStreetToStopTime();
 
+  Accessibility wheelchairAccessibility() {
+    return wheelchairAccessibility;
+  }
+
   protected T getTransitEntityVertex() {
     return transitEntityVertex;
   }
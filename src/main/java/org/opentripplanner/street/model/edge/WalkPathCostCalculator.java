@@ -0,0 +1,180 @@
+package org.opentripplanner.street.model.edge;
+
+import java.util.List;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.EdgeTraverser;
+import org.opentripplanner.transit.model.basic.Accessibility;
+
+/**
+ * Calculate the duration and cost of walking a predetermined path using plain arithmetic on the
+ * edge properties (distance, effective walk/safety distance, stairs, slope, accessibility and turn
+ * angles), without creating a {@link org.opentripplanner.street.search.state.State} for each
+ * edge.
+ * <p>
+ * This is used to price the pre-calculated stop-to-stop transfers. The transfer paths are found
+ * during graph build, while the duration and cost depend on the walk preferences in the request.
+ * All transfers in the graph are priced every time a new combination of preferences is seen, so
+ * this needs to be fast.
+ * <p>
+ * The result is identical to traversing the path with the {@link EdgeTraverser}, but only a subset
+ * of paths and requests are supported, see {@link #isSupported(List)} and
+ * {@link #isSupported(StreetSearchRequest)}. The calculation mirrors the walk case of
+ * {@link StreetEdge#traverse} and {@link StreetTransitEntityLink#traverse}, changes to these must
+ * be reflected here.
+ */
+public final class WalkPathCostCalculator {
+
+  /** Utility class, private constructor to prevent instantiation */
+  private WalkPathCostCalculator() {}
+
+  /**
+   * Return {@code true} if the path only contains edges where the walk cost does not depend on the
+   * search state: street edges without walk turn restrictions, no-thru-traffic or cost extensions,
+   * and street-to-transit links.
+   */
+  public static boolean isSupported(List<Edge> path) {
+    if (path == null || path.isEmpty()) {
+      return false;
+    }
+    Edge backEdge = null;
+    for (Edge edge : path) {
+      if (edge instanceof StreetEdge streetEdge) {
+        if (!isSupported(streetEdge)) {
+          return false;
+        }
+      } else if (edge instanceof StreetTransitEntityLink<?> link) {
+        if (
+          backEdge instanceof StreetTransitEntityLink<?> backLink &&
+          backLink.getTransitEntityVertex() == link.getTransitEntityVertex()
+        ) {
+          return false;
+        }
+      } else {
+        return false;
+      }
+      backEdge = edge;
+    }
+    return true;
+  }
+
+  /**
+   * Return {@code true} if the request is a depart-after walk request. Other modes can switch
+   * between walking and riding along the path, and is not supported.
+   */
+  public static boolean isSupported(StreetSearchRequest request) {
+    return request.mode() == StreetMode.WALK && !request.arriveBy();
+  }
+
+  /**
+   * Calculate the walk duration and cost for the given path. Both the path and the request must be
+   * supported, see {@link #isSupported(List)} and {@link #isSupported(StreetSearchRequest)}.
+   *
+   * @return the duration and cost, or {@code null} if the path can not be traversed with the given
+   * request - this happens if the request only allow wheelchair accessible stops.
+   */
+  public static WalkPathCost calculate(List<Edge> path, StreetSearchRequest request) {
+    var preferences = request.preferences();
+    boolean wheelchair = request.wheelchair();
+    int durationSeconds = 0;
+    double weight = 0;
+    Edge backEdge = null;
+
+    for (Edge edge : path) {
+      if (edge instanceof StreetEdge streetEdge) {
+        double speed = streetEdge.calculateSpeed(preferences, TraverseMode.WALK, false);
+        double edgeWeight;
+        double edgeTime = streetEdge.getEffectiveWalkDistance() / speed;
+
+        if (wheelchair) {
+          edgeWeight =
+            (streetEdge.getEffectiveBikeDistance() / speed) *
+            StreetEdgeReluctanceCalculator.computeWheelchairReluctance(
+              preferences,
+              streetEdge.getMaxSlope(),
+              streetEdge.isWheelchairAccessible(),
+              streetEdge.isStairs()
+            );
+        } else {
+          double safetyFactor = preferences.walk().safetyFactor();
+          edgeWeight =
+            streetEdge.getEffectiveWalkSafetyDistance() *
+            safetyFactor +
+            streetEdge.getEffectiveWalkDistance() *
+            (1 - safetyFactor);
+          edgeWeight /= speed;
+          edgeWeight *=
+            StreetEdgeReluctanceCalculator.computeReluctance(
+              preferences,
+              TraverseMode.WALK,
+              false,
+              streetEdge.isStairs()
+            );
+        }
+
+        int edgeDuration = (int) Math.ceil(edgeTime);
+
+        if (backEdge instanceof StreetEdge backStreetEdge) {
+          double turnDuration = 0;
+          if (streetEdge.getFromVertex() instanceof IntersectionVertex intersection) {
+            double backSpeed = backStreetEdge.calculateSpeed(preferences, TraverseMode.WALK, false);
+            turnDuration =
+              request
+                .intersectionTraversalCalculator()
+                .computeTraversalDuration(
+                  intersection,
+                  backStreetEdge,
+                  streetEdge,
+                  TraverseMode.WALK,
+                  (float) backSpeed,
+                  (float) speed
+                );
+          }
+          edgeDuration += (int) Math.ceil(turnDuration);
+          edgeWeight += preferences.street().turnReluctance() * turnDuration;
+        }
+
+        durationSeconds += edgeDuration;
+        weight += edgeWeight;
+      } else if (edge instanceof StreetTransitEntityLink<?> link) {
+        if (wheelchair) {
+          var accessibility = preferences.wheelchair();
+          var linkAccessibility = link.wheelchairAccessibility();
+          if (
+            accessibility.stop().onlyConsiderAccessible() &&
+            linkAccessibility != Accessibility.POSSIBLE
+          ) {
+            return null;
+          } else if (linkAccessibility == Accessibility.NO_INFORMATION) {
+            weight += accessibility.stop().unknownCost();
+          } else if (linkAccessibility == Accessibility.NOT_POSSIBLE) {
+            weight += accessibility.stop().inaccessibleCost();
+          }
+        }
+        int streetToStopTime = link.getStreetToStopTime();
+        durationSeconds += streetToStopTime;
+        weight += StreetTransitEntityLink.STEL_TRAVERSE_COST + streetToStopTime;
+      } else {
+        throw new IllegalArgumentException("Unsupported edge: " + edge);
+      }
+      backEdge = edge;
+    }
+    return new WalkPathCost(durationSeconds, weight);
+  }
+
+  private static boolean isSupported(StreetEdge edge) {
+    return (
+      edge.canTraverse(TraverseMode.WALK) &&
+      !edge.isWalkNoThruTraffic() &&
+      !edge.hasCostExtension() &&
+      edge.getTurnRestrictions().stream().noneMatch(it -> it.modes.contains(TraverseMode.WALK))
+    );
+  }
+
+  /**
+   * The duration in seconds and the generalized cost (weight) of walking a path.
+   */
+  public record WalkPathCost(int durationSeconds, double weight) {}
+}
@@ -0,0 +1,201 @@
+package org.opentripplanner.street.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.opentripplanner.astar.AStarWorkspace;
+import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.spi.DominanceFunction;
+import org.opentripplanner.astar.spi.SkipEdgeStrategy;
+import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+
+/**
+ * Run a batch of independent one-to-many street searches, one for each origin, with the same
+ * request. This is used to find the edges used by the paths between the entrances of walkable
+ * areas, and is useful for travel time matrices and stop clustering, where many searches are done
+ * from nearby origins.
+ * <p>
+ * The {@link RouteRequest} is mapped to a {@link StreetSearchRequest} and the
+ * {@link IntersectionTraversalCalculator} is created once for the batch. Each search gets its own
+ * copy of the street search request, since the initial states of a search are prepared by setting
+ * the calculator and the data overlay on their request. The searches run in parallel (using a
+ * parallel stream) over the shared graph, the graph is only read.
+ * <p>
+ * The priority queue and the state map of a search are borrowed from a pool of
+ * {@link AStarWorkspace}s and returned when the result of the search is mapped, so each thread
+ * reuses them instead of allocating new ones for each origin. Because of this the shortest path
+ * trees are not returned, they are only valid inside the function given to
+ * {@link #search(Function)}.
+ * <p>
+ * The origins must be linked to the graph before the search is run. Linking temporary vertices
+ * (see {@link TemporaryVerticesContainer}) modifies the graph and is not done here.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE, but the searches it performs run in parallel.
+ *
+ * @param <K> the key used to identify each origin in the result.
+ */
+public class StreetSearchBatch<K> {
+
+  private final RouteRequest request;
+  private final StreetRequest streetRequest;
+  private final Map<K, Set<Vertex>> origins = new LinkedHashMap<>();
+  private final Queue<AStarWorkspace<State, Edge, Vertex>> workspaces =
+    new ConcurrentLinkedQueue<>();
+  private boolean arriveBy = false;
+  private boolean parallel = true;
+  private Supplier<SkipEdgeStrategy<State, Edge>> skipEdgeStrategy = () -> null;
+  private Supplier<DominanceFunction<State>> dominanceFunction =
+    DominanceFunctions.MinimumWeight::new;
+  private DataOverlayContext dataOverlayContext;
+
+  private StreetSearchBatch(RouteRequest request, StreetRequest streetRequest) {
+    this.request = request;
+    this.streetRequest = streetRequest;
+  }
+
+  public static <K> StreetSearchBatch<K> of(RouteRequest request, StreetRequest streetRequest) {
+    return new StreetSearchBatch<>(request, streetRequest);
+  }
+
+  /**
+   * Add an origin to the batch. If {@code arriveBy} is set, the vertices are used as the
+   * destination of a reverse search.
+   */
+  public StreetSearchBatch<K> addOrigin(K key, Set<Vertex> vertices) {
+    origins.put(key, vertices);
+    return this;
+  }
+
+  public StreetSearchBatch<K> addOrigin(K key, Vertex vertex) {
+    return addOrigin(key, Collections.singleton(vertex));
+  }
+
+  public StreetSearchBatch<K> setArriveBy(boolean arriveBy) {
+    this.arriveBy = arriveBy;
+    return this;
+  }
+
+  /**
+   * Run the searches in the calling thread, one at the time. The default is to run in parallel.
+   */
+  public StreetSearchBatch<K> setParallel(boolean parallel) {
+    this.parallel = parallel;
+    return this;
+  }
+
+  /**
+   * Skip edge strategies are often stateful, so a new instance is created for each search.
+   */
+  public StreetSearchBatch<K> setSkipEdgeStrategy(
+    Supplier<SkipEdgeStrategy<State, Edge>> skipEdgeStrategy
+  ) {
+    this.skipEdgeStrategy = skipEdgeStrategy;
+    return this;
+  }
+
+  /**
+   * The default is {@link DominanceFunctions.MinimumWeight}.
+   */
+  public StreetSearchBatch<K> setDominanceFunction(
+    Supplier<DominanceFunction<State>> dominanceFunction
+  ) {
+    this.dominanceFunction = dominanceFunction;
+    return this;
+  }
+
+  public StreetSearchBatch<K> setDataOverlayContext(DataOverlayContext dataOverlayContext) {
+    this.dataOverlayContext = dataOverlayContext;
+    return this;
+  }
+
+  /**
+   * Run all searches and map the shortest path tree of each origin to a result, returned in the
+   * same order as the origins were added. The tree must not be kept by the mapper, it is only valid
+   * until the next search in the same thread.
+   */
+  public <R> Map<K, R> search(Function<ShortestPathTree<State, Edge, Vertex>, R> mapper) {
+    var streetSearchRequest = StreetSearchRequestMapper
+      .map(request)
+      .withMode(streetRequest.mode())
+      .withArriveBy(arriveBy)
+      .build();
+
+    var streetPreferences = request.preferences().street();
+    var intersectionTraversalCalculator = IntersectionTraversalCalculator.create(
+      streetPreferences.intersectionTraversalModel(),
+      streetPreferences.drivingDirection()
+    );
+
+    List<K> keys = new ArrayList<>(origins.keySet());
+    var indexes = IntStream.range(0, keys.size());
+
+    // The results are collected into an array to keep the order of the origins
+    Object[] results = new Object[keys.size()];
+    (parallel ? indexes.parallel() : indexes).forEach(i ->
+        results[i] =
+          search(
+            origins.get(keys.get(i)),
+            streetSearchRequest,
+            intersectionTraversalCalculator,
+            mapper
+          )
+      );
+
+    Map<K, R> result = new LinkedHashMap<>();
+    for (int i = 0; i < keys.size(); ++i) {
+      @SuppressWarnings("unchecked")
+      R value = (R) results[i];
+      result.put(keys.get(i), value);
+    }
+    return result;
+  }
+
+  private <R> R search(
+    Set<Vertex> vertices,
+    StreetSearchRequest streetSearchRequest,
+    IntersectionTraversalCalculator intersectionTraversalCalculator,
+    Function<ShortestPathTree<State, Edge, Vertex>, R> mapper
+  ) {
+    // The builder sets the calculator and the data overlay on the request of the initial states,
+    // so each search needs its own copy of the request.
+    var searchRequest = StreetSearchRequest.copyOf(streetSearchRequest).build();
+    var workspace = Optional.ofNullable(workspaces.poll()).orElseGet(AStarWorkspace::new);
+    try {
+      var tree = StreetSearchBuilder
+        .of()
+        .setSkipEdgeStrategy(skipEdgeStrategy.get())
+        .setDominanceFunction(dominanceFunction.get())
+        .setRequest(request)
+        .setArriveBy(arriveBy)
+        .setStreetRequest(streetRequest)
+        .setFrom(arriveBy ? null : vertices)
+        .setTo(arriveBy ? vertices : null)
+        .setIntersectionTraversalCalculator(intersectionTraversalCalculator)
+        .setDataOverlayContext(dataOverlayContext)
+        .setInitialStates(State.getInitialStates(vertices, searchRequest))
+        .setWorkspace(workspace)
+        .getShortestPathTree();
+      return mapper.apply(tree);
+    } finally {
+      workspaces.add(workspace);
+    }
+  }
+}
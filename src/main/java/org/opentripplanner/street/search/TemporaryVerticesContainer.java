@@ -36,6 +36,7 @@ public class TemporaryVerticesContainer implements AutoCloseable {
   private final Set<DisposableEdgeCollection> tempEdges;
   private final Set<Vertex> fromVertices;
   private final Set<Vertex> toVertices;
+  private final long realtimeStreetUpdateCount;
 
   public TemporaryVerticesContainer(
     Graph graph,
@@ -46,6 +47,7 @@ public class TemporaryVerticesContainer implements AutoCloseable {
     this.tempEdges = new HashSet<>();
 
     this.graph = graph;
+    this.realtimeStreetUpdateCount = graph.realtimeStreetUpdateCount();
     StreetIndex index = this.graph.getStreetIndex();
     this.opt = opt;
     fromVertices = index.getVerticesForLocation(opt.from(), accessMode, false, tempEdges);
@@ -80,6 +82,14 @@ public class TemporaryVerticesContainer implements AutoCloseable {
     return toVertices;
   }
 
+  /**
+   * The {@link Graph#realtimeStreetUpdateCount()} at the time the from and to locations were
+   * linked into the street graph.
+   */
+  public long realtimeStreetUpdateCount() {
+    return realtimeStreetUpdateCount;
+  }
+
   /* PRIVATE METHODS */
 
   private void checkIfVerticesFound() {
@@ -5,16 +5,68 @@ import org.opentripplanner.street.model.edge.StreetEdge;
 import org.opentripplanner.street.model.vertex.IntersectionVertex;
 import org.opentripplanner.street.search.TraverseMode;
 
-public class SimpleIntersectionTraversalCalculator
+/**
+ * The turn class (straight, safe turn, or turn across traffic) of each turn angle is precomputed
+ * in the constructor, the turn angle itself is still calculated for each pair of edges. The class
+ * is final, so the constructor does not call methods overridden by a partially constructed
+ * subclass.
+ */
+public final class SimpleIntersectionTraversalCalculator
   extends AbstractIntersectionTraversalCalculator
   implements Serializable {
 
+  private static final int STRAIGHT = 0;
+  private static final int SAFE_TURN = 1;
+  private static final int TURN_ACROSS_TRAFFIC = 2;
+
+  /**
+   * The turn angle returned by {@link #calculateTurnAngle(StreetEdge, StreetEdge)} is in the range
+   * [0, 720), the in and out angles are in the range [-180, 180] and 360 is added to the out angle
+   * if it is smaller than the in angle.
+   */
+  private static final int TURN_ANGLE_TABLE_SIZE = 720;
+
   private final DrivingDirection drivingDirection;
 
   private final double acrossTrafficBicycleTurnMultiplier = getSafeBicycleTurnModifier() * 3;
 
+  /**
+   * The turn class (straight, safe turn, or turn across traffic) for each turn angle. The class
+   * only depends on the angle and the driving direction, so it is computed once here instead of
+   * for every pair of edges traversed in the search.
+   */
+  private final byte[] turnClassByAngle;
+
+  /** The driving duration at an intersection with traffic lights, indexed by turn class. */
+  private final double[] drivingDurationAtLight;
+
+  /** The driving duration at an intersection without traffic lights, indexed by turn class. */
+  private final double[] drivingDurationNoLight;
+
+  /** The multiplier applied to the cycling turn duration, indexed by turn class. */
+  private final double[] cyclingTurnMultiplier;
+
   public SimpleIntersectionTraversalCalculator(DrivingDirection drivingDirection) {
     this.drivingDirection = drivingDirection;
+
+    this.turnClassByAngle = new byte[TURN_ANGLE_TABLE_SIZE];
+    for (int angle = 0; angle < TURN_ANGLE_TABLE_SIZE; ++angle) {
+      turnClassByAngle[angle] = (byte) computeTurnClass(angle);
+    }
+    this.drivingDurationAtLight =
+      new double[] {
+        getExpectedStraightAtLightTimeSec(),
+        getExpectedRightAtLightTimeSec(),
+        getExpectedLeftAtLightTimeSec()
+      };
+    this.drivingDurationNoLight =
+      new double[] {
+        getExpectedStraightNoLightTimeSec(),
+        getExpectedRightNoLightTimeSec(),
+        getExpectedLeftNoLightTimeSec()
+      };
+    this.cyclingTurnMultiplier =
+      new double[] { 1.0, getSafeBicycleTurnModifier(), getAcrossTrafficBicycleTurnMultiplier() };
   }
 
   @Override
@@ -152,16 +204,9 @@ public class SimpleIntersectionTraversalCalculator
     StreetEdge from,
     StreetEdge to
   ) {
-    int turnAngle = calculateTurnAngle(from, to);
     if (v.hasDrivingTrafficLight()) {
       // Use constants that apply when there are stop lights.
-      if (isSafeTurn(turnAngle)) {
-        return getExpectedRightAtLightTimeSec();
-      } else if (isTurnAcrossTraffic(turnAngle)) {
-        return getExpectedLeftAtLightTimeSec();
-      } else {
-        return getExpectedStraightAtLightTimeSec();
-      }
+      return drivingDurationAtLight[turnClass(from, to)];
     } else {
       //assume highway vertex
       if (from.getCarSpeed() > 25 && to.getCarSpeed() > 25) {
@@ -169,13 +214,7 @@ public class SimpleIntersectionTraversalCalculator
       }
 
       // Use constants that apply when no stop lights.
-      if (isSafeTurn(turnAngle)) {
-        return getExpectedRightNoLightTimeSec();
-      } else if (isTurnAcrossTraffic(turnAngle)) {
-        return getExpectedLeftNoLightTimeSec();
-      } else {
-        return getExpectedStraightNoLightTimeSec();
-      }
+      return drivingDurationNoLight[turnClass(from, to)];
     }
   }
 
@@ -185,17 +224,12 @@ public class SimpleIntersectionTraversalCalculator
     StreetEdge to,
     float toSpeed
   ) {
-    var turnAngle = calculateTurnAngle(from, to);
     final var baseDuration = computeNonDrivingTraversalDuration(from, to, toSpeed);
 
     if (v.hasCyclingTrafficLight()) {
       return baseDuration + getExpectedWalkingAndCyclingTrafficLightTimeSec();
-    } else if (isTurnAcrossTraffic(turnAngle)) {
-      return baseDuration * getAcrossTrafficBicycleTurnMultiplier();
-    } else if (isSafeTurn(turnAngle)) {
-      return baseDuration * getSafeBicycleTurnModifier();
     } else {
-      return baseDuration;
+      return baseDuration * cyclingTurnMultiplier[turnClass(from, to)];
     }
   }
 
@@ -211,6 +245,27 @@ public class SimpleIntersectionTraversalCalculator
       : baseDuration;
   }
 
+  /**
+   * Look up the turn class for the turn from one edge to the next, falling back to computing it if
+   * the angle is outside the table.
+   */
+  private int turnClass(StreetEdge from, StreetEdge to) {
+    int turnAngle = calculateTurnAngle(from, to);
+    return turnAngle >= 0 && turnAngle < TURN_ANGLE_TABLE_SIZE
+      ? turnClassByAngle[turnAngle]
+      : computeTurnClass(turnAngle);
+  }
+
+  private int computeTurnClass(int turnAngle) {
+    if (isSafeTurn(turnAngle)) {
+      return SAFE_TURN;
+    } else if (isTurnAcrossTraffic(turnAngle)) {
+      return TURN_ACROSS_TRAFFIC;
+    } else {
+      return STRAIGHT;
+    }
+  }
+
   private boolean isLeftTurn(int turnAngle) {
     return turnAngle >= getMinLeftTurnAngle() && turnAngle < getMaxLeftTurnAngle();
   }
@@ -14,6 +14,7 @@ import org.opentripplanner.astar.spi.AStarState;
 import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.service.vehiclerental.street.RentalNetworkBits;
 import org.opentripplanner.service.vehiclerental.street.VehicleRentalEdge;
 import org.opentripplanner.service.vehiclerental.street.VehicleRentalPlaceVertex;
 import org.opentripplanner.street.model.RentalFormFactor;
@@ -321,6 +322,13 @@ public class State implements AStarState<State, Edge, Vertex>, Cloneable {
     return stateData.vehicleRentalNetwork;
   }
 
+  /**
+   * The bit of the rental network, see {@link RentalNetworkBits}.
+   */
+  public long vehicleRentalNetworkBit() {
+    return stateData.vehicleRentalNetworkBit;
+  }
+
   /**
    * Whether we know or don't know the rental network (yet).
    * <p>
@@ -47,6 +47,13 @@ public class StateData implements Cloneable {
 
   public String vehicleRentalNetwork;
 
+  /**
+   * The bit of the {@link #vehicleRentalNetwork}, used to check the rental restrictions of the
+   * vertices without comparing the network ids. Set together with the network by the
+   * {@link StateEditor}.
+   */
+  public long vehicleRentalNetworkBit;
+
   public RentalFormFactor rentalVehicleFormFactor;
 
   /** This boolean is set to true upon transition from a normal street to a no-through-traffic street. */
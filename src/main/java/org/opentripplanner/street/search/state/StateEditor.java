@@ -3,6 +3,7 @@ package org.opentripplanner.street.search.state;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.opentripplanner.service.vehiclerental.street.RentalNetworkBits;
 import org.opentripplanner.street.model.RentalFormFactor;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.vertex.Vertex;
@@ -257,13 +258,13 @@ public class StateEditor {
     if (reverse) {
       child.stateData.vehicleRentalState = VehicleRentalState.BEFORE_RENTING;
       child.stateData.currentMode = TraverseMode.WALK;
-      child.stateData.vehicleRentalNetwork = null;
+      setVehicleRentalNetwork(null);
       child.stateData.rentalVehicleFormFactor = null;
       child.stateData.insideNoRentalDropOffArea = false;
     } else {
       child.stateData.vehicleRentalState = VehicleRentalState.RENTING_FLOATING;
       child.stateData.currentMode = formFactor.traverseMode;
-      child.stateData.vehicleRentalNetwork = network;
+      setVehicleRentalNetwork(network);
       child.stateData.rentalVehicleFormFactor = formFactor;
     }
   }
@@ -279,14 +280,14 @@ public class StateEditor {
       child.stateData.mayKeepRentedVehicleAtDestination = mayKeep;
       child.stateData.vehicleRentalState = VehicleRentalState.BEFORE_RENTING;
       child.stateData.currentMode = TraverseMode.WALK;
-      child.stateData.vehicleRentalNetwork = null;
+      setVehicleRentalNetwork(null);
       child.stateData.rentalVehicleFormFactor = null;
       child.stateData.backWalkingBike = false;
     } else {
       child.stateData.mayKeepRentedVehicleAtDestination = mayKeep;
       child.stateData.vehicleRentalState = VehicleRentalState.RENTING_FROM_STATION;
       child.stateData.currentMode = formFactor.traverseMode;
-      child.stateData.vehicleRentalNetwork = network;
+      setVehicleRentalNetwork(network);
       child.stateData.rentalVehicleFormFactor = formFactor;
     }
   }
@@ -301,13 +302,13 @@ public class StateEditor {
       child.stateData.mayKeepRentedVehicleAtDestination = false;
       child.stateData.vehicleRentalState = VehicleRentalState.RENTING_FROM_STATION;
       child.stateData.currentMode = formFactor.traverseMode;
-      child.stateData.vehicleRentalNetwork = network;
+      setVehicleRentalNetwork(network);
       child.stateData.rentalVehicleFormFactor = formFactor;
     } else {
       child.stateData.mayKeepRentedVehicleAtDestination = false;
       child.stateData.vehicleRentalState = VehicleRentalState.HAVE_RENTED;
       child.stateData.currentMode = TraverseMode.WALK;
-      child.stateData.vehicleRentalNetwork = null;
+      setVehicleRentalNetwork(null);
       child.stateData.rentalVehicleFormFactor = null;
       child.stateData.backWalkingBike = false;
     }
@@ -320,18 +321,23 @@ public class StateEditor {
       child.stateData.vehicleRentalState = VehicleRentalState.RENTING_FLOATING;
       child.stateData.currentMode =
         formFactor != null ? formFactor.traverseMode : TraverseMode.BICYCLE;
-      child.stateData.vehicleRentalNetwork = network;
+      setVehicleRentalNetwork(network);
       child.stateData.rentalVehicleFormFactor = formFactor;
     } else {
       child.stateData.mayKeepRentedVehicleAtDestination = false;
       child.stateData.vehicleRentalState = VehicleRentalState.HAVE_RENTED;
       child.stateData.currentMode = TraverseMode.WALK;
-      child.stateData.vehicleRentalNetwork = null;
+      setVehicleRentalNetwork(null);
       child.stateData.rentalVehicleFormFactor = null;
       child.stateData.backWalkingBike = false;
     }
   }
 
+  private void setVehicleRentalNetwork(String network) {
+    child.stateData.vehicleRentalNetwork = network;
+    child.stateData.vehicleRentalNetworkBit = RentalNetworkBits.bit(network);
+  }
+
   /**
    * This has two effects: marks the vehicle as parked, and switches the current mode. Marking the
    * vehicle parked is important for allowing co-dominance of walking and driving states.
@@ -52,13 +52,14 @@ public class TripTimes implements Serializable, Comparable<TripTimes> {
    */
   private final String[][] headsignVias;
   /**
-   * The time in seconds after midnight at which the vehicle should arrive at each stop according to
-   * the original schedule.
+   * The time in seconds after the first arrival at which the vehicle should arrive at each stop
+   * according to the original schedule. Add {@link #timeShift} to get the time after midnight. The
+   * array is deduplicated, so all trips with the same running and dwell times share one instance.
    */
   private final int[] scheduledArrivalTimes;
   /**
-   * The time in seconds after midnight at which the vehicle should leave each stop according to the
-   * original schedule.
+   * The time in seconds after the first arrival at which the vehicle should leave each stop
+   * according to the original schedule. Shared in the same way as the scheduled arrival times.
    */
   private final int[] scheduledDepartureTimes;
   private final List<BookingInfo> dropOffBookingInfos;
@@ -0,0 +1,85 @@
+package org.opentripplanner.graph_builder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.service.worldenvelope.internal.DefaultWorldEnvelopeRepository;
+import org.opentripplanner.standalone.config.BuildConfig;
+import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.transit.service.TransitModel;
+
+class StreetGraphCacheTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void miss() {
+    var subject = new StreetGraphCache(tempDir, "a");
+
+    assertFalse(subject.exists());
+  }
+
+  @Test
+  void hit() {
+    var subject = new StreetGraphCache(tempDir, "a");
+    subject.save(streetGraph());
+
+    var cached = new StreetGraphCache(tempDir, "a");
+    assertTrue(cached.exists());
+    assertNotNull(cached.load());
+  }
+
+  @Test
+  void staleKey() {
+    var stale = new StreetGraphCache(tempDir, "a");
+    stale.save(streetGraph());
+
+    var subject = new StreetGraphCache(tempDir, "b");
+    assertFalse(subject.exists());
+
+    // Saving the street graph for the new key deletes the stale street graph
+    subject.save(streetGraph());
+    assertTrue(subject.exists());
+    assertFalse(stale.exists());
+  }
+
+  @Test
+  void corruptFile() throws IOException {
+    var subject = new StreetGraphCache(tempDir, "a");
+    subject.save(streetGraph());
+    File[] files = tempDir.listFiles();
+    assertNotNull(files);
+    // Truncate the street graph, the file header is valid, but the graph can not be read
+    for (File file : files) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+    }
+
+    assertTrue(subject.exists());
+    assertNull(subject.load());
+    assertFalse(subject.exists());
+  }
+
+  private static SerializedGraphObject streetGraph() {
+    return new SerializedGraphObject(
+      new Graph(),
+      new TransitModel(),
+      new DefaultWorldEnvelopeRepository(),
+      BuildConfig.DEFAULT,
+      RouterConfig.DEFAULT,
+      DataImportIssueSummary.empty()
+    );
+  }
+}
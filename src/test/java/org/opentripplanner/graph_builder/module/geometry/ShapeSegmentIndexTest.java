@@ -0,0 +1,55 @@
+package org.opentripplanner.graph_builder.module.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+
+class ShapeSegmentIndexTest {
+
+  private static final double MAX_DISTANCE = 150;
+
+  /** A shape going east for about 5 km and then back west, 100 m further north. */
+  private final ShapeSegmentIndex subject = new ShapeSegmentIndex(
+    GeometryUtils.makeLineString(10.0, 59.0, 10.09, 59.0, 10.09, 59.0009, 10.0, 59.0009)
+  );
+
+  @Test
+  void findCandidates() {
+    var coord = new Coordinate(10.045, 59.0002);
+
+    assertEquals(List.of(0, 2), indexes(subject.findCandidates(coord, MAX_DISTANCE, 0)));
+    assertEquals(List.of(2), indexes(subject.findCandidates(coord, MAX_DISTANCE, 1)));
+
+    var farAway = new Coordinate(10.2, 59.0);
+    assertEquals(List.of(), indexes(subject.findCandidates(farAway, MAX_DISTANCE, 0)));
+  }
+
+  @Test
+  void candidatesIncludeAllSegmentsWithinDistance() {
+    for (double x = 9.99; x < 10.1; x += 0.0005) {
+      for (double y = 58.998; y < 59.003; y += 0.0001) {
+        var coord = new Coordinate(x, y);
+        var candidates = subject.findCandidates(coord, MAX_DISTANCE, 0);
+        for (IndexedLineSegment segment : subject.segments(0)) {
+          if (segment.distance(coord) < MAX_DISTANCE) {
+            assertTrue(candidates.contains(segment), segment.index + " missing at " + coord);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void segments() {
+    assertEquals(List.of(0, 1, 2), indexes(subject.segments(-1)));
+    assertEquals(List.of(1, 2), indexes(subject.segments(1)));
+  }
+
+  private static List<Integer> indexes(List<IndexedLineSegment> segments) {
+    return segments.stream().map(it -> it.index).toList();
+  }
+}
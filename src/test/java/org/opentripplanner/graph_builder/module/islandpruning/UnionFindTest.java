@@ -0,0 +1,40 @@
+package org.opentripplanner.graph_builder.module.islandpruning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class UnionFindTest {
+
+  @Test
+  void union() {
+    var subject = new UnionFind(6);
+    subject.union(0, 1);
+    subject.union(4, 2);
+    subject.union(2, 1);
+
+    assertEquals(subject.find(0), subject.find(4));
+    assertEquals(subject.find(1), subject.find(2));
+    assertNotEquals(subject.find(0), subject.find(3));
+    assertNotEquals(subject.find(3), subject.find(5));
+    assertEquals(5, subject.find(5));
+  }
+
+  @Test
+  void parallelUnion() {
+    int size = 100_000;
+    var subject = new UnionFind(size);
+
+    // Join all even and all odd elements, in parallel
+    IntStream.range(2, size).parallel().forEach(i -> subject.union(i, i - 2));
+
+    int even = subject.find(0);
+    int odd = subject.find(1);
+    assertNotEquals(even, odd);
+    for (int i = 0; i < size; ++i) {
+      assertEquals(i % 2 == 0 ? even : odd, subject.find(i));
+    }
+  }
+}
@@ -10,6 +10,8 @@ import static org.opentripplanner.graph_builder.module.linking.TestGraph.link;
 import java.io.File;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -18,6 +20,8 @@ import org.opentripplanner.TestOtpModel;
 import org.opentripplanner.framework.geometry.GeometryUtils;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.framework.i18n.NonLocalizedString;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
+import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.graph_builder.module.osm.OsmModule;
 import org.opentripplanner.openstreetmap.OsmProvider;
 import org.opentripplanner.routing.graph.Graph;
@@ -147,6 +151,36 @@ public class LinkingTest {
     }
   }
 
+  /**
+   * Test that linking the stops in parallel gives exactly the same graph as linking them one at
+   * the time. Some of the extra stops are very close to the grid stops, so they split the same
+   * edges.
+   */
+  @Test
+  public void testParallelLinkingSameAsSequential() {
+    TestOtpModel model1 = buildGraphNoTransit();
+    Graph g1 = model1.graph();
+    addExtraStops(g1);
+    addRegularStopGrid(g1);
+    new StreetLinkerModule(g1, model1.transitModel(), DataImportIssueStore.NOOP, false, false)
+      .buildGraph();
+
+    TestOtpModel model2 = buildGraphNoTransit();
+    Graph g2 = model2.graph();
+    addExtraStops(g2);
+    addRegularStopGrid(g2);
+    new StreetLinkerModule(g2, model2.transitModel(), DataImportIssueStore.NOOP, false, true)
+      .buildGraph();
+
+    assertEquals(g1.countVertices(), g2.countVertices());
+    assertEquals(g1.countEdges(), g2.countEdges());
+
+    for (TransitStopVertex ts : g1.getVerticesOfType(TransitStopVertex.class)) {
+      TransitStopVertex other = (TransitStopVertex) g2.getVertex(ts.getLabel());
+      assertEquals(linkedVertexLabels(ts), linkedVertexLabels(other), "Stop " + ts);
+    }
+  }
+
   /** Build a graph in Columbus, OH with no transit */
   public static TestOtpModel buildGraphNoTransit() {
     var deduplicator = new Deduplicator();
@@ -163,6 +197,13 @@ public class LinkingTest {
     return new TestOtpModel(gg, transitModel);
   }
 
+  private static Set<String> linkedVertexLabels(TransitStopVertex tsv) {
+    return outgoingStls(tsv)
+      .stream()
+      .map(e -> e.getToVertex().getLabelString())
+      .collect(Collectors.toSet());
+  }
+
   private static List<StreetTransitStopLink> outgoingStls(final TransitStopVertex tsv) {
     return tsv
       .getOutgoing()
@@ -0,0 +1,62 @@
+package org.opentripplanner.graph_builder.module.ned;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+
+class CachedElevationsTest {
+
+  private static final LineString GEOMETRY_A = GeometryUtils.makeLineString(
+    10.0,
+    59.0,
+    10.001,
+    59.001
+  );
+  private static final LineString GEOMETRY_B = GeometryUtils.makeLineString(
+    10.0,
+    59.0,
+    10.002,
+    59.0
+  );
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void writeAndRead() throws IOException {
+    double[] samples = { 0, 12.5, 10, 13, 17.3, 11 };
+    var profile = new PackedCoordinateSequence.Double(samples, 2, 0);
+    var cache = new CachedElevations();
+    cache.put(GEOMETRY_A, profile);
+
+    var file = new File(tempDir, "cached_elevations.bin");
+    cache.write(file);
+    var loaded = CachedElevations.read(file);
+
+    assertEquals(1, loaded.size());
+    assertNull(loaded.get(GEOMETRY_B));
+
+    var result = loaded.get(GEOMETRY_A);
+    assertEquals(3, result.size());
+    assertArrayEquals(profile.toCoordinateArray(), result.toCoordinateArray());
+    assertEquals(new Coordinate(17.3, 11), result.getCoordinate(2));
+  }
+
+  @Test
+  void readUnknownFormat() throws IOException {
+    var file = new File(tempDir, "cached_elevations.obj");
+    Files.writeString(file.toPath(), "Not an elevation cache");
+    assertThrows(IOException.class, () -> CachedElevations.read(file));
+  }
+}
@@ -0,0 +1,63 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class OsmNodeCoordinateStoreTest {
+
+  private static final double LAT = 0.000000001 * (100L * 523750447);
+  private static final double LON = 0.000000001 * (100L * 168431974);
+
+  @Test
+  void canStore() {
+    assertTrue(OsmNodeCoordinateStore.canStore(LAT, LON));
+    assertFalse(OsmNodeCoordinateStore.canStore(52.37504471234, LON));
+  }
+
+  @Test
+  void addAndGet() {
+    try (var store = new OsmNodeCoordinateStore()) {
+      // Add the nodes out of order, with a duplicate
+      for (long id : new long[] { 7, 3, 10_000, 5, 3, -100 }) {
+        store.add(id, LAT + id * 1e-7, LON);
+      }
+      assertEquals(5, store.size());
+
+      var node = store.get(10_000);
+      assertEquals(10_000, node.getId());
+      assertEquals(LAT + 10_000 * 1e-7, node.lat, 1e-9);
+      assertEquals(LON, node.lon);
+      assertTrue(node.getTags().isEmpty());
+
+      assertTrue(store.contains(-100));
+      assertNull(store.get(4));
+
+      // Nodes can be added after the first lookup
+      store.add(4, LAT, LON);
+      assertEquals(6, store.size());
+      assertEquals(LAT, store.get(4).lat);
+      assertEquals(7, store.get(7).getId());
+    }
+  }
+
+  @Test
+  void manyNodes() {
+    try (var store = new OsmNodeCoordinateStore()) {
+      int n = 20_000;
+      for (int i = 0; i < n; ++i) {
+        // Add the nodes in a scrambled order
+        long id = (i * 7919L) % n;
+        store.add(id, LAT, LON);
+      }
+      assertEquals(n, store.size());
+      for (long id = 0; id < n; ++id) {
+        assertEquals(id, store.get(id).getId());
+      }
+      assertNull(store.get(n));
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package org.opentripplanner.graph_builder.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class BuildProfileTest {
+
+  @Test
+  void profile() {
+    var subject = new BuildProfile();
+    var runs = new int[1];
+
+    subject.profile("ModuleA", () -> runs[0]++, () -> Map.of("vertices", 7L));
+
+    assertEquals(1, runs[0]);
+    assertEquals(1, subject.modules().size());
+    var module = subject.modules().get(0);
+    assertEquals("ModuleA", module.module());
+    assertTrue(module.wallTimeMillis() >= 0);
+    assertTrue(module.heapUsedBefore() > 0);
+    assertEquals(Map.of("vertices", 7L), module.counts());
+  }
+
+  @Test
+  void prepend() {
+    var street = new BuildProfile();
+    street.profile("StreetModule", () -> {}, Map::of);
+    var transit = new BuildProfile();
+    transit.profile("TransitModule", () -> {}, Map::of);
+
+    transit.prepend(street);
+
+    assertEquals(
+      List.of("StreetModule", "TransitModule"),
+      transit.modules().stream().map(ModuleProfile::module).toList()
+    );
+  }
+}
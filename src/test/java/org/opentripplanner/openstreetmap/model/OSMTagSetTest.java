@@ -0,0 +1,54 @@
+package org.opentripplanner.openstreetmap.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class OSMTagSetTest {
+
+  @Test
+  void build() {
+    var tags = OSMTagSet.of().add("highway", "primary").add("Name", "A").add("name", "B").build();
+
+    assertEquals(2, tags.size());
+    assertEquals("primary", tags.get("highway"));
+    assertEquals("B", tags.get("name"));
+    assertTrue(tags.containsKey("name"));
+    assertFalse(tags.containsKey("Name"));
+    assertNull(tags.get("ref"));
+    assertEquals(Map.of("highway", "primary", "name", "B"), tags.asMap());
+    assertEquals("{highway=primary, name=B}", tags.toString());
+  }
+
+  @Test
+  void empty() {
+    assertSame(OSMTagSet.EMPTY, OSMTagSet.of().build());
+    assertTrue(OSMTagSet.EMPTY.isEmpty());
+    assertTrue(OSMTagSet.EMPTY.asMap().isEmpty());
+  }
+
+  @Test
+  void with() {
+    var tags = OSMTagSet.EMPTY.with("name", "A").with("highway", "primary").with("ref", "1");
+
+    assertEquals(Map.of("highway", "primary", "name", "A", "ref", "1"), tags.asMap());
+    assertSame(tags, tags.with("name", "A"));
+    assertEquals("B", tags.with("name", "B").get("name"));
+    assertEquals("A", tags.get("name"));
+  }
+
+  @Test
+  void tagSetsAreInterned() {
+    var a = OSMTagSet.of().add("highway", "primary").add("name", "A").build();
+    var b = OSMTagSet.of().add("name", "A").add("highway", "primary").build();
+    var c = OSMTagSet.EMPTY.with("highway", "primary").with("name", "A");
+
+    assertSame(a, b);
+    assertSame(a, c);
+  }
+}
@@ -2,6 +2,7 @@ package org.opentripplanner.openstreetmap.wayproperty;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.openstreetmap.wayproperty.MixinPropertiesBuilder.ofBicycleSafety;
 import static org.opentripplanner.openstreetmap.wayproperty.WayPropertiesBuilder.withModes;
@@ -46,6 +47,17 @@ class WayPropertySetTest {
       assertEquals(expected, wps.getDataForWay(cycleway).bicycleSafety());
     }
 
+    @Test
+    void sameTagsSameResult() {
+      WayPropertySet wps = wps();
+      var result = wps.getDataForWay(WayTestData.carTunnel());
+      assertSame(result, wps.getDataForWay(WayTestData.carTunnel()));
+
+      // The cached results must not be used after the rules are changed
+      wps.setProperties("highway=primary;tunnel=yes", withModes(NONE));
+      assertEquals(NONE, wps.getDataForWay(WayTestData.carTunnel()).getPermission());
+    }
+
     @Nonnull
     private static WayPropertySet wps() {
       var wps = new WayPropertySet();
@@ -0,0 +1,219 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.framework.i18n.NonLocalizedString;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.graphfinder.NearbyStop;
+import org.opentripplanner.street.model._data.StreetModelForTest;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetTransitStopLink;
+import org.opentripplanner.street.model.edge.TemporaryFreeEdge;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.model.vertex.TemporaryStreetLocation;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.TransitStopVertexBuilder;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
+import org.opentripplanner.street.search.state.EdgeTraverser;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+
+class AccessEgressStopCacheTest {
+
+  private static final Duration LIMIT = Duration.ofMinutes(20);
+  private static final RouteRequest REQUEST = new RouteRequest();
+
+  private final AtomicInteger searchCount = new AtomicInteger();
+  private final Supplier<List<NearbyStop>> search = () -> {
+    searchCount.incrementAndGet();
+    return new ArrayList<>();
+  };
+
+  @Test
+  void cacheSearchFromSameRoundedLocation() {
+    var subject = new AccessEgressStopCache(10);
+
+    search(subject, location(59.9000001, 10.7000001), StreetMode.WALK, 0);
+    search(subject, location(59.9000002, 10.7000002), StreetMode.WALK, 0);
+    assertEquals(1, searchCount.get());
+
+    search(subject, location(59.9001, 10.7), StreetMode.WALK, 0);
+    assertEquals(2, searchCount.get());
+  }
+
+  @Test
+  void doNotCacheRealtimeDependentModes() {
+    var subject = new AccessEgressStopCache(10);
+
+    search(subject, location(59.9, 10.7), StreetMode.BIKE_RENTAL, 0);
+    search(subject, location(59.9, 10.7), StreetMode.BIKE_RENTAL, 0);
+    assertEquals(2, searchCount.get());
+  }
+
+  @Test
+  void keyIncludesModeAndDirection() {
+    var subject = new AccessEgressStopCache(10);
+    var origin = location(59.9, 10.7);
+
+    search(subject, origin, StreetMode.WALK, 0);
+    search(subject, origin, StreetMode.BIKE, 0);
+    subject.getOrSearch(origin, StreetMode.WALK, true, LIMIT, 0, REQUEST, false, 0, search);
+    assertEquals(3, searchCount.get());
+  }
+
+  @Test
+  void invalidateWhenStreetGraphIsUpdated() {
+    var subject = new AccessEgressStopCache(10);
+    var origin = location(59.9, 10.7);
+
+    search(subject, origin, StreetMode.WALK, 0);
+    search(subject, origin, StreetMode.WALK, 1);
+    search(subject, origin, StreetMode.WALK, 1);
+    assertEquals(2, searchCount.get());
+  }
+
+  @Test
+  void doNotUseCacheForSearchOnOlderStreetGraph() {
+    var subject = new AccessEgressStopCache(10);
+    var origin = location(59.9, 10.7);
+
+    search(subject, origin, StreetMode.WALK, 1);
+    search(subject, origin, StreetMode.WALK, 0);
+    search(subject, origin, StreetMode.WALK, 0);
+    assertEquals(3, searchCount.get());
+
+    // The searches on the older street graph did not replace the entry
+    search(subject, origin, StreetMode.WALK, 1);
+    assertEquals(3, searchCount.get());
+  }
+
+  /**
+   * The states found by the search belong to the request, and must not be returned to another
+   * request from the same location.
+   */
+  @Test
+  void createStatesForEachRequest() {
+    var subject = new AccessEgressStopCache(10);
+    IntersectionVertex a = StreetModelForTest.intersectionVertex("A", 59.9, 10.7);
+    IntersectionVertex b = StreetModelForTest.intersectionVertex("B", 59.901, 10.7);
+    Edge street = StreetModelForTest.streetEdge(a, b);
+    TransitStopVertex stopVertex = new TransitStopVertexBuilder()
+      .withStop(TransitModelForTest.stop("S").withCoordinate(59.901, 10.7).build())
+      .build();
+    Edge link = StreetTransitStopLink.createStreetTransitStopLink(b, stopVertex);
+
+    var first = linkedLocation("first", a);
+    var firstStops = subject.getOrSearch(
+      Set.of(first),
+      StreetMode.WALK,
+      false,
+      LIMIT,
+      0,
+      REQUEST,
+      false,
+      0,
+      () -> traverse(first, street, link)
+    );
+
+    var second = linkedLocation("second", a);
+    var secondStops = subject.getOrSearch(
+      Set.of(second),
+      StreetMode.WALK,
+      false,
+      LIMIT,
+      0,
+      REQUEST,
+      false,
+      0,
+      () -> traverse(second, street, link)
+    );
+
+    assertEquals(1, searchCount.get());
+    assertEquals(1, secondStops.size());
+    var firstStop = firstStops.get(0);
+    var secondStop = secondStops.get(0);
+    assertSame(stopVertex.getStop(), secondStop.stop);
+    assertSame(second, new GraphPath<>(secondStop.state).states.getFirst().getVertex());
+    assertEquals(firstStop.distance, secondStop.distance, 0.001);
+    assertEquals(firstStop.state.getWeight(), secondStop.state.getWeight(), 0.001);
+    assertEquals(firstStop.edges.subList(1, 3), secondStop.edges.subList(1, 3));
+  }
+
+  @Test
+  void disabled() {
+    var subject = new AccessEgressStopCache(0);
+    var origin = location(59.9, 10.7);
+
+    assertFalse(subject.isEnabled());
+    search(subject, origin, StreetMode.WALK, 0);
+    search(subject, origin, StreetMode.WALK, 0);
+    assertEquals(2, searchCount.get());
+  }
+
+  private void search(
+    AccessEgressStopCache subject,
+    Set<Vertex> origin,
+    StreetMode mode,
+    long realtimeStreetUpdateCount
+  ) {
+    subject.getOrSearch(
+      origin,
+      mode,
+      false,
+      LIMIT,
+      0,
+      REQUEST,
+      false,
+      realtimeStreetUpdateCount,
+      search
+    );
+  }
+
+  /**
+   * Traverse the link from the origin and the given edges, and return the stop at the end.
+   */
+  private List<NearbyStop> traverse(TemporaryStreetLocation origin, Edge... edges) {
+    searchCount.incrementAndGet();
+    var request = StreetSearchRequestMapper.map(REQUEST).withMode(StreetMode.WALK).build();
+    var path = new ArrayList<>(origin.getOutgoing());
+    path.addAll(List.of(edges));
+    var state = EdgeTraverser.traverseEdges(new State(origin, request), path).orElseThrow();
+    var stop = ((TransitStopVertex) state.getVertex()).getStop();
+    return List.of(NearbyStop.nearbyStopForState(state, stop));
+  }
+
+  private static TemporaryStreetLocation linkedLocation(String name, Vertex vertex) {
+    var location = new TemporaryStreetLocation(
+      name,
+      vertex.getCoordinate(),
+      new NonLocalizedString(name),
+      false
+    );
+    TemporaryFreeEdge.createTemporaryFreeEdge(location, vertex);
+    return location;
+  }
+
+  private static Set<Vertex> location(double lat, double lon) {
+    return Set.of(
+      new TemporaryStreetLocation(
+        "origin",
+        new Coordinate(lon, lat),
+        new NonLocalizedString("origin"),
+        false
+      )
+    );
+  }
+}
@@ -0,0 +1,50 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+
+class LazyRaptorTransferIndexTest {
+
+  private static final StreetSearchRequest REQUEST = StreetSearchRequest.of().build();
+
+  private final List<List<Transfer>> transfersByStopIndex = List.of(
+    // Two transfers to stop 1, only the shortest is used
+    List.of(new Transfer(1, 200), new Transfer(1, 100), new Transfer(2, 300)),
+    List.of(new Transfer(0, 100)),
+    List.of(new Transfer(1, 50)),
+    List.of()
+  );
+
+  @Test
+  void sameTransfersAsFullIndex() {
+    var expected = RaptorTransferIndex.create(transfersByStopIndex, REQUEST);
+    var subject = new LazyRaptorTransferIndex(
+      new LazyRaptorTransferIndex.TransfersToStop(transfersByStopIndex),
+      REQUEST
+    );
+
+    for (int stop = 0; stop < transfersByStopIndex.size(); ++stop) {
+      assertEquals(expected.getForwardTransfers(stop), subject.getForwardTransfers(stop));
+      assertEquals(expected.getReversedTransfers(stop), subject.getReversedTransfers(stop));
+    }
+  }
+
+  @Test
+  void reversedTransfers() {
+    var subject = new LazyRaptorTransferIndex(
+      new LazyRaptorTransferIndex.TransfersToStop(transfersByStopIndex),
+      REQUEST
+    );
+
+    var transfers = subject.getReversedTransfers(1);
+
+    assertEquals(2, transfers.size());
+    assertEquals(0, transfers.get(0).stop());
+    assertEquals(100, ((DefaultRaptorTransfer) transfers.get(0)).transfer().getDistanceMeters());
+    assertEquals(2, transfers.get(1).stop());
+    assertEquals(List.of(), subject.getReversedTransfers(3));
+  }
+}
@@ -0,0 +1,83 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.LazyRaptorTransferIndex;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.api.request.RouteRequest;
+
+class RaptorRequestTransferCacheTest {
+
+  private static final int DISTANCE_METERS = 120;
+
+  private final List<List<Transfer>> transfersByStopIndex = List.of(
+    List.of(new Transfer(1, DISTANCE_METERS)),
+    List.of()
+  );
+
+  @Test
+  void backgroundBuild() throws Exception {
+    var subject = new RaptorRequestTransferCache(5, true);
+    var request = request(1.5);
+
+    var build = subject.build(transfersByStopIndex, request);
+    build.get(10, TimeUnit.SECONDS);
+
+    assertEquals(1, subject.getTransferCache().size());
+    var index = subject.get(transfersByStopIndex, request);
+    assertSame(index, subject.get(transfersByStopIndex, request));
+    assertEquals(80, index.getForwardTransfers(0).get(0).durationInSeconds());
+  }
+
+  @Test
+  void buildInCallingThreadIfAsyncBuildIsDisabled() {
+    var subject = new RaptorRequestTransferCache(5, false);
+
+    var build = subject.build(transfersByStopIndex, request(1.5));
+
+    assertTrue(build.isDone());
+    assertEquals(1, subject.getTransferCache().size());
+  }
+
+  /**
+   * A request with preferences not in the cache must get transfers calculated with its own
+   * preferences, not the transfers of another request already in the cache.
+   */
+  @Test
+  void missingIndexIsBuiltForTheRequest() throws Exception {
+    var subject = new RaptorRequestTransferCache(5, true);
+    subject.build(transfersByStopIndex, request(1.5)).get(10, TimeUnit.SECONDS);
+
+    var slowWalker = subject.get(transfersByStopIndex, request(0.75));
+
+    assertEquals(160, slowWalker.getForwardTransfers(0).get(0).durationInSeconds());
+    assertEquals(160, slowWalker.getReversedTransfers(1).get(0).durationInSeconds());
+
+    // The missing index is built in the background
+    subject.build(transfersByStopIndex, request(0.75)).get(10, TimeUnit.SECONDS);
+    assertEquals(2, subject.getTransferCache().size());
+  }
+
+  @Test
+  void missingIndexIsBuiltInRequestThreadIfAsyncBuildIsDisabled() {
+    var subject = new RaptorRequestTransferCache(5, false);
+
+    var slowWalker = subject.get(transfersByStopIndex, request(0.75));
+
+    assertFalse(slowWalker instanceof LazyRaptorTransferIndex);
+    assertEquals(160, slowWalker.getForwardTransfers(0).get(0).durationInSeconds());
+    assertEquals(1, subject.getTransferCache().size());
+  }
+
+  private static RouteRequest request(double walkSpeed) {
+    var request = new RouteRequest();
+    request.withPreferences(pref -> pref.withWalk(w -> w.withSpeed(walkSpeed)));
+    return request;
+  }
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.routing.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -91,6 +92,20 @@ class RouteRequestTest {
     );
   }
 
+  @Test
+  void includeWalkSteps() {
+    RouteRequest request = new RouteRequest();
+    assertTrue(request.includeWalkSteps());
+
+    request.setIncludeWalkSteps(false);
+    assertFalse(request.includeWalkSteps());
+
+    // The accessibility score is calculated from the walk steps
+    request.setWheelchair(true);
+    request.withPreferences(p -> p.withItineraryFilter(f -> f.withAccessibilityScore(true)));
+    assertTrue(request.includeWalkSteps());
+  }
+
   @Test
   void testValidateMissingTo() {
     RouteRequest request = new RouteRequest();
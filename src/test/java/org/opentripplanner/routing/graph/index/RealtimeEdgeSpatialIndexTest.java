@@ -0,0 +1,135 @@
+package org.opentripplanner.routing.graph.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+
+class RealtimeEdgeSpatialIndexTest {
+
+  private static final StreetVertex A = intersectionVertex("A", 60.000, 10.000);
+  private static final StreetVertex B = intersectionVertex("B", 60.001, 10.001);
+  private static final StreetVertex C = intersectionVertex("C", 60.010, 10.010);
+  private static final StreetVertex D = intersectionVertex("D", 60.011, 10.011);
+
+  private static final StreetEdge AB = streetEdge(A, B);
+  private static final StreetEdge CD = streetEdge(C, D);
+
+  @Test
+  void insertQueryAndRemove() {
+    var subject = new RealtimeEdgeSpatialIndex();
+    subject.insert(AB.getGeometry().getEnvelopeInternal(), AB);
+    subject.insert(CD.getGeometry().getEnvelopeInternal(), CD);
+
+    assertEquals(2, subject.size());
+    assertEquals(List.of(AB), subject.query(envelope(10.0005, 60.0005)).toList());
+    assertEquals(List.of(CD), subject.query(envelope(10.0105, 60.0105)).toList());
+    assertEquals(List.of(), subject.query(envelope(10.005, 60.005)).toList());
+
+    subject.remove(AB);
+    assertEquals(1, subject.size());
+    assertEquals(List.of(), subject.query(envelope(10.0005, 60.0005)).toList());
+    assertEquals(List.of(CD), subject.query(envelope(10.0105, 60.0105)).toList());
+  }
+
+  @Test
+  void queryUsesSnapshot() {
+    var subject = new RealtimeEdgeSpatialIndex();
+    subject.insert(AB.getGeometry().getEnvelopeInternal(), AB);
+
+    var result = subject.query(envelope(10.0005, 60.0005));
+    subject.remove(AB);
+
+    // The stream was created before the edge was removed
+    assertEquals(List.of(AB), result.toList());
+  }
+
+  @Test
+  void edgeInSeveralBins() {
+    var far = intersectionVertex("F", 60.050, 10.050);
+    var longEdge = streetEdge(A, far);
+    var subject = new RealtimeEdgeSpatialIndex();
+    subject.insert(longEdge.getGeometry().getEnvelopeInternal(), longEdge);
+    subject.insert(CD.getGeometry().getEnvelopeInternal(), CD);
+
+    assertEquals(List.of(longEdge), subject.query(envelope(10.0005, 60.0005)).toList());
+    assertEquals(List.of(longEdge), subject.query(envelope(10.049, 60.049)).toList());
+    assertEquals(
+      Set.of(longEdge, CD),
+      subject.query(new Envelope(-180, 180, -90, 90)).collect(Collectors.toSet())
+    );
+
+    subject.remove(longEdge);
+    assertEquals(List.of(), subject.query(envelope(10.049, 60.049)).toList());
+    assertEquals(List.of(CD), subject.query(new Envelope(-180, 180, -90, 90)).toList());
+  }
+
+  @Test
+  void concurrentUpdateAndQuery() throws Exception {
+    var subject = new RealtimeEdgeSpatialIndex();
+    subject.insert(CD.getGeometry().getEnvelopeInternal(), CD);
+
+    List<StreetEdge> edges = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      var from = intersectionVertex("V" + i, 59.999 - i * 0.0001, 10.0 + i * 0.0001);
+      var to = intersectionVertex("W" + i, 59.999 - i * 0.0001, 10.0002 + i * 0.0001);
+      edges.add(streetEdge(from, to));
+    }
+
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      var writer = executor.submit(() -> {
+        for (int round = 0; round < 20; round++) {
+          edges.forEach(e -> subject.insert(e.getGeometry().getEnvelopeInternal(), e));
+          edges.forEach(subject::remove);
+        }
+      });
+      List<Future<?>> readers = new ArrayList<>();
+      for (int r = 0; r < 3; r++) {
+        readers.add(
+          executor.submit(() -> {
+            while (!writer.isDone()) {
+              // The edge which is never removed is always found
+              var result = subject.query(envelope(10.0105, 60.0105)).toList();
+              assertEquals(List.of(CD), result);
+
+              // No edge is returned twice, even if it is in several bins
+              var all = subject.query(envelope(10.01, 60.01, 0.02)).toList();
+              assertEquals(Set.copyOf(all).size(), all.size());
+            }
+          })
+        );
+      }
+      writer.get(60, TimeUnit.SECONDS);
+      for (var reader : readers) {
+        reader.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, subject.size());
+    assertEquals(List.of(CD), subject.query(new Envelope(-180, 180, -90, 90)).toList());
+  }
+
+  private static Envelope envelope(double lon, double lat, double distance) {
+    var env = new Envelope(lon, lon, lat, lat);
+    env.expandBy(distance);
+    return env;
+  }
+
+  private static Envelope envelope(double lon, double lat) {
+    return envelope(lon, lat, 0.0001);
+  }
+}
@@ -0,0 +1,153 @@
+package org.opentripplanner.routing.linking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.framework.i18n.NonLocalizedString;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.index.EdgeSpatialIndex;
+import org.opentripplanner.street.model._data.StreetModelForTest;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.TemporaryStreetLocation;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.TraverseModeSet;
+import org.opentripplanner.transit.service.StopModel;
+
+/**
+ * Test the cache of closest edges used when linking request locations.
+ */
+class VertexLinkerTest {
+
+  private static final double LAT = 60.0001;
+  private static final double LON = 10.005;
+
+  /** The street the request locations are linked to first, about 11 meters away. */
+  private static final double FAR_STREET_LAT = 60.0;
+
+  /** A street added after the first request, about 5.5 meters away. */
+  private static final double NEAR_STREET_LAT = 60.00015;
+
+  private final Graph graph = new Graph();
+  private final EdgeSpatialIndex edgeSpatialIndex = new EdgeSpatialIndex();
+  private final VertexLinker subject = new VertexLinker(graph, new StopModel(), edgeSpatialIndex);
+
+  @Test
+  void useCachedClosestEdgesForSameLocation() {
+    street(FAR_STREET_LAT);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+
+    // Permanent edges are not added at request time. The new street is only used if the closest
+    // edges are searched again, so it is not used when the cached edges are
+    street(NEAR_STREET_LAT);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+
+    // The same coordinate, rounded to the same key
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT + 1e-9, LON - 1e-9), 1e-9);
+  }
+
+  @Test
+  void nearbyLocationsDoNotShareClosestEdges() {
+    street(FAR_STREET_LAT);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+
+    street(NEAR_STREET_LAT);
+    // About 2 cm away, in another cache key
+    assertEquals(NEAR_STREET_LAT, linkForRequest(LAT + 2e-7, LON), 1e-9);
+    assertEquals(NEAR_STREET_LAT, linkForRequest(LAT, LON + 2e-7), 1e-9);
+  }
+
+  @Test
+  void invalidateWhenStreetGraphIsUpdatedByRealtimeUpdater() {
+    street(FAR_STREET_LAT);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+
+    street(NEAR_STREET_LAT);
+    graph.realtimeStreetUpdated();
+    assertEquals(NEAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+  }
+
+  @Test
+  void useCachedClosestEdgesWhenPlacesAreLinkedInRealtime() {
+    street(FAR_STREET_LAT);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+
+    street(NEAR_STREET_LAT);
+    linkForRealtime(subject);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+  }
+
+  @Test
+  void invalidateWhenCachedEdgeIsRemoved() {
+    var farStreet = street(FAR_STREET_LAT);
+    assertEquals(FAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+
+    street(NEAR_STREET_LAT);
+    graph.removeEdge(farStreet);
+    assertEquals(NEAR_STREET_LAT, linkForRequest(LAT, LON), 1e-9);
+  }
+
+  @Test
+  void realtimeLinkingDoesNotUpdateTheStreetGraph() {
+    street(FAR_STREET_LAT);
+    graph.index(new StopModel());
+
+    var tempEdges = linkForRealtime(graph.getLinker());
+    tempEdges.disposeEdges();
+
+    assertEquals(0, graph.realtimeStreetUpdateCount());
+  }
+
+  /**
+   * Add a street going east along the given latitude.
+   */
+  private StreetEdge street(double lat) {
+    StreetVertex from = StreetModelForTest.intersectionVertex(lat, 10.0);
+    StreetVertex to = StreetModelForTest.intersectionVertex(lat, 10.01);
+    graph.addVertex(from);
+    graph.addVertex(to);
+    var edge = StreetModelForTest.streetEdge(from, to);
+    edgeSpatialIndex.insert(edge.getGeometry(), edge, Scope.PERMANENT);
+    return edge;
+  }
+
+  /**
+   * Link a request location, and return the latitude of the street it is linked to.
+   */
+  private double linkForRequest(double lat, double lon) {
+    var location = new TemporaryStreetLocation(
+      "origin",
+      new Coordinate(lon, lat),
+      new NonLocalizedString("origin"),
+      false
+    );
+    List<StreetVertex> linkedTo = new ArrayList<>();
+    var tempEdges = subject.linkVertexForRequest(
+      location,
+      new TraverseModeSet(TraverseMode.WALK),
+      LinkingDirection.OUTGOING,
+      (vertex, streetVertex) -> {
+        linkedTo.add(streetVertex);
+        return List.of();
+      }
+    );
+    tempEdges.disposeEdges();
+    assertEquals(1, linkedTo.size());
+    return linkedTo.get(0).getLat();
+  }
+
+  /**
+   * Link a vehicle rental or parking place on the far street, as a realtime updater does.
+   */
+  private static DisposableEdgeCollection linkForRealtime(VertexLinker linker) {
+    return linker.linkVertexForRealTime(
+      StreetModelForTest.intersectionVertex(FAR_STREET_LAT - 0.0001, 10.008),
+      new TraverseModeSet(TraverseMode.WALK),
+      LinkingDirection.BOTH_WAYS,
+      (vertex, streetVertex) -> List.of()
+    );
+  }
+}
@@ -12,6 +12,8 @@ import static org.opentripplanner.street.search.TraverseMode.WALK;
 import static org.opentripplanner.street.search.state.VehicleRentalState.HAVE_RENTED;
 import static org.opentripplanner.street.search.state.VehicleRentalState.RENTING_FLOATING;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import org.junit.jupiter.api.Nested;
@@ -169,7 +171,16 @@ class RentalRestrictionExtensionTest {
 
   @Nonnull
   private State state(String network) {
-    var req = StreetSearchRequest.of().withMode(StreetMode.SCOOTER_RENTAL).build();
+    return state(network, false);
+  }
+
+  @Nonnull
+  private State state(String network, boolean arriveBy) {
+    var req = StreetSearchRequest
+      .of()
+      .withMode(StreetMode.SCOOTER_RENTAL)
+      .withArriveBy(arriveBy)
+      .build();
     var editor = new StateEditor(V1, req);
     editor.beginFloatingVehicleRenting(RentalFormFactor.SCOOTER, network, false);
     return editor.makeState();
@@ -225,5 +236,40 @@ class RentalRestrictionExtensionTest {
       // convert to sets so the order doesn't matter
       assertEquals(Set.of(a, b, c), Set.copyOf(c2.toList()));
     }
+
+    @Test
+    void compiledCompositeSameAsExtensions() {
+      var noTraversal = new GeofencingZoneExtension(
+        new GeofencingZone(new FeedScopedId("x", "no-traversal"), null, false, true)
+      );
+      var noDropOff = new GeofencingZoneExtension(
+        new GeofencingZone(new FeedScopedId("y", "no-drop-off"), null, true, false)
+      );
+      var exts = List.of(noTraversal, noDropOff, b);
+      var composite = CompositeRentalRestrictionExtension.of(
+        exts.toArray(RentalRestrictionExtension[]::new)
+      );
+
+      for (var arriveBy : List.of(false, true)) {
+        for (var net : Arrays.asList("x", "y", "b", "other", null)) {
+          var state = state(net, arriveBy);
+          var msg = "network: " + net + ", arriveBy: " + arriveBy;
+          assertEquals(
+            exts.stream().anyMatch(e -> e.traversalBanned(state)),
+            composite.traversalBanned(state),
+            msg
+          );
+          assertEquals(
+            exts.stream().anyMatch(e -> e.dropOffBanned(state)),
+            composite.dropOffBanned(state),
+            msg
+          );
+        }
+      }
+      assertTrue(composite.traversalBanned(state("x")));
+      assertFalse(composite.traversalBanned(state("y")));
+      assertTrue(composite.dropOffBanned(state("y")));
+      assertFalse(composite.dropOffBanned(state("x")));
+    }
   }
 }
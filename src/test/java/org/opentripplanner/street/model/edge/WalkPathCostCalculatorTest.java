@@ -0,0 +1,163 @@
+package org.opentripplanner.street.model.edge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdgeBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.AccessibilityPreferences;
+import org.opentripplanner.routing.api.request.preference.WheelchairPreferences;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.LabelledIntersectionVertex;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.TransitStopVertexBuilder;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.request.StreetSearchRequestBuilder;
+import org.opentripplanner.street.search.state.EdgeTraverser;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.basic.Accessibility;
+import org.opentripplanner.transit.model.basic.TransitMode;
+
+class WalkPathCostCalculatorTest {
+
+  private static final StreetVertex A = intersectionVertex("A", 59.9000, 10.7000);
+  private static final StreetVertex B = new LabelledIntersectionVertex(
+    "B",
+    59.9010,
+    10.7000,
+    false,
+    true
+  );
+  private static final StreetVertex C = intersectionVertex("C", 59.9010, 10.7020);
+  private static final StreetVertex D = intersectionVertex("D", 59.9020, 10.7020);
+
+  private static final StreetEdge AB = edge(A, B, 111.2, false);
+  private static final StreetEdge BC = edge(B, C, 111.8, true);
+  private static final StreetEdge CD = edge(C, D, 111.2, false);
+
+  private static final TransitStopVertex STOP = new TransitStopVertexBuilder()
+    .withStop(
+      TransitModelForTest.stopForTest(
+        "S1",
+        "stop with unknown accessibility",
+        59.9021,
+        10.7021,
+        null,
+        Accessibility.NO_INFORMATION
+      )
+    )
+    .withModes(Set.of(TransitMode.BUS))
+    .build();
+
+  private static final Edge TO_STOP = StreetTransitStopLink.createStreetTransitStopLink(D, STOP);
+
+  private static final List<Edge> PATH = List.of(AB, BC, CD, TO_STOP);
+
+  @Test
+  void walk() {
+    assertSameAsTraversal(PATH, walkRequest().build());
+  }
+
+  @Test
+  void walkWithReluctanceAndTurns() {
+    var request = walkRequest()
+      .withPreferences(p ->
+        p
+          .withWalk(w -> w.withSpeed(1.1).withReluctance(3.5).withStairsReluctance(7.0))
+          .withStreet(s -> s.withTurnReluctance(2.0))
+      )
+      .build();
+    assertSameAsTraversal(PATH, request);
+  }
+
+  @Test
+  void wheelchair() {
+    var request = walkRequest()
+      .withWheelchair(true)
+      .withPreferences(p ->
+        p.withWheelchair(
+          WheelchairPreferences
+            .of()
+            .withStop(AccessibilityPreferences.ofCost(600, 3600))
+            .withStairsReluctance(25)
+            .build()
+        )
+      )
+      .build();
+    assertSameAsTraversal(PATH, request);
+  }
+
+  @Test
+  void wheelchairOnlyAccessibleStops() {
+    var request = walkRequest()
+      .withWheelchair(true)
+      .withPreferences(p ->
+        p.withWheelchair(
+          WheelchairPreferences.of().withStop(AccessibilityPreferences.ofOnlyAccessible()).build()
+        )
+      )
+      .build();
+
+    assertTrue(traverse(PATH, request).isEmpty());
+    assertNull(WalkPathCostCalculator.calculate(PATH, request));
+  }
+
+  @Test
+  void isSupported() {
+    assertTrue(WalkPathCostCalculator.isSupported(PATH));
+    assertFalse(WalkPathCostCalculator.isSupported(List.of()));
+
+    var carOnly = streetEdgeBuilder(A, B, 100, StreetTraversalPermission.CAR).buildAndConnect();
+    assertFalse(WalkPathCostCalculator.isSupported(List.of(carOnly)));
+
+    var noThruTraffic = streetEdgeBuilder(A, B, 100, StreetTraversalPermission.ALL)
+      .withWalkNoThruTraffic(true)
+      .buildAndConnect();
+    assertFalse(WalkPathCostCalculator.isSupported(List.of(noThruTraffic)));
+
+    assertTrue(WalkPathCostCalculator.isSupported(walkRequest().build()));
+    assertFalse(
+      WalkPathCostCalculator.isSupported(walkRequest().withMode(StreetMode.BIKE).build())
+    );
+    assertFalse(WalkPathCostCalculator.isSupported(walkRequest().withArriveBy(true).build()));
+  }
+
+  private static void assertSameAsTraversal(List<Edge> path, StreetSearchRequest request) {
+    var state = traverse(path, request).orElseThrow();
+    var cost = WalkPathCostCalculator.calculate(path, request);
+
+    assertNotNull(cost);
+    assertEquals(state.getElapsedTimeSeconds(), cost.durationSeconds());
+    assertEquals(state.getWeight(), cost.weight(), 0.0001);
+  }
+
+  private static Optional<State> traverse(List<Edge> path, StreetSearchRequest request) {
+    var state = new State(path.get(0).getFromVertex(), request);
+    return EdgeTraverser.traverseEdges(state, path);
+  }
+
+  private static StreetEdge edge(
+    StreetVertex from,
+    StreetVertex to,
+    double length,
+    boolean stairs
+  ) {
+    return streetEdgeBuilder(from, to, length, StreetTraversalPermission.PEDESTRIAN)
+      .withStairs(stairs)
+      .buildAndConnect();
+  }
+
+  private static StreetSearchRequestBuilder walkRequest() {
+    return StreetSearchRequest.of().withMode(StreetMode.WALK);
+  }
+}
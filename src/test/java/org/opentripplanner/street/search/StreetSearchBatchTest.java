@@ -0,0 +1,89 @@
+package org.opentripplanner.street.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+
+class StreetSearchBatchTest {
+
+  private static final StreetVertex A = intersectionVertex("A", 60.000, 10.000);
+  private static final StreetVertex B = intersectionVertex("B", 60.001, 10.000);
+  private static final StreetVertex C = intersectionVertex("C", 60.002, 10.000);
+  private static final StreetVertex D = intersectionVertex("D", 60.002, 10.002);
+  private static final List<Vertex> VERTICES = List.of(A, B, C, D);
+
+  static {
+    for (var pair : List.of(List.of(A, B), List.of(B, C), List.of(C, D))) {
+      streetEdge(pair.get(0), pair.get(1));
+      streetEdge(pair.get(1), pair.get(0));
+    }
+  }
+
+  private final RouteRequest request = new RouteRequest();
+  private final StreetRequest streetRequest = new StreetRequest(StreetMode.WALK);
+
+  @Test
+  void sameResultAsSingleSearch() {
+    var result = StreetSearchBatch
+      .<String>of(request, streetRequest)
+      .addOrigin("A", A)
+      .addOrigin("D", D)
+      .addOrigin("B", B)
+      .search(StreetSearchBatchTest::weights);
+
+    assertEquals(List.of("A", "D", "B"), List.copyOf(result.keySet()));
+
+    for (var origin : List.of(A, B, D)) {
+      assertEquals(weights(singleSearch(origin)), result.get(origin.getLabelString()));
+    }
+  }
+
+  @Test
+  void sequentialSearchesReuseTheWorkspace() {
+    var result = StreetSearchBatch
+      .<Integer>of(request, streetRequest)
+      .setParallel(false)
+      .addOrigin(1, A)
+      .addOrigin(2, C)
+      .addOrigin(3, A)
+      .search(StreetSearchBatchTest::weights);
+
+    assertEquals(0.0, result.get(1).get(A));
+    assertEquals(0.0, result.get(2).get(C));
+    assertEquals(result.get(1).get(C), result.get(2).get(A), 0.001);
+    // The tree of the first search is cleared by the second, the results must not be affected
+    assertEquals(result.get(1), result.get(3));
+    assertEquals(weights(singleSearch(A)), result.get(1));
+  }
+
+  private static Map<Vertex, Double> weights(ShortestPathTree<State, Edge, Vertex> tree) {
+    return VERTICES
+      .stream()
+      .collect(Collectors.toMap(Function.identity(), v -> tree.getState(v).getWeight()));
+  }
+
+  private ShortestPathTree<State, Edge, Vertex> singleSearch(Vertex origin) {
+    return StreetSearchBuilder
+      .of()
+      .setDominanceFunction(new DominanceFunctions.MinimumWeight())
+      .setRequest(request)
+      .setStreetRequest(streetRequest)
+      .setFrom(origin)
+      .getShortestPathTree();
+  }
+}
@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.framework.geometry.GeometryUtils;
@@ -420,6 +422,94 @@ public class SimpleIntersectionTraversalCalculatorTest {
     assertEquals(8.0, traversalCost, 0.0);
   }
 
+  /**
+   * The turn classes are looked up in a table computed up front. Compare the durations with the
+   * durations computed from the turn angle of each turn, for turns in all directions.
+   */
+  @ParameterizedTest
+  @EnumSource(DrivingDirection.class)
+  public void testTurnClassTable(DrivingDirection drivingDirection) {
+    var calculator = new SimpleIntersectionTraversalCalculator(drivingDirection);
+    Coordinate center = new Coordinate(10.0, 60.0);
+    IntersectionVertex u = vertex("from_v", new Coordinate(9.999, 59.999), false, false);
+    IntersectionVertex noLight = vertex("no_light", center, false, false);
+    IntersectionVertex light = vertex("light", center, true, true);
+    StreetEdge fromNoLight = edge(u, noLight, 1.0, false);
+    StreetEdge fromLight = edge(u, light, 1.0, false);
+
+    // Extra edges prevent inferral of free-flowingness
+    edge(noLight, u, 1.0, true);
+    edge(light, u, 1.0, true);
+
+    for (int direction = 0; direction < 360; direction += 5) {
+      double radians = Math.toRadians(direction);
+      Coordinate c = new Coordinate(
+        center.x + 0.001 * Math.cos(radians),
+        center.y + 0.001 * Math.sin(radians)
+      );
+      IntersectionVertex w = vertex("to_" + direction, c, false, false);
+      StreetEdge toNoLight = edge(noLight, w, 1.0, false);
+      StreetEdge toLight = edge(light, w, 1.0, false);
+
+      int turnAngle = calculator.calculateTurnAngle(fromNoLight, toNoLight);
+      boolean safe = calculator.isSafeTurn(turnAngle);
+      boolean acrossTraffic = calculator.isTurnAcrossTraffic(turnAngle);
+
+      double expectedNoLight = safe
+        ? calculator.getExpectedRightNoLightTimeSec()
+        : acrossTraffic
+          ? calculator.getExpectedLeftNoLightTimeSec()
+          : calculator.getExpectedStraightNoLightTimeSec();
+      assertEquals(
+        expectedNoLight,
+        calculator.computeTraversalDuration(
+          noLight,
+          fromNoLight,
+          toNoLight,
+          TraverseMode.CAR,
+          1,
+          1
+        ),
+        0.0,
+        "Turn angle " + turnAngle
+      );
+
+      double expectedAtLight = safe
+        ? calculator.getExpectedRightAtLightTimeSec()
+        : acrossTraffic
+          ? calculator.getExpectedLeftAtLightTimeSec()
+          : calculator.getExpectedStraightAtLightTimeSec();
+      assertEquals(
+        expectedAtLight,
+        calculator.computeTraversalDuration(light, fromLight, toLight, TraverseMode.CAR, 1, 1),
+        0.0,
+        "Turn angle " + turnAngle
+      );
+
+      double baseDuration = calculator.computeNonDrivingTraversalDuration(
+        fromNoLight,
+        toNoLight,
+        5
+      );
+      double expectedCycling = acrossTraffic
+        ? baseDuration * calculator.getAcrossTrafficBicycleTurnMultiplier()
+        : safe ? baseDuration * calculator.getSafeBicycleTurnModifier() : baseDuration;
+      assertEquals(
+        expectedCycling,
+        calculator.computeTraversalDuration(
+          noLight,
+          fromNoLight,
+          toNoLight,
+          TraverseMode.BICYCLE,
+          5,
+          5
+        ),
+        0.0,
+        "Turn angle " + turnAngle
+      );
+    }
+  }
+
   /****
    * Private Methods
    ****/